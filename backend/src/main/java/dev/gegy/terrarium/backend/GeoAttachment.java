@@ -4,12 +4,17 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import dev.gegy.terrarium.backend.raster.Raster;
 import dev.gegy.terrarium.backend.raster.RasterType;
+import dev.gegy.terrarium.backend.util.BinaryCodec;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 
+import javax.annotation.Nullable;
 import java.util.Map;
 
 public class GeoAttachment<V> {
     private static final Map<String, GeoAttachment<?>> REGISTRY = new Object2ObjectOpenHashMap<>();
+    private static final Int2ObjectMap<GeoAttachment<?>> REGISTRY_BY_RAW_ID = new Int2ObjectOpenHashMap<>();
 
     public static final Codec<GeoAttachment<?>> CODEC = Codec.STRING.comapFlatMap(
             id -> {
@@ -19,30 +24,53 @@ public class GeoAttachment<V> {
             attachment -> attachment.id
     );
 
+    private final int rawId;
     private final String id;
     private final Codec<V> codec;
+    private final BinaryCodec<V> binaryCodec;
 
-    private GeoAttachment(final String id, final Codec<V> codec) {
+    private GeoAttachment(final int rawId, final String id, final Codec<V> codec, final BinaryCodec<V> binaryCodec) {
+        this.rawId = rawId;
         this.id = id;
         this.codec = codec;
+        this.binaryCodec = binaryCodec;
     }
 
-    public static <V extends Raster> GeoAttachment<V> register(final String id, final RasterType<V> rasterType) {
-        return register(id, rasterType.codec());
+    // The raw id is what identifies the attachment in the binary form of a chunk, so it must never be reused
+    public static <V extends Raster> GeoAttachment<V> register(final int rawId, final String id, final RasterType<V> rasterType) {
+        return register(rawId, id, rasterType.codec(), rasterType.binaryCodec());
     }
 
-    public static <V> GeoAttachment<V> register(final String id, final Codec<V> codec) {
-        final GeoAttachment<V> attachment = new GeoAttachment<>(id, codec);
-        if (REGISTRY.putIfAbsent(id, attachment) != null) {
+    public static <V> GeoAttachment<V> register(final int rawId, final String id, final Codec<V> codec, final BinaryCodec<V> binaryCodec) {
+        final GeoAttachment<V> attachment = new GeoAttachment<>(rawId, id, codec, binaryCodec);
+        if (REGISTRY.containsKey(id)) {
             throw new IllegalArgumentException("Attachment is already registered with id: " + id);
         }
+        if (REGISTRY_BY_RAW_ID.containsKey(rawId)) {
+            throw new IllegalArgumentException("Attachment is already registered with raw id: " + rawId);
+        }
+        REGISTRY.put(id, attachment);
+        REGISTRY_BY_RAW_ID.put(rawId, attachment);
         return attachment;
     }
 
+    @Nullable
+    public static GeoAttachment<?> byRawId(final int rawId) {
+        return REGISTRY_BY_RAW_ID.get(rawId);
+    }
+
+    public int rawId() {
+        return rawId;
+    }
+
     public Codec<V> codec() {
         return codec;
     }
 
+    public BinaryCodec<V> binaryCodec() {
+        return binaryCodec;
+    }
+
     @Override
     public String toString() {
         return id;
@@ -2,11 +2,14 @@ package dev.gegy.terrarium.backend;
 
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Set;
 
 public class GeoAttachmentSet implements Iterable<GeoAttachment<?>> {
+    public static final GeoAttachmentSet EMPTY = new GeoAttachmentSet(Set.of());
+
     private final Set<GeoAttachment<?>> attachments;
 
     private GeoAttachmentSet(final Set<GeoAttachment<?>> attachments) {
@@ -19,6 +22,24 @@ public class GeoAttachmentSet implements Iterable<GeoAttachment<?>> {
         return new GeoAttachmentSet(set);
     }
 
+    public static GeoAttachmentSet copyOf(final Collection<? extends GeoAttachment<?>> attachments) {
+        return new GeoAttachmentSet(new ReferenceOpenHashSet<>(attachments));
+    }
+
+    public GeoAttachmentSet union(final GeoAttachmentSet other) {
+        final Set<GeoAttachment<?>> set = new ReferenceOpenHashSet<>(attachments);
+        set.addAll(other.attachments);
+        return new GeoAttachmentSet(set);
+    }
+
+    public boolean contains(final GeoAttachment<?> attachment) {
+        return attachments.contains(attachment);
+    }
+
+    public boolean isEmpty() {
+        return attachments.isEmpty();
+    }
+
     @Override
     public Iterator<GeoAttachment<?>> iterator() {
         return attachments.iterator();
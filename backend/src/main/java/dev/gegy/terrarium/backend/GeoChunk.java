@@ -1,11 +1,19 @@
 package dev.gegy.terrarium.backend;
 
 import com.mojang.serialization.Codec;
+import dev.gegy.terrarium.backend.util.BinaryCodec;
 import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
 import it.unimi.dsi.fastutil.objects.Reference2ObjectMaps;
 import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 
 import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -18,9 +26,12 @@ public class GeoChunk {
 
     public static final GeoChunk EMPTY = new GeoChunk(Reference2ObjectMaps.emptyMap());
 
+    // The compact form written with chunks, as opposed to CODEC. Must be bumped whenever the layout changes.
+    private static final int BINARY_VERSION = 1;
+
     private final Reference2ObjectMap<GeoAttachment<?>, Object> attachmentMap;
 
-    private GeoChunk(final Reference2ObjectMap<GeoAttachment<?>, Object> attachmentMap) {
+    GeoChunk(final Reference2ObjectMap<GeoAttachment<?>, Object> attachmentMap) {
         this.attachmentMap = attachmentMap;
     }
 
@@ -42,6 +53,78 @@ public class GeoChunk {
         return attachmentMap.isEmpty();
     }
 
+    // Where both chunks have an attachment, the one from the given chunk is taken
+    public GeoChunk with(final GeoChunk other) {
+        if (other.isEmpty()) {
+            return this;
+        } else if (isEmpty()) {
+            return other;
+        }
+        final Reference2ObjectMap<GeoAttachment<?>, Object> result = new Reference2ObjectOpenHashMap<>(attachmentMap);
+        result.putAll(other.attachmentMap);
+        return new GeoChunk(result);
+    }
+
+    // Each attachment is stored by its raw id, and prefixed with its length so that readers can skip over attachments
+    // that they don't know about
+    public byte[] toBytes() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        final ByteArrayOutputStream attachmentBytes = new ByteArrayOutputStream(1024);
+        try {
+            final DataOutputStream output = new DataOutputStream(bytes);
+            final DataOutputStream attachmentOutput = new DataOutputStream(attachmentBytes);
+            output.writeByte(BINARY_VERSION);
+            BinaryCodec.writeVarInt(output, attachmentMap.size());
+            for (final Reference2ObjectMap.Entry<GeoAttachment<?>, Object> entry : attachmentMap.reference2ObjectEntrySet()) {
+                final GeoAttachment<?> attachment = entry.getKey();
+                attachmentBytes.reset();
+                writeAttachment(attachment, entry.getValue(), attachmentOutput);
+                BinaryCodec.writeVarInt(output, attachment.rawId());
+                BinaryCodec.writeVarInt(output, attachmentBytes.size());
+                attachmentBytes.writeTo(output);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static GeoChunk fromBytes(final byte[] bytes) throws IOException {
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        final int version = input.readUnsignedByte();
+        if (version != BINARY_VERSION) {
+            throw new IOException("Unsupported GeoChunk binary version " + version + ", expected " + BINARY_VERSION);
+        }
+        final int count = BinaryCodec.readVarInt(input);
+        if (count < 0 || count > bytes.length) {
+            throw new IOException("Invalid attachment count " + count);
+        }
+        final Reference2ObjectMap<GeoAttachment<?>, Object> attachmentMap = new Reference2ObjectOpenHashMap<>(count);
+        for (int i = 0; i < count; i++) {
+            final int rawId = BinaryCodec.readVarInt(input);
+            final int length = BinaryCodec.readVarInt(input);
+            if (length < 0 || length > input.available()) {
+                throw new IOException("Attachment " + rawId + " claims " + length + " bytes, but only " + input.available() + " remain");
+            }
+            final GeoAttachment<?> attachment = GeoAttachment.byRawId(rawId);
+            if (attachment != null) {
+                final int offset = bytes.length - input.available();
+                final DataInputStream attachmentInput = new DataInputStream(new ByteArrayInputStream(bytes, offset, length));
+                attachmentMap.put(attachment, attachment.binaryCodec().read(attachmentInput));
+                if (attachmentInput.available() != 0) {
+                    throw new IOException("Attachment " + attachment + " left " + attachmentInput.available() + " bytes unread");
+                }
+            }
+            input.skipNBytes(length);
+        }
+        return new GeoChunk(attachmentMap);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void writeAttachment(final GeoAttachment<V> attachment, final Object value, final DataOutput output) throws IOException {
+        attachment.binaryCodec().write((V) value, output);
+    }
+
     public Optional<GeoChunk> requireAll(final GeoAttachmentSet attachments) {
         return hasAll(attachments) ? Optional.of(this) : Optional.empty();
     }
@@ -64,13 +147,11 @@ public class GeoChunk {
         }
 
         public CompletableFuture<Optional<GeoChunk>> build() {
-            return CompletableFuture.allOf(attachmentMap.values().toArray(CompletableFuture[]::new)).thenApply(unused -> {
-                final Reference2ObjectMap<GeoAttachment<?>, Object> result = new Reference2ObjectOpenHashMap<>(attachmentMap.size());
-                attachmentMap.forEach((attachment, future) ->
-                        future.join().ifPresent(value -> result.put(attachment, value))
-                );
-                return Optional.of(new GeoChunk(result));
-            });
+            return buildPending().all().thenApply(Optional::of);
+        }
+
+        public PendingGeoChunk buildPending() {
+            return new PendingGeoChunk(new Reference2ObjectOpenHashMap<>(attachmentMap));
         }
     }
 }
@@ -0,0 +1,58 @@
+package dev.gegy.terrarium.backend;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMaps;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// A GeoChunk whose attachments are each still loading on their own, so that anything needing only a few of them doesn't
+// have to wait on the slowest of the rest
+public class PendingGeoChunk {
+    public static final PendingGeoChunk EMPTY = new PendingGeoChunk(Reference2ObjectMaps.emptyMap());
+
+    private final Reference2ObjectMap<GeoAttachment<?>, CompletableFuture<? extends Optional<?>>> attachmentMap;
+
+    PendingGeoChunk(final Reference2ObjectMap<GeoAttachment<?>, CompletableFuture<? extends Optional<?>>> attachmentMap) {
+        this.attachmentMap = attachmentMap;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> CompletableFuture<Optional<V>> get(final GeoAttachment<V> attachment) {
+        final CompletableFuture<? extends Optional<?>> future = attachmentMap.get(attachment);
+        if (future == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return (CompletableFuture<Optional<V>>) future;
+    }
+
+    // Completes once all the given attachments have, but the resulting chunk also includes any others that happened to
+    // be ready by then
+    public CompletableFuture<GeoChunk> require(final GeoAttachmentSet attachments) {
+        final List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (final GeoAttachment<?> attachment : attachments) {
+            final CompletableFuture<?> future = attachmentMap.get(attachment);
+            if (future != null) {
+                futures.add(future);
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(unused -> collectCompleted());
+    }
+
+    public CompletableFuture<GeoChunk> all() {
+        return CompletableFuture.allOf(attachmentMap.values().toArray(CompletableFuture[]::new)).thenApply(unused -> collectCompleted());
+    }
+
+    private GeoChunk collectCompleted() {
+        final Reference2ObjectMap<GeoAttachment<?>, Object> result = new Reference2ObjectOpenHashMap<>(attachmentMap.size());
+        attachmentMap.forEach((attachment, future) -> {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                future.join().ifPresent(value -> result.put(attachment, value));
+            }
+        });
+        return new GeoChunk(result);
+    }
+}
@@ -27,18 +27,18 @@ public record EarthAttachments(
         TemperatureRaster minTemperature,
         RainfallRaster annualRainfall
 ) {
-    public static final GeoAttachment<ShortRaster> ELEVATION = GeoAttachment.register("elevation", ShortRaster.TYPE);
-    public static final GeoAttachment<EnumRaster<Cover>> LAND_COVER = GeoAttachment.register("land_cover", EnumRaster.type(Cover.NONE, Cover.CODEC));
-    public static final GeoAttachment<UnsignedByteRaster> CATION_EXCHANGE_CAPACITY = GeoAttachment.register("cation_exchange_capacity", UnsignedByteRaster.TYPE);
-    public static final GeoAttachment<ShortRaster> ORGANIC_CARBON_CONTENT = GeoAttachment.register("organic_carbon_content", ShortRaster.TYPE);
-    public static final GeoAttachment<UnsignedByteRaster> SOIL_PH = GeoAttachment.register("soil_ph", UnsignedByteRaster.TYPE);
-    public static final GeoAttachment<UnsignedByteRaster> CLAY_CONTENT = GeoAttachment.register("clay_content", UnsignedByteRaster.TYPE);
-    public static final GeoAttachment<UnsignedByteRaster> SILT_CONTENT = GeoAttachment.register("silt_content", UnsignedByteRaster.TYPE);
-    public static final GeoAttachment<UnsignedByteRaster> SAND_CONTENT = GeoAttachment.register("sand_content", UnsignedByteRaster.TYPE);
-    public static final GeoAttachment<EnumRaster<SoilSuborder>> SOIL_SUBORDER = GeoAttachment.register("soil_suborder", EnumRaster.type(SoilSuborder.NONE, SoilSuborder.CODEC));
-    public static final GeoAttachment<TemperatureRaster> MEAN_TEMPERATURE = GeoAttachment.register("mean_temperature", TemperatureRaster.TYPE);
-    public static final GeoAttachment<TemperatureRaster> MIN_TEMPERATURE = GeoAttachment.register("min_temperature", TemperatureRaster.TYPE);
-    public static final GeoAttachment<RainfallRaster> ANNUAL_RAINFALL = GeoAttachment.register("annual_rainfall", RainfallRaster.TYPE);
+    public static final GeoAttachment<ShortRaster> ELEVATION = GeoAttachment.register(0, "elevation", ShortRaster.TYPE);
+    public static final GeoAttachment<EnumRaster<Cover>> LAND_COVER = GeoAttachment.register(1, "land_cover", EnumRaster.type(Cover.NONE, Cover.CODEC));
+    public static final GeoAttachment<UnsignedByteRaster> CATION_EXCHANGE_CAPACITY = GeoAttachment.register(2, "cation_exchange_capacity", UnsignedByteRaster.TYPE);
+    public static final GeoAttachment<ShortRaster> ORGANIC_CARBON_CONTENT = GeoAttachment.register(3, "organic_carbon_content", ShortRaster.TYPE);
+    public static final GeoAttachment<UnsignedByteRaster> SOIL_PH = GeoAttachment.register(4, "soil_ph", UnsignedByteRaster.TYPE);
+    public static final GeoAttachment<UnsignedByteRaster> CLAY_CONTENT = GeoAttachment.register(5, "clay_content", UnsignedByteRaster.TYPE);
+    public static final GeoAttachment<UnsignedByteRaster> SILT_CONTENT = GeoAttachment.register(6, "silt_content", UnsignedByteRaster.TYPE);
+    public static final GeoAttachment<UnsignedByteRaster> SAND_CONTENT = GeoAttachment.register(7, "sand_content", UnsignedByteRaster.TYPE);
+    public static final GeoAttachment<EnumRaster<SoilSuborder>> SOIL_SUBORDER = GeoAttachment.register(8, "soil_suborder", EnumRaster.type(SoilSuborder.NONE, SoilSuborder.CODEC));
+    public static final GeoAttachment<TemperatureRaster> MEAN_TEMPERATURE = GeoAttachment.register(9, "mean_temperature", TemperatureRaster.TYPE);
+    public static final GeoAttachment<TemperatureRaster> MIN_TEMPERATURE = GeoAttachment.register(10, "min_temperature", TemperatureRaster.TYPE);
+    public static final GeoAttachment<RainfallRaster> ANNUAL_RAINFALL = GeoAttachment.register(11, "annual_rainfall", RainfallRaster.TYPE);
 
     public static final GeoAttachmentSet REQUIRED_SET = GeoAttachmentSet.of(
             ELEVATION,
@@ -56,19 +56,25 @@ public record EarthAttachments(
     );
 
     public static Optional<EarthAttachments> from(final GeoChunk chunk) {
-        return chunk.requireAll(REQUIRED_SET).map(completeChunk -> new EarthAttachments(
-                completeChunk.getOrThrow(ELEVATION),
-                completeChunk.getOrThrow(LAND_COVER),
-                completeChunk.getOrThrow(CATION_EXCHANGE_CAPACITY),
-                completeChunk.getOrThrow(ORGANIC_CARBON_CONTENT),
-                completeChunk.getOrThrow(SOIL_PH),
-                completeChunk.getOrThrow(CLAY_CONTENT),
-                completeChunk.getOrThrow(SILT_CONTENT),
-                completeChunk.getOrThrow(SAND_CONTENT),
-                completeChunk.getOrThrow(SOIL_SUBORDER),
-                completeChunk.getOrThrow(MEAN_TEMPERATURE),
-                completeChunk.getOrThrow(MIN_TEMPERATURE),
-                completeChunk.getOrThrow(ANNUAL_RAINFALL)
+        return from(chunk, REQUIRED_SET);
+    }
+
+    // Only the given attachments need to be on the chunk, and any others it doesn't have are left null. This is for
+    // consumers that know exactly what they read, such as through GeoParameters.requiredAttachments.
+    public static Optional<EarthAttachments> from(final GeoChunk chunk, final GeoAttachmentSet attachments) {
+        return chunk.requireAll(attachments).map(completeChunk -> new EarthAttachments(
+                completeChunk.get(ELEVATION),
+                completeChunk.get(LAND_COVER),
+                completeChunk.get(CATION_EXCHANGE_CAPACITY),
+                completeChunk.get(ORGANIC_CARBON_CONTENT),
+                completeChunk.get(SOIL_PH),
+                completeChunk.get(CLAY_CONTENT),
+                completeChunk.get(SILT_CONTENT),
+                completeChunk.get(SAND_CONTENT),
+                completeChunk.get(SOIL_SUBORDER),
+                completeChunk.get(MEAN_TEMPERATURE),
+                completeChunk.get(MIN_TEMPERATURE),
+                completeChunk.get(ANNUAL_RAINFALL)
         ));
     }
 }
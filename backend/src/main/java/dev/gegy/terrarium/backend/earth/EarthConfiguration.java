@@ -8,11 +8,14 @@ import dev.gegy.terrarium.backend.projection.Projection;
 public record EarthConfiguration(
         Projection projection,
         float heightScale,
-        int heightOffset
+        int heightOffset,
+        GeoChunkRetention geoChunkRetention
 ) {
     public static final MapCodec<EarthConfiguration> CODEC = RecordCodecBuilder.mapCodec(i -> i.group(
             Projection.CODEC.fieldOf("projection").forGetter(EarthConfiguration::projection),
             Codec.FLOAT.fieldOf("height_scale").forGetter(EarthConfiguration::heightScale),
-            Codec.INT.fieldOf("height_offset").forGetter(EarthConfiguration::heightOffset)
+            Codec.INT.fieldOf("height_offset").forGetter(EarthConfiguration::heightOffset),
+            // Worlds from before this was configurable stored everything
+            GeoChunkRetention.CODEC.optionalFieldOf("geo_chunk_retention", GeoChunkRetention.KEEP).forGetter(EarthConfiguration::geoChunkRetention)
     ).apply(i, EarthConfiguration::new));
 }
@@ -1,13 +1,18 @@
 package dev.gegy.terrarium.backend.earth;
 
+import dev.gegy.terrarium.backend.GeoAttachment;
+import dev.gegy.terrarium.backend.GeoAttachmentSet;
 import dev.gegy.terrarium.backend.GeoChunk;
 import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.PendingGeoChunk;
 import dev.gegy.terrarium.backend.earth.climate.ClimateRasterSamplers;
 import dev.gegy.terrarium.backend.earth.climate.RainfallRaster;
 import dev.gegy.terrarium.backend.earth.climate.TemperatureRaster;
 import dev.gegy.terrarium.backend.earth.cover.Cover;
 import dev.gegy.terrarium.backend.earth.soil.SoilSuborder;
+import dev.gegy.terrarium.backend.layer.GeoChunkLayer;
 import dev.gegy.terrarium.backend.layer.GeoLayer;
+import dev.gegy.terrarium.backend.layer.InterpolatedLayerGroup;
 import dev.gegy.terrarium.backend.projection.Projection;
 import dev.gegy.terrarium.backend.raster.EnumRaster;
 import dev.gegy.terrarium.backend.raster.RasterShape;
@@ -17,6 +22,7 @@ import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 public record EarthLayers(
         GeoLayer<ShortRaster> elevation,
@@ -31,9 +37,17 @@ public record EarthLayers(
         GeoLayer<TemperatureRaster> meanTemperature,
         GeoLayer<TemperatureRaster> minTemperature,
         GeoLayer<RainfallRaster> annualRainfall,
+        InterpolatedLayerGroup interpolated,
+        GeoAttachmentSet attachments,
         Executor executor
-) implements GeoLayer<GeoChunk> {
+) implements GeoChunkLayer {
     public static EarthLayers create(final EarthTiles tiles, final Projection projection, final Executor executor) {
+        return create(tiles, projection, EarthAttachments.REQUIRED_SET, executor);
+    }
+
+    // Chunks will only have the given attachments, so that the data behind any others is never fetched. The individual
+    // layers are all still available.
+    public static EarthLayers create(final EarthTiles tiles, final Projection projection, final GeoAttachmentSet attachments, final Executor executor) {
         final ClimateRasterSamplers climate = tiles.climateSamplers();
         return new EarthLayers(
                 projection.createInterpolatedLayer(tiles.elevation(), executor),
@@ -48,25 +62,49 @@ public record EarthLayers(
                 projection.createInterpolatedLayer(climate.meanTemperature(), executor),
                 projection.createInterpolatedLayer(climate.minTemperature(), executor),
                 projection.createInterpolatedLayer(climate.annualRainfall(), executor),
+                // Elevation is left out so that it can complete without waiting on the rest, as it's all that some
+                // consumers need
+                InterpolatedLayerGroup.builder()
+                        .add(EarthAttachments.CATION_EXCHANGE_CAPACITY, tiles.cationExchangeCapacity())
+                        .add(EarthAttachments.ORGANIC_CARBON_CONTENT, tiles.organicCarbonContent())
+                        .add(EarthAttachments.SOIL_PH, tiles.soilPh())
+                        .add(EarthAttachments.CLAY_CONTENT, tiles.clayContent())
+                        .add(EarthAttachments.SILT_CONTENT, tiles.siltContent())
+                        .add(EarthAttachments.SAND_CONTENT, tiles.sandContent())
+                        .add(EarthAttachments.MEAN_TEMPERATURE, climate.meanTemperature())
+                        .add(EarthAttachments.MIN_TEMPERATURE, climate.minTemperature())
+                        .add(EarthAttachments.ANNUAL_RAINFALL, climate.annualRainfall())
+                        .build(projection, attachments, executor),
+                attachments,
                 executor
         );
     }
 
     @Override
-    public CompletableFuture<Optional<GeoChunk>> get(final GeoView sourceView, final RasterShape outputShape) {
-        return new GeoChunk.Builder()
-                .put(EarthAttachments.ELEVATION, elevation.get(sourceView, outputShape))
-                .put(EarthAttachments.LAND_COVER, landCover.get(sourceView, outputShape))
-                .put(EarthAttachments.CATION_EXCHANGE_CAPACITY, cationExchangeCapacity.get(sourceView, outputShape))
-                .put(EarthAttachments.ORGANIC_CARBON_CONTENT, organicCarbonContent.get(sourceView, outputShape))
-                .put(EarthAttachments.SOIL_PH, soilPh.get(sourceView, outputShape))
-                .put(EarthAttachments.CLAY_CONTENT, clayContent.get(sourceView, outputShape))
-                .put(EarthAttachments.SILT_CONTENT, siltContent.get(sourceView, outputShape))
-                .put(EarthAttachments.SAND_CONTENT, sandContent.get(sourceView, outputShape))
-                .put(EarthAttachments.SOIL_SUBORDER, soilSuborder.get(sourceView, outputShape))
-                .put(EarthAttachments.MEAN_TEMPERATURE, meanTemperature.get(sourceView, outputShape))
-                .put(EarthAttachments.MIN_TEMPERATURE, minTemperature.get(sourceView, outputShape))
-                .put(EarthAttachments.ANNUAL_RAINFALL, annualRainfall.get(sourceView, outputShape))
-                .build();
+    public PendingGeoChunk getPending(final GeoView sourceView, final RasterShape outputShape) {
+        // The individual interpolated layers are kept for anything that only needs one of them, but whole chunks are
+        // sampled through the group so that all of them are resampled together
+        final GeoChunk.Builder builder = new GeoChunk.Builder();
+        putIfIncluded(builder, EarthAttachments.ELEVATION, () -> elevation.get(sourceView, outputShape));
+        putIfIncluded(builder, EarthAttachments.LAND_COVER, () -> landCover.get(sourceView, outputShape));
+        putIfIncluded(builder, EarthAttachments.SOIL_SUBORDER, () -> soilSuborder.get(sourceView, outputShape));
+        return interpolated.putAll(builder, sourceView, outputShape).buildPending();
+    }
+
+    @Override
+    public CompletableFuture<Optional<GeoChunk>> getResident(final GeoView sourceView, final RasterShape outputShape) {
+        // A chunk missing some of its data would be misleading even as a rough result, so it has to be complete
+        final GeoChunk.Builder builder = new GeoChunk.Builder();
+        putIfIncluded(builder, EarthAttachments.ELEVATION, () -> elevation.getResident(sourceView, outputShape));
+        putIfIncluded(builder, EarthAttachments.LAND_COVER, () -> landCover.getResident(sourceView, outputShape));
+        putIfIncluded(builder, EarthAttachments.SOIL_SUBORDER, () -> soilSuborder.getResident(sourceView, outputShape));
+        return interpolated.putAllResident(builder, sourceView, outputShape).build()
+                .thenApply(chunk -> chunk.flatMap(c -> c.requireAll(attachments)));
+    }
+
+    private <V> void putIfIncluded(final GeoChunk.Builder builder, final GeoAttachment<V> attachment, final Supplier<CompletableFuture<Optional<V>>> value) {
+        if (attachments.contains(attachment)) {
+            builder.put(attachment, value.get());
+        }
     }
 }
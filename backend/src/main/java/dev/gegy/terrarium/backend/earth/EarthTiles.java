@@ -1,5 +1,6 @@
 package dev.gegy.terrarium.backend.earth;
 
+import com.mojang.logging.LogUtils;
 import dev.gegy.terrarium.backend.earth.climate.ClimateRasterSamplers;
 import dev.gegy.terrarium.backend.earth.climate.ClimateRasters;
 import dev.gegy.terrarium.backend.earth.cover.Cover;
@@ -9,9 +10,12 @@ import dev.gegy.terrarium.backend.layer.RasterSampler;
 import dev.gegy.terrarium.backend.loader.Cacher;
 import dev.gegy.terrarium.backend.loader.ConcurrencyLimiter;
 import dev.gegy.terrarium.backend.loader.FileCacher;
+import dev.gegy.terrarium.backend.loader.HttpDownloader;
 import dev.gegy.terrarium.backend.loader.HttpLoader;
 import dev.gegy.terrarium.backend.loader.Loader;
+import dev.gegy.terrarium.backend.raster.Downsampler;
 import dev.gegy.terrarium.backend.raster.EnumRaster;
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
 import dev.gegy.terrarium.backend.raster.Raster;
 import dev.gegy.terrarium.backend.raster.RasterShape;
 import dev.gegy.terrarium.backend.raster.RasterType;
@@ -19,20 +23,33 @@ import dev.gegy.terrarium.backend.raster.ShortRaster;
 import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
 import dev.gegy.terrarium.backend.raster.reader.RasterFormat;
 import dev.gegy.terrarium.backend.raster.reader.RasterReader;
+import dev.gegy.terrarium.backend.tile.DecodedTileCacher;
+import dev.gegy.terrarium.backend.tile.PackedTileCacher;
+import dev.gegy.terrarium.backend.tile.PyramidLoader;
 import dev.gegy.terrarium.backend.tile.TileCache;
 import dev.gegy.terrarium.backend.tile.TileKey;
 import dev.gegy.terrarium.backend.tile.TileMap;
 import dev.gegy.terrarium.backend.tile.TiledRasterSampler;
+import dev.gegy.terrarium.backend.util.Util;
+import org.slf4j.Logger;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.function.IntFunction;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public record EarthTiles(
         LeveledRasterSampler<ShortRaster> elevation,
@@ -46,124 +63,348 @@ public record EarthTiles(
         LeveledRasterSampler<EnumRaster<SoilSuborder>> soilSuborder,
         ClimateRasterSamplers climateSamplers
 ) {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
     private static final int TILE_SIZE = 1000;
     private static final RasterShape TILE_SHAPE = new RasterShape(TILE_SIZE, TILE_SIZE);
     private static final int ZOOM_BASE = 3;
 
-    private static final String ENDPOINT = "https://terrarium.gegy.dev/geo3";
+    public static final String DEFAULT_ENDPOINT = "https://terrarium.gegy.dev/geo3";
     private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(1);
+    private static final String CLIMATE_FILE_NAME = "climatic_variables.xz";
+
+    public enum CacheLayout {
+        FILE_PER_TILE,
+        PACKED,
+    }
+
+    public record TileSource(String route, String cacheName, int minLevel, int maxLevel, RasterFormat<?> format) {
+        public static final TileSource ELEVATION = new TileSource("elevation2", "elevation", 0, 6, RasterFormat.SHORT);
+        public static final TileSource LAND_COVER = new TileSource("landcover", "landcover", 0, 4, RasterFormat.UNSIGNED_BYTE);
+        public static final TileSource CATION_EXCHANGE_CAPACITY = soil("cec", RasterFormat.SHORT);
+        public static final TileSource ORGANIC_CARBON_CONTENT = soil("occ", RasterFormat.SHORT);
+        public static final TileSource SOIL_PH = soil("ph", RasterFormat.SHORT);
+        public static final TileSource CLAY_CONTENT = soil("clay", RasterFormat.SHORT);
+        public static final TileSource SILT_CONTENT = soil("silt", RasterFormat.SHORT);
+        public static final TileSource SAND_CONTENT = soil("sand", RasterFormat.SHORT);
+        public static final TileSource SOIL_SUBORDER = soil("usda", RasterFormat.UNSIGNED_BYTE);
+
+        public static final List<TileSource> ALL = List.of(
+                ELEVATION, LAND_COVER,
+                CATION_EXCHANGE_CAPACITY, ORGANIC_CARBON_CONTENT, SOIL_PH,
+                CLAY_CONTENT, SILT_CONTENT, SAND_CONTENT, SOIL_SUBORDER
+        );
+
+        private static TileSource soil(final String name, final RasterFormat<?> format) {
+            return new TileSource(name, "soil/" + name, 0, 4, format);
+        }
+
+        public boolean hasLevel(final int level) {
+            return level >= minLevel && level <= maxLevel;
+        }
+    }
+
+    public static int tileCountX(final int level) {
+        return tileCountY(level) * 2;
+    }
+
+    public static int tileCountY(final int level) {
+        return (int) Math.floor(Math.pow(ZOOM_BASE, level));
+    }
+
+    // All tiles at the given level that overlap the box between the two corners. The box runs east from the first
+    // corner's longitude to the second's, so if the second is the smaller of the two, the box wraps across the antimeridian.
+    public static List<TileKey> tilesInBounds(final int level, final GeoCoords from, final GeoCoords to) {
+        final int countX = tileCountX(level);
+        final int countY = tileCountY(level);
+        final int fromX = Math.clamp(Util.floorInt((from.lon() + 180.0) / 360.0 * countX), 0, countX - 1);
+        final int toX = Math.clamp(Util.floorInt((to.lon() + 180.0) / 360.0 * countX), 0, countX - 1);
+        final int minY = Math.clamp(Util.floorInt((90.0 - Math.max(from.lat(), to.lat())) / 180.0 * countY), 0, countY - 1);
+        final int maxY = Math.clamp(Util.floorInt((90.0 - Math.min(from.lat(), to.lat())) / 180.0 * countY), 0, countY - 1);
+
+        final List<TileKey> keys = new ArrayList<>();
+        for (int y = minY; y <= maxY; y++) {
+            if (from.lon() <= to.lon()) {
+                addRow(keys, y, fromX, toX);
+            } else if (toX >= fromX) {
+                // Both ends fall within the same tile, so the box wraps all the way around
+                addRow(keys, y, 0, countX - 1);
+            } else {
+                addRow(keys, y, fromX, countX - 1);
+                addRow(keys, y, 0, toX);
+            }
+        }
+        return keys;
+    }
+
+    private static void addRow(final List<TileKey> keys, final int y, final int minX, final int maxX) {
+        for (int x = minX; x <= maxX; x++) {
+            keys.add(new TileKey(x, y));
+        }
+    }
+
+    public record BulkFetchResult(int fetchedCount, int cachedCount, int failedCount, long bytes) {
+        public static final BulkFetchResult EMPTY = new BulkFetchResult(0, 0, 0, 0);
+        public static final BulkFetchResult FAILED = new BulkFetchResult(0, 0, 1, 0);
+
+        public BulkFetchResult add(final BulkFetchResult other) {
+            return new BulkFetchResult(
+                    fetchedCount + other.fetchedCount,
+                    cachedCount + other.cachedCount,
+                    failedCount + other.failedCount,
+                    bytes + other.bytes
+            );
+        }
+    }
 
     public static class Config {
         private final Loader<URI, byte[]> httpLoader;
+        private final HttpDownloader downloader;
+        private final ConcurrencyLimiter concurrencyLimiter;
+        private final String endpoint;
         private final Path cacheRoot;
+        private final CacheLayout cacheLayout;
+        private final boolean decodedCache;
         private final Executor executor;
         private final Executor ioExecutor;
 
+        // Region files must only ever be open once, even if tiles are created multiple times from the same config
+        private final Map<Path, PackedTileCacher> packedCachers = new ConcurrentHashMap<>();
+
         public Config(final HttpClient httpClient, final ConcurrencyLimiter concurrencyLimiter, final Path cacheRoot, final Executor executor, final Executor ioExecutor) {
-            httpLoader = concurrencyLimiter.wrap(new HttpLoader(httpClient, REQUEST_TIMEOUT));
+            this(httpClient, concurrencyLimiter, DEFAULT_ENDPOINT, cacheRoot, CacheLayout.FILE_PER_TILE, false, executor, ioExecutor);
+        }
+
+        // When decodedCache is set, tiles are additionally stored after decoding under cacheRoot/decoded, trading disk
+        // space for not having to decompress them again after they are evicted from memory
+        public Config(final HttpClient httpClient, final ConcurrencyLimiter concurrencyLimiter, final String endpoint, final Path cacheRoot, final CacheLayout cacheLayout, final boolean decodedCache, final Executor executor, final Executor ioExecutor) {
+            httpLoader = new HttpLoader(httpClient, REQUEST_TIMEOUT);
+            downloader = new HttpDownloader(httpClient, REQUEST_TIMEOUT);
+            this.concurrencyLimiter = concurrencyLimiter;
+            this.endpoint = endpoint;
             this.cacheRoot = cacheRoot;
+            this.cacheLayout = cacheLayout;
+            this.decodedCache = decodedCache;
             this.executor = executor;
             this.ioExecutor = ioExecutor;
         }
 
         public EarthTiles create(final TileCache cache) {
+            return create(cache, TiledRasterSampler.Batching.DISABLED);
+        }
+
+        public EarthTiles create(final TileCache cache, final TiledRasterSampler.Batching batching) {
+            return create(cache, batching, ConcurrencyLimiter.Purpose.GENERATION);
+        }
+
+        // The purpose decides how tile downloads are queued against those of every other set of tiles from this config
+        public EarthTiles create(final TileCache cache, final TiledRasterSampler.Batching batching, final ConcurrencyLimiter.Purpose purpose) {
             return new EarthTiles(
-                    elevation(cache),
-                    landCover(cache),
-                    soilUByteRaster("cec", cache),
-                    organicCarbonContent(cache),
-                    soilUByteRaster("ph", cache),
-                    soilUByteRaster("clay", cache),
-                    soilUByteRaster("silt", cache),
-                    soilUByteRaster("sand", cache),
-                    soilSuborder(cache),
+                    shortRaster(TileSource.ELEVATION, cache, batching, purpose),
+                    landCover(cache, batching, purpose),
+                    soilUByteRaster(TileSource.CATION_EXCHANGE_CAPACITY, cache, batching, purpose),
+                    shortRaster(TileSource.ORGANIC_CARBON_CONTENT, cache, batching, purpose),
+                    soilUByteRaster(TileSource.SOIL_PH, cache, batching, purpose),
+                    soilUByteRaster(TileSource.CLAY_CONTENT, cache, batching, purpose),
+                    soilUByteRaster(TileSource.SILT_CONTENT, cache, batching, purpose),
+                    soilUByteRaster(TileSource.SAND_CONTENT, cache, batching, purpose),
+                    soilSuborder(cache, batching, purpose),
                     climateSamplers()
             );
         }
 
-        private LeveledRasterSampler<ShortRaster> elevation(final TileCache cache) {
-            return createLeveledTiledRaster(cache, 0, 6, ShortRaster.TYPE, level -> {
-                final Loader<TileKey, byte[]> fileLoader = httpLoader("elevation2", level)
-                        .cached(fileCacher("elevation", level));
-                return RasterReader.loader(RasterFormat.SHORT, executor)
-                        .compose(fileLoader);
+        // Fetches the given tiles into the disk cache, and checks that each one can actually be decoded. With the
+        // file-per-tile layout, responses are streamed straight to their cache files rather than being buffered in
+        // memory first. Tiles that turn out to be corrupt are removed from either layout so that they get fetched again
+        // next time.
+        public CompletableFuture<BulkFetchResult> fetchTiles(final TileSource source, final int level, final Collection<TileKey> keys) {
+            final Function<TileKey, CompletableFuture<BulkFetchResult>> fetcher = switch (cacheLayout) {
+                case FILE_PER_TILE -> fileFetcher(source, level);
+                case PACKED -> packedFetcher(source, level);
+            };
+            final CompletableFuture<BulkFetchResult>[] futures = keys.stream().map(fetcher).toArray(CompletableFuture[]::new);
+
+            return CompletableFuture.allOf(futures).thenApply(unused -> {
+                BulkFetchResult result = BulkFetchResult.EMPTY;
+                for (final CompletableFuture<BulkFetchResult> future : futures) {
+                    result = result.add(future.join());
+                }
+                return result;
             });
         }
 
-        private LeveledRasterSampler<EnumRaster<Cover>> landCover(final TileCache cache) {
-            final RasterType<EnumRaster<Cover>> rasterType = EnumRaster.type(Cover.NONE, Cover.CODEC);
-            return createLeveledTiledRaster(cache, 0, 4, rasterType, level -> {
-                final Loader<TileKey, byte[]> fileLoader = httpLoader("landcover", level)
-                        .cached(fileCacher("landcover", level));
-                return RasterReader.loader(rasterType, Cover::byId, executor)
-                        .compose(fileLoader);
-            });
+        private Function<TileKey, CompletableFuture<BulkFetchResult>> fileFetcher(final TileSource source, final int level) {
+            final ConcurrencyLimiter.Priority priority = priority(ConcurrencyLimiter.Purpose.SPECULATIVE, level);
+            final Path sourceRoot = sourceRoot(source, level);
+            return key -> {
+                final URI uri = tileUri(source, level, key);
+                final Path path = sourceRoot.resolve(key.path());
+                return concurrencyLimiter.submit(priority, () -> downloader.download(uri, path)).thenApplyAsync(result -> {
+                    if (result.isPresent() && !validateTile(source, key, path)) {
+                        return BulkFetchResult.FAILED;
+                    }
+                    return toBulkFetchResult(result);
+                }, executor);
+            };
+        }
+
+        private Function<TileKey, CompletableFuture<BulkFetchResult>> packedFetcher(final TileSource source, final int level) {
+            final PackedTileCacher packedCacher = packedCacher(sourceRoot(source, level));
+            final Loader<TileKey, ByteBuffer> loader = cachedHttpLoader(source, level, ConcurrencyLimiter.Purpose.SPECULATIVE);
+            return key -> CompletableFuture.supplyAsync(() -> packedCacher.isStored(key), ioExecutor).thenCompose(cached -> loader.load(key).thenApplyAsync(result -> {
+                if (result.isEmpty()) {
+                    return BulkFetchResult.FAILED;
+                }
+                if (!validateTile(source, key, result.get())) {
+                    packedCacher.remove(key);
+                    return BulkFetchResult.FAILED;
+                }
+                return cached ? new BulkFetchResult(0, 1, 0, 0) : new BulkFetchResult(1, 0, 0, result.get().remaining());
+            }, executor));
+        }
+
+        public CompletableFuture<HttpDownloader.Result> fetchClimate() {
+            final URI uri = URI.create(endpoint + "/" + CLIMATE_FILE_NAME);
+            return concurrencyLimiter.submit(() -> downloader.downloadResumable(uri, cacheRoot.resolve(CLIMATE_FILE_NAME)));
+        }
+
+        private static BulkFetchResult toBulkFetchResult(final HttpDownloader.Result result) {
+            return switch (result.status()) {
+                case DOWNLOADED -> new BulkFetchResult(1, 0, 0, result.bytes());
+                case CACHED -> new BulkFetchResult(0, 1, 0, 0);
+                case FAILED -> BulkFetchResult.FAILED;
+            };
+        }
+
+        private static boolean validateTile(final TileSource source, final TileKey key, final Path path) {
+            try {
+                if (validateTile(source, key, ByteBuffer.wrap(Files.readAllBytes(path)))) {
+                    return true;
+                }
+                Files.deleteIfExists(path);
+            } catch (final IOException e) {
+                LOGGER.error("Failed to validate {} tile {} at {}", source.route(), key, path, e);
+            }
+            return false;
+        }
+
+        private static boolean validateTile(final TileSource source, final TileKey key, final ByteBuffer buffer) {
+            try {
+                RasterReader.read(buffer, source.format());
+                return true;
+            } catch (final IOException e) {
+                LOGGER.warn("Fetched {} tile {} could not be decoded", source.route(), key, e);
+                return false;
+            }
         }
 
-        private LeveledRasterSampler<ShortRaster> organicCarbonContent(final TileCache cache) {
-            return createLeveledTiledRaster(cache, 0, 4, ShortRaster.TYPE, level -> {
-                final Loader<TileKey, byte[]> fileLoader = httpLoader("occ", level)
-                        .cached(fileCacher("soil/" + "occ", level));
-                return RasterReader.loader(RasterFormat.SHORT, executor)
-                        .compose(fileLoader);
+        private LeveledRasterSampler<ShortRaster> shortRaster(final TileSource source, final TileCache cache, final TiledRasterSampler.Batching batching, final ConcurrencyLimiter.Purpose purpose) {
+            return createLeveledTiledRaster(cache, batching, purpose, source, ShortRaster.TYPE, Downsampler.average(), level -> tileLoader(source, level, RasterFormat.SHORT, purpose));
+        }
+
+        private LeveledRasterSampler<EnumRaster<Cover>> landCover(final TileCache cache, final TiledRasterSampler.Batching batching, final ConcurrencyLimiter.Purpose purpose) {
+            final RasterType<EnumRaster<Cover>> rasterType = EnumRaster.type(Cover.NONE, Cover.CODEC);
+            return createLeveledTiledRaster(cache, batching, purpose, TileSource.LAND_COVER, rasterType, Downsampler.majority(), level -> {
+                final Loader<UnsignedByteRaster, EnumRaster<Cover>> converter = Loader.from(raster -> raster.mapToEnum(rasterType, Cover::byId));
+                return converter.compose(tileLoader(TileSource.LAND_COVER, level, RasterFormat.UNSIGNED_BYTE, purpose));
             });
         }
 
-        private LeveledRasterSampler<UnsignedByteRaster> soilUByteRaster(final String name, final TileCache cache) {
-            return createLeveledTiledRaster(cache, 0, 4, UnsignedByteRaster.TYPE, level -> {
-                final Loader<TileKey, byte[]> fileLoader = httpLoader(name, level)
-                        .cached(fileCacher("soil/" + name, level));
+        private LeveledRasterSampler<UnsignedByteRaster> soilUByteRaster(final TileSource source, final TileCache cache, final TiledRasterSampler.Batching batching, final ConcurrencyLimiter.Purpose purpose) {
+            return createLeveledTiledRaster(cache, batching, purpose, source, UnsignedByteRaster.TYPE, Downsampler.average(), level -> {
                 final Loader<ShortRaster, UnsignedByteRaster> converter = Loader.from(UnsignedByteRaster::copyOf);
-                return converter
-                        .compose(RasterReader.loader(RasterFormat.SHORT, executor))
-                        .compose(fileLoader);
+                return converter.compose(tileLoader(source, level, RasterFormat.SHORT, purpose));
             });
         }
 
-        private LeveledRasterSampler<EnumRaster<SoilSuborder>> soilSuborder(final TileCache cache) {
+        private LeveledRasterSampler<EnumRaster<SoilSuborder>> soilSuborder(final TileCache cache, final TiledRasterSampler.Batching batching, final ConcurrencyLimiter.Purpose purpose) {
             final RasterType<EnumRaster<SoilSuborder>> rasterType = EnumRaster.type(SoilSuborder.NONE, SoilSuborder.CODEC);
-            return createLeveledTiledRaster(cache, 0, 4, rasterType, level -> {
-                final Loader<TileKey, byte[]> fileLoader = httpLoader("usda", level)
-                        .cached(fileCacher("soil/usda", level));
-                return RasterReader.loader(rasterType, SoilSuborder::byId, executor)
-                        .compose(fileLoader);
+            return createLeveledTiledRaster(cache, batching, purpose, TileSource.SOIL_SUBORDER, rasterType, Downsampler.majority(), level -> {
+                final Loader<UnsignedByteRaster, EnumRaster<SoilSuborder>> converter = Loader.from(raster -> raster.mapToEnum(rasterType, SoilSuborder::byId));
+                return converter.compose(tileLoader(TileSource.SOIL_SUBORDER, level, RasterFormat.UNSIGNED_BYTE, purpose));
             });
         }
 
-        private <V extends Raster> LeveledRasterSampler<V> createLeveledTiledRaster(final TileCache cache, final int minLevel, final int maxLevel, final RasterType<V> rasterType, final IntFunction<Loader<TileKey, V>> factory) {
-            final List<RasterSampler<V>> levels = IntStream.rangeClosed(minLevel, maxLevel).mapToObj(level -> {
-                final TileMap<V> map = createTileMap(level, factory.apply(level));
+        // Levels are built from the finest up, so that each coarser level can be derived from cached tiles of the one
+        // below it before falling back to fetching it. Generation never does this: a derived tile depends on what
+        // happened to be cached and isn't identical to the server's, so terrain would differ between runs and show seams.
+        private <V extends Raster> LeveledRasterSampler<V> createLeveledTiledRaster(final TileCache cache, final TiledRasterSampler.Batching batching, final ConcurrencyLimiter.Purpose purpose, final TileSource source, final RasterType<V> rasterType, final Downsampler<V> downsampler, final IntFunction<Loader<TileKey, V>> factory) {
+            final boolean derivesFromFiner = purpose != ConcurrencyLimiter.Purpose.GENERATION;
+            final List<RasterSampler<V>> levels = new ArrayList<>();
+            TileMap<V> finer = null;
+            for (int level = source.maxLevel(); level >= source.minLevel(); level--) {
+                final Loader<TileKey, V> loader = derivesFromFiner && finer != null
+                        ? new PyramidLoader<>(factory.apply(level), finer, ZOOM_BASE, rasterType, downsampler, executor)
+                        : factory.apply(level);
+                final TileMap<V> map = createTileMap(level, loader);
                 final TileMap<V> cachedMap = map.cached(cache.createCacher(map));
-                return new TiledRasterSampler<>(cachedMap, rasterType, executor);
-            }).collect(Collectors.toList());
+                levels.add(0, new TiledRasterSampler<>(cachedMap, rasterType, executor, batching));
+                finer = cachedMap;
+            }
             return new LeveledRasterSampler<>(levels);
         }
 
         private <V extends Raster> TileMap<V> createTileMap(final int level, final Loader<TileKey, V> loader) {
-            final int countY = (int) Math.floor(Math.pow(ZOOM_BASE, level));
-            final int countX = countY * 2;
-            return new TileMap<>(countX, countY, TILE_SHAPE, loader);
+            return new TileMap<>(tileCountX(level), tileCountY(level), TILE_SHAPE, loader);
         }
 
-        private Loader<TileKey, byte[]> httpLoader(final String route, final int level) {
-            final String endpoint = ENDPOINT + "/" + route + "/" + level + "/";
-            return httpLoader.mapKey(key -> URI.create(endpoint + key.path()));
+        private URI tileUri(final TileSource source, final int level, final TileKey key) {
+            return URI.create(endpoint + "/" + source.route() + "/" + level + "/" + key.path());
         }
 
-        private Cacher<TileKey, byte[]> fileCacher(final String name, final int level) {
-            final Path sourceRoot = cacheRoot.resolve(name).resolve(String.valueOf(level));
-            return new FileCacher(ioExecutor).mapKey(key -> sourceRoot.resolve(key.path()));
+        private Path sourceRoot(final TileSource source, final int level) {
+            return cacheRoot.resolve(source.cacheName()).resolve(String.valueOf(level));
         }
 
-        private ClimateRasterSamplers climateSamplers() {
-            final Loader<Void, ClimateRasters> loader = ClimateRasters.loader(executor)
-                    .compose(singleFileLoader("climatic_variables.xz"));
-            return ClimateRasterSamplers.create(loader, executor);
+        private PackedTileCacher packedCacher(final Path root) {
+            return packedCachers.computeIfAbsent(root, r -> new PackedTileCacher(r, ioExecutor));
+        }
+
+        private Loader<TileKey, byte[]> httpLoader(final TileSource source, final int level, final ConcurrencyLimiter.Purpose purpose) {
+            final ConcurrencyLimiter.Priority priority = priority(purpose, level);
+            return concurrencyLimiter.wrap(httpLoader.mapKey(key -> tileUri(source, level, key)), key -> priority);
         }
 
-        private Loader<Void, byte[]> singleFileLoader(final String fileName) {
-            return httpLoader.<Void>mapKey(v -> URI.create(ENDPOINT + "/" + fileName))
-                    .cached(new FileCacher(ioExecutor).mapKey(v -> cacheRoot.resolve(fileName)));
+        // Finer levels are sampled for whatever is closest to the player, so they get to skip ahead of coarser levels
+        // queued for the same purpose
+        private static ConcurrencyLimiter.Priority priority(final ConcurrencyLimiter.Purpose purpose, final int level) {
+            return new ConcurrencyLimiter.Priority(purpose, -level);
+        }
+
+        private <T extends IntLikeRaster> Loader<TileKey, T> tileLoader(final TileSource source, final int level, final RasterFormat<T> format, final ConcurrencyLimiter.Purpose purpose) {
+            final Loader<TileKey, T> loader = RasterReader.loader(format, executor)
+                    .compose(cachedHttpLoader(source, level, purpose));
+            if (!decodedCache) {
+                return loader;
+            }
+            final Path decodedRoot = cacheRoot.resolve("decoded").resolve(source.cacheName()).resolve(String.valueOf(level));
+            return loader.cached(new DecodedTileCacher<>(packedCacher(decodedRoot), format));
+        }
+
+        private Loader<TileKey, ByteBuffer> cachedHttpLoader(final TileSource source, final int level, final ConcurrencyLimiter.Purpose purpose) {
+            final Path sourceRoot = sourceRoot(source, level);
+            final Loader<byte[], ByteBuffer> wrapper = Loader.from(ByteBuffer::wrap);
+            return switch (cacheLayout) {
+                case FILE_PER_TILE -> {
+                    final Cacher<TileKey, byte[]> fileCacher = new FileCacher(ioExecutor).mapKey(key -> sourceRoot.resolve(key.path()));
+                    yield wrapper.compose(httpLoader(source, level, purpose).cached(fileCacher));
+                }
+                case PACKED -> wrapper.compose(httpLoader(source, level, purpose))
+                        .cached(packedCacher(sourceRoot));
+            };
+        }
+
+        private ClimateRasterSamplers climateSamplers() {
+            final Loader<Path, ClimateRasters> decoder = decodedCache
+                    ? ClimateRasters.fileLoader(executor, cacheRoot.resolve("decoded").resolve(CLIMATE_FILE_NAME + ".raw"))
+                    : ClimateRasters.fileLoader(executor);
+            final Loader<Void, ClimateRasters> loader = decoder.compose(v -> fetchClimate().thenApply(result -> {
+                if (result.isPresent()) {
+                    return Optional.of(cacheRoot.resolve(CLIMATE_FILE_NAME));
+                }
+                return Optional.empty();
+            }));
+            return ClimateRasterSamplers.create(loader, executor);
         }
     }
 }
@@ -0,0 +1,20 @@
+package dev.gegy.terrarium.backend.earth;
+
+import com.mojang.serialization.Codec;
+import dev.gegy.terrarium.backend.util.Util;
+
+// Whether chunks keep their GeoChunk when saved, even once generation no longer needs it. Dropping it saves a good
+// chunk of region file space, at the cost of sampling it again from the tiles if anything does end up asking for it.
+public enum GeoChunkRetention {
+    KEEP("keep"),
+    UNTIL_GENERATED("until_generated"),
+    ;
+
+    public static final Codec<GeoChunkRetention> CODEC = Util.stringLookupCodec(values(), retention -> retention.key);
+
+    private final String key;
+
+    GeoChunkRetention(final String key) {
+        this.key = key;
+    }
+}
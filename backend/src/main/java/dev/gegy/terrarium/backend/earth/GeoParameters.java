@@ -2,14 +2,20 @@ package dev.gegy.terrarium.backend.earth;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.gegy.terrarium.backend.GeoAttachment;
+import dev.gegy.terrarium.backend.GeoAttachmentSet;
 import dev.gegy.terrarium.backend.earth.cover.Cover;
 import dev.gegy.terrarium.backend.earth.soil.SoilSuborder;
+import dev.gegy.terrarium.backend.expr.classifier.ClassifierNode;
 import dev.gegy.terrarium.backend.expr.predictor.Predictor;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -77,6 +83,41 @@ public class GeoParameters {
         consumer.accept("annual_precipitation", ANNUAL_RAINFALL);
     }
 
+    // The attachments that a classifier over these parameters reads. A parameter that isn't one of ours could read
+    // anything, so then everything is needed.
+    public static GeoAttachmentSet requiredAttachments(final ClassifierNode<GeoParameters, ?> classifier) {
+        final List<Predictor<GeoParameters>> parameters = new ArrayList<>();
+        classifier.forEachParameter(parameters::add);
+
+        final Map<Predictor<GeoParameters>, GeoAttachment<?>> attachmentsByParameter = attachmentsByParameter();
+        final Set<GeoAttachment<?>> attachments = new ReferenceOpenHashSet<>();
+        for (final Predictor<GeoParameters> parameter : parameters) {
+            final GeoAttachment<?> attachment = attachmentsByParameter.get(parameter);
+            if (attachment == null) {
+                return EarthAttachments.REQUIRED_SET;
+            }
+            attachments.add(attachment);
+        }
+        return GeoAttachmentSet.copyOf(attachments);
+    }
+
+    private static Map<Predictor<GeoParameters>, GeoAttachment<?>> attachmentsByParameter() {
+        final Map<Predictor<GeoParameters>, GeoAttachment<?>> attachments = new Reference2ObjectOpenHashMap<>();
+        attachments.put(ELEVATION, EarthAttachments.ELEVATION);
+        IS_COVER.values().forEach(predictor -> attachments.put(predictor, EarthAttachments.LAND_COVER));
+        attachments.put(CATION_EXCHANGE_CAPACITY, EarthAttachments.CATION_EXCHANGE_CAPACITY);
+        attachments.put(ORGANIC_CARBON_CONTENT, EarthAttachments.ORGANIC_CARBON_CONTENT);
+        attachments.put(SOIL_PH, EarthAttachments.SOIL_PH);
+        attachments.put(CLAY_CONTENT, EarthAttachments.CLAY_CONTENT);
+        attachments.put(SILT_CONTENT, EarthAttachments.SILT_CONTENT);
+        attachments.put(SAND_CONTENT, EarthAttachments.SAND_CONTENT);
+        IS_SOIL_SUBORDER.values().forEach(predictor -> attachments.put(predictor, EarthAttachments.SOIL_SUBORDER));
+        attachments.put(MEAN_TEMPERATURE, EarthAttachments.MEAN_TEMPERATURE);
+        attachments.put(MIN_TEMPERATURE, EarthAttachments.MIN_TEMPERATURE);
+        attachments.put(ANNUAL_RAINFALL, EarthAttachments.ANNUAL_RAINFALL);
+        return attachments;
+    }
+
     public static List<Predictor<GeoParameters>> allFeatures() {
         final List<Predictor<GeoParameters>> features = new ArrayList<>();
         forEachFeature((name, feature) -> features.add(feature));
@@ -106,20 +147,21 @@ public class GeoParameters {
         return this;
     }
 
+    // Attachments may be missing if they aren't read by whatever evaluates these parameters, so they're left at defaults
     public GeoParameters set(final EarthAttachments attachments, final int x, final int y) {
         return set(
-                attachments.elevation().getInt(x, y),
-                attachments.landCover().get(x, y),
-                attachments.cationExchangeCapacity().getByte(x, y),
-                attachments.organicCarbonContent().getShort(x, y),
-                attachments.soilPh().getByte(x, y),
-                attachments.clayContent().getByte(x, y),
-                attachments.siltContent().getByte(x, y),
-                attachments.sandContent().getByte(x, y),
-                attachments.soilSuborder().get(x, y),
-                attachments.meanTemperature().getTemperature(x, y),
-                attachments.minTemperature().getTemperature(x, y),
-                attachments.annualRainfall().getRainfall(x, y)
+                attachments.elevation() != null ? attachments.elevation().getInt(x, y) : 0.0f,
+                attachments.landCover() != null ? attachments.landCover().get(x, y) : Cover.NONE,
+                attachments.cationExchangeCapacity() != null ? attachments.cationExchangeCapacity().getByte(x, y) : 0.0f,
+                attachments.organicCarbonContent() != null ? attachments.organicCarbonContent().getShort(x, y) : 0.0f,
+                attachments.soilPh() != null ? attachments.soilPh().getByte(x, y) : 0.0f,
+                attachments.clayContent() != null ? attachments.clayContent().getByte(x, y) : 0.0f,
+                attachments.siltContent() != null ? attachments.siltContent().getByte(x, y) : 0.0f,
+                attachments.sandContent() != null ? attachments.sandContent().getByte(x, y) : 0.0f,
+                attachments.soilSuborder() != null ? attachments.soilSuborder().get(x, y) : SoilSuborder.NONE,
+                attachments.meanTemperature() != null ? attachments.meanTemperature().getTemperature(x, y) : 0.0f,
+                attachments.minTemperature() != null ? attachments.minTemperature().getTemperature(x, y) : 0.0f,
+                attachments.annualRainfall() != null ? attachments.annualRainfall().getRainfall(x, y) : 0.0f
         );
     }
 
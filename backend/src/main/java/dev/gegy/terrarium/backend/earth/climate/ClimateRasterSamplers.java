@@ -43,6 +43,11 @@ public record ClimateRasterSamplers(
                 );
             }
 
+            @Override
+            public boolean isResident(final GeoView view) {
+                return future.get().isDone();
+            }
+
             @Override
             public int width() {
                 return ClimateRasters.WIDTH;
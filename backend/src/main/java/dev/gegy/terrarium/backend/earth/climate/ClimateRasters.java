@@ -6,10 +6,19 @@ import dev.gegy.terrarium.backend.raster.RasterShape;
 import org.slf4j.Logger;
 import org.tukaani.xz.SingleXZInputStream;
 
-import java.io.ByteArrayInputStream;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -25,12 +34,41 @@ public record ClimateRasters(
     public static final int HEIGHT = 2160;
     private static final RasterShape SHAPE = new RasterShape(WIDTH, HEIGHT);
 
-    public static Loader<byte[], ClimateRasters> loader(final Executor executor) {
-        return bytes -> CompletableFuture.supplyAsync(() -> {
-            try {
-                return Optional.of(decode(new ByteArrayInputStream(bytes)));
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private static final int RAW_MAGIC = 0x54524352;
+    private static final int RAW_VERSION = 2;
+    // Besides the shape, the header records the size and modification time of the file it was decoded from
+    private static final int RAW_HEADER_SIZE = Integer.BYTES * 4 + Long.BYTES * 2;
+    private static final long RAW_SIZE = RAW_HEADER_SIZE + (long) SHAPE.size() * 3;
+
+    // Decompresses straight out of the file, so that the compressed data never needs to be held on the heap
+    public static Loader<Path, ClimateRasters> fileLoader(final Executor executor) {
+        return createFileLoader(executor, null);
+    }
+
+    // Additionally persists the decoded rasters uncompressed, so that later loads can read them back from a memory
+    // mapping rather than decompressing again
+    public static Loader<Path, ClimateRasters> fileLoader(final Executor executor, final Path rawCachePath) {
+        return createFileLoader(executor, rawCachePath);
+    }
+
+    private static Loader<Path, ClimateRasters> createFileLoader(final Executor executor, @Nullable final Path rawCachePath) {
+        return path -> CompletableFuture.supplyAsync(() -> {
+            if (rawCachePath != null) {
+                final Optional<ClimateRasters> rawRasters = readRaw(rawCachePath, path);
+                if (rawRasters.isPresent()) {
+                    return rawRasters;
+                }
+            }
+            try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final ClimateRasters rasters = decode(new BufferedInputStream(Channels.newInputStream(channel), STREAM_BUFFER_SIZE));
+                if (rawCachePath != null) {
+                    writeRaw(rawCachePath, path, rasters);
+                }
+                return Optional.of(rasters);
             } catch (final IOException e) {
-                LOGGER.error("Failed to read climate rasters", e);
+                LOGGER.error("Failed to read climate rasters from {}", path, e);
                 return Optional.empty();
             }
         }, executor);
@@ -46,10 +84,73 @@ public record ClimateRasters(
         data.readFully(minTemperature);
         data.readFully(annualRainfall);
 
+        return wrap(meanTemperature, minTemperature, annualRainfall);
+    }
+
+    private static ClimateRasters wrap(final byte[] meanTemperature, final byte[] minTemperature, final byte[] annualRainfall) {
         return new ClimateRasters(
                 TemperatureRaster.wrap(SHAPE, meanTemperature),
                 TemperatureRaster.wrap(SHAPE, minTemperature),
                 RainfallRaster.wrap(SHAPE, annualRainfall)
         );
     }
+
+    private static Optional<ClimateRasters> readRaw(final Path path, final Path sourcePath) {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != RAW_SIZE) {
+                throw new IOException("Expected " + RAW_SIZE + " bytes, but got " + channel.size());
+            }
+            final MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, RAW_SIZE);
+            if (mapping.getInt() != RAW_MAGIC || mapping.getInt() != RAW_VERSION || mapping.getInt() != WIDTH || mapping.getInt() != HEIGHT) {
+                throw new IOException("Unexpected header");
+            }
+            if (mapping.getLong() != Files.size(sourcePath) || mapping.getLong() != Files.getLastModifiedTime(sourcePath).toMillis()) {
+                throw new IOException("Decoded from a different version of " + sourcePath);
+            }
+
+            final byte[] meanTemperature = new byte[SHAPE.size()];
+            final byte[] minTemperature = new byte[SHAPE.size()];
+            final byte[] annualRainfall = new byte[SHAPE.size()];
+            mapping.get(meanTemperature);
+            mapping.get(minTemperature);
+            mapping.get(annualRainfall);
+
+            return Optional.of(wrap(meanTemperature, minTemperature, annualRainfall));
+        } catch (final IOException e) {
+            LOGGER.warn("Raw climate raster cache at {} was invalid, decoding again", path, e);
+            return Optional.empty();
+        }
+    }
+
+    private static void writeRaw(final Path path, final Path sourcePath, final ClimateRasters rasters) {
+        final Path temporaryPath = path.resolveSibling(path.getFileName().toString() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (final FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final ByteBuffer header = ByteBuffer.allocate(RAW_HEADER_SIZE);
+                header.putInt(RAW_MAGIC).putInt(RAW_VERSION).putInt(WIDTH).putInt(HEIGHT);
+                header.putLong(Files.size(sourcePath)).putLong(Files.getLastModifiedTime(sourcePath).toMillis()).flip();
+                writeFully(channel, header);
+                writeFully(channel, ByteBuffer.wrap(rasters.meanTemperature().buffer()));
+                writeFully(channel, ByteBuffer.wrap(rasters.minTemperature().buffer()));
+                writeFully(channel, ByteBuffer.wrap(rasters.annualRainfall().buffer()));
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            LOGGER.error("Failed to write raw climate raster cache to {}", path, e);
+            try {
+                Files.deleteIfExists(temporaryPath);
+            } catch (final IOException ignored) {
+            }
+        }
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
 }
@@ -2,10 +2,12 @@ package dev.gegy.terrarium.backend.earth.climate;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.gegy.terrarium.backend.raster.RasterBinaryCodecs;
 import dev.gegy.terrarium.backend.raster.RasterBufferCodecs;
 import dev.gegy.terrarium.backend.raster.RasterShape;
 import dev.gegy.terrarium.backend.raster.RasterType;
 import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
+import dev.gegy.terrarium.backend.util.BinaryCodec;
 import dev.gegy.terrarium.backend.util.Util;
 
 import java.util.Arrays;
@@ -21,7 +23,8 @@ public class TemperatureRaster extends UnsignedByteRaster {
             RasterShape.CODEC.forGetter(TemperatureRaster::shape),
             RasterBufferCodecs.BYTES.fieldOf("data").forGetter(r -> r.buffer)
     ).apply(i, TemperatureRaster::new));
-    public static final RasterType<TemperatureRaster> TYPE = RasterType.create(TemperatureRaster::create, CODEC);
+    public static final BinaryCodec<TemperatureRaster> BINARY_CODEC = RasterBinaryCodecs.bytes(TemperatureRaster::new, r -> r.buffer);
+    public static final RasterType<TemperatureRaster> TYPE = RasterType.create(TemperatureRaster::create, CODEC, BINARY_CODEC);
 
     static {
         for (int packed = 0; packed < UNPACK_LOOKUP.length; packed++) {
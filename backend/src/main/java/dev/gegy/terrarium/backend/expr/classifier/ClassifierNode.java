@@ -4,6 +4,7 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import dev.gegy.terrarium.backend.expr.ExprNode;
 import dev.gegy.terrarium.backend.expr.ExprType;
+import dev.gegy.terrarium.backend.expr.predictor.Predictor;
 import dev.gegy.terrarium.backend.expr.predictor.PredictorNode;
 import dev.gegy.terrarium.backend.util.Util;
 
@@ -37,6 +38,8 @@ public interface ClassifierNode<T, R> extends ExprNode<Classifier<T, R>> {
 
     void forEachPossibleValue(Consumer<R> consumer);
 
+    void forEachParameter(Consumer<Predictor<T>> consumer);
+
     enum ClassifierType {
         OPAQUE("opaque", CodecFactory.unsupported("Opaque classifier")),
         CONST("const", ConstClassifier::createCodec),
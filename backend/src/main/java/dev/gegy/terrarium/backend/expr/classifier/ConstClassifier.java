@@ -4,6 +4,7 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import dev.gegy.terrarium.backend.expr.ExprCaptures;
+import dev.gegy.terrarium.backend.expr.predictor.Predictor;
 import dev.gegy.terrarium.backend.expr.predictor.PredictorNode;
 import org.objectweb.asm.MethodVisitor;
 
@@ -31,4 +32,8 @@ record ConstClassifier<T, R>(R value) implements ClassifierNode<T, R> {
     public void forEachPossibleValue(final Consumer<R> consumer) {
         consumer.accept(value);
     }
+
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+    }
 }
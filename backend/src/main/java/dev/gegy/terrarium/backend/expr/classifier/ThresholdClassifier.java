@@ -4,6 +4,7 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import dev.gegy.terrarium.backend.expr.ExprCaptures;
+import dev.gegy.terrarium.backend.expr.predictor.Predictor;
 import dev.gegy.terrarium.backend.expr.predictor.PredictorNode;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
@@ -53,4 +54,12 @@ record ThresholdClassifier<T, R>(PredictorNode<T> value, PredictorNode<T> thresh
         ifGreater.forEachPossibleValue(consumer);
         ifLess.forEachPossibleValue(consumer);
     }
+
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+        value.forEachParameter(consumer);
+        threshold.forEachParameter(consumer);
+        ifGreater.forEachParameter(consumer);
+        ifLess.forEachParameter(consumer);
+    }
 }
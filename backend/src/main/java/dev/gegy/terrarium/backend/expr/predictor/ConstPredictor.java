@@ -7,6 +7,8 @@ import dev.gegy.terrarium.backend.expr.ExprCaptures;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
+import java.util.function.Consumer;
+
 record ConstPredictor<T>(float value) implements PredictorNode<T> {
     private static final ConstPredictor<?> ZERO = new ConstPredictor<>(0.0f);
     private static final ConstPredictor<?> ONE = new ConstPredictor<>(1.0f);
@@ -46,4 +48,8 @@ record ConstPredictor<T>(float value) implements PredictorNode<T> {
     public PredictorType type() {
         return PredictorType.CONST;
     }
+
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+    }
 }
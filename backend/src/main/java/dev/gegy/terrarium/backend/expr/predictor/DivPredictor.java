@@ -7,6 +7,8 @@ import dev.gegy.terrarium.backend.expr.ExprCaptures;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
+import java.util.function.Consumer;
+
 record DivPredictor<T>(PredictorNode<T> left, PredictorNode<T> right) implements PredictorNode<T> {
     public static <T> MapCodec<DivPredictor<T>> createCodec(final Codec<PredictorNode<T>> subCodec) {
         return RecordCodecBuilder.mapCodec(i -> i.group(
@@ -26,4 +28,10 @@ record DivPredictor<T>(PredictorNode<T> left, PredictorNode<T> right) implements
     public PredictorType type() {
         return PredictorType.DIV;
     }
+
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+        left.forEachParameter(consumer);
+        right.forEachParameter(consumer);
+    }
 }
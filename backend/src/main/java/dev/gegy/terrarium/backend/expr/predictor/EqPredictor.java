@@ -9,6 +9,8 @@ import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
+import java.util.function.Consumer;
+
 record EqPredictor<T>(PredictorNode<T> left, PredictorNode<T> right, PredictorNode<T> ifEqual, PredictorNode<T> ifNotEqual, float epsilon) implements PredictorNode<T> {
     private static final float DEFAULT_EPSILON = 0.01f;
 
@@ -60,4 +62,12 @@ record EqPredictor<T>(PredictorNode<T> left, PredictorNode<T> right, PredictorNo
     public PredictorType type() {
         return PredictorType.EQ;
     }
+
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+        left.forEachParameter(consumer);
+        right.forEachParameter(consumer);
+        ifEqual.forEachParameter(consumer);
+        ifNotEqual.forEachParameter(consumer);
+    }
 }
@@ -8,6 +8,8 @@ import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
+import java.util.function.Consumer;
+
 record ExpPredictor<T>(PredictorNode<T> value) implements PredictorNode<T> {
     public static <T> MapCodec<ExpPredictor<T>> createCodec(final Codec<PredictorNode<T>> subCodec) {
         return RecordCodecBuilder.mapCodec(i -> i.group(
@@ -27,4 +29,9 @@ record ExpPredictor<T>(PredictorNode<T> value) implements PredictorNode<T> {
     public PredictorType type() {
         return PredictorType.EXP;
     }
+
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+        value.forEachParameter(consumer);
+    }
 }
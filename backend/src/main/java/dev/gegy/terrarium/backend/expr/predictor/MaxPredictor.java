@@ -8,6 +8,8 @@ import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
+import java.util.function.Consumer;
+
 record MaxPredictor<T>(PredictorNode<T> left, PredictorNode<T> right) implements PredictorNode<T> {
     public static <T> MapCodec<MaxPredictor<T>> createCodec(final Codec<PredictorNode<T>> subCodec) {
         return RecordCodecBuilder.mapCodec(i -> i.group(
@@ -27,4 +29,10 @@ record MaxPredictor<T>(PredictorNode<T> left, PredictorNode<T> right) implements
     public PredictorType type() {
         return PredictorType.MAX;
     }
+
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+        left.forEachParameter(consumer);
+        right.forEachParameter(consumer);
+    }
 }
@@ -5,6 +5,8 @@ import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
+import java.util.function.Consumer;
+
 record OpaquePredictor<T>(Predictor<T> predictor) implements PredictorNode<T> {
     @Override
     public void compile(final MethodVisitor method, final ExprCaptures captures) {
@@ -17,4 +19,9 @@ record OpaquePredictor<T>(Predictor<T> predictor) implements PredictorNode<T> {
     public PredictorType type() {
         return PredictorType.OPAQUE;
     }
+
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+        consumer.accept(predictor);
+    }
 }
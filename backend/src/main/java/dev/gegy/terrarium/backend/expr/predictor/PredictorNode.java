@@ -9,6 +9,7 @@ import dev.gegy.terrarium.backend.util.Util;
 
 import java.util.EnumMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
@@ -60,6 +61,9 @@ public interface PredictorNode<T> extends ExprNode<Predictor<T>> {
 
     PredictorType type();
 
+    // Visits the predictors that this reads its inputs through
+    void forEachParameter(Consumer<Predictor<T>> consumer);
+
     enum PredictorType {
         CONST("const", ConstPredictor::createCodec),
         OPAQUE("opaque ", CodecFactory.unsupported("Opaque node")),
@@ -8,6 +8,8 @@ import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
+import java.util.function.Consumer;
+
 record StepPredictor<T>(PredictorNode<T> value, PredictorNode<T> edge, PredictorNode<T> min, PredictorNode<T> max) implements PredictorNode<T> {
     public static <T> MapCodec<StepPredictor<T>> createCodec(final Codec<PredictorNode<T>> subCodec) {
         return RecordCodecBuilder.mapCodec(i -> i.group(
@@ -44,4 +46,12 @@ record StepPredictor<T>(PredictorNode<T> value, PredictorNode<T> edge, Predictor
     public PredictorType type() {
         return PredictorType.STEP;
     }
+
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+        value.forEachParameter(consumer);
+        edge.forEachParameter(consumer);
+        min.forEachParameter(consumer);
+        max.forEachParameter(consumer);
+    }
 }
@@ -7,6 +7,8 @@ import dev.gegy.terrarium.backend.expr.ExprCaptures;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
+import java.util.function.Consumer;
+
 record SubPredictor<T>(PredictorNode<T> left, PredictorNode<T> right) implements PredictorNode<T> {
     public static <T> MapCodec<SubPredictor<T>> createCodec(final Codec<PredictorNode<T>> subCodec) {
         return RecordCodecBuilder.mapCodec(i -> i.group(
@@ -31,4 +33,10 @@ record SubPredictor<T>(PredictorNode<T> left, PredictorNode<T> right) implements
     public PredictorType type() {
         return PredictorType.SUB;
     }
+
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+        left.forEachParameter(consumer);
+        right.forEachParameter(consumer);
+    }
 }
@@ -0,0 +1,22 @@
+package dev.gegy.terrarium.backend.layer;
+
+import dev.gegy.terrarium.backend.GeoChunk;
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.PendingGeoChunk;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface GeoChunkLayer extends GeoLayer<GeoChunk> {
+    PendingGeoChunk getPending(GeoView sourceView, RasterShape outputShape);
+
+    default PendingGeoChunk getPendingExact(final GeoView view) {
+        return getPending(view, view.shape());
+    }
+
+    @Override
+    default CompletableFuture<Optional<GeoChunk>> get(final GeoView sourceView, final RasterShape outputShape) {
+        return getPending(sourceView, outputShape).all().thenApply(Optional::of);
+    }
+}
@@ -5,6 +5,7 @@ import dev.gegy.terrarium.backend.raster.RasterShape;
 
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface GeoLayer<V> {
     CompletableFuture<Optional<V>> get(GeoView sourceView, RasterShape outputShape);
@@ -12,4 +13,26 @@ public interface GeoLayer<V> {
     default CompletableFuture<Optional<V>> getExact(final GeoView view) {
         return get(view, view.shape());
     }
+
+    // Samples only from data that's already resident, so this never waits on a fetch but may have to fall back to coarser
+    // data than get would use. Layers that can't tell what is resident give nothing.
+    default CompletableFuture<Optional<V>> getResident(final GeoView sourceView, final RasterShape outputShape) {
+        return CompletableFuture.completedFuture(Optional.empty());
+    }
+
+    // For consumers that would rather show something rough straight away than wait on a cold area. If get isn't
+    // immediately ready, the preview is given whatever getResident comes up with, and always before the returned future
+    // completes with the result from get. The preview is skipped if get has finished by then anyway.
+    default CompletableFuture<Optional<V>> getProgressive(final GeoView sourceView, final RasterShape outputShape, final Consumer<V> preview) {
+        final CompletableFuture<Optional<V>> result = get(sourceView, outputShape);
+        if (result.isDone()) {
+            return result;
+        }
+        final CompletableFuture<Void> previewed = getResident(sourceView, outputShape).thenAccept(resident -> {
+            if (!result.isDone()) {
+                resident.ifPresent(preview);
+            }
+        });
+        return previewed.handle((unused, throwable) -> null).thenCompose(unused -> result);
+    }
 }
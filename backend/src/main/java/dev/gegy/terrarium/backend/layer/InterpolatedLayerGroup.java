@@ -0,0 +1,84 @@
+package dev.gegy.terrarium.backend.layer;
+
+import dev.gegy.terrarium.backend.GeoAttachment;
+import dev.gegy.terrarium.backend.GeoAttachmentSet;
+import dev.gegy.terrarium.backend.GeoChunk;
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.projection.Projection;
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Interpolated attachments that are always sampled over the same views, so that the projection can resample them together
+public class InterpolatedLayerGroup {
+    private final List<GeoAttachment<? extends IntLikeRaster>> attachments;
+    private final GeoLayer<List<Optional<IntLikeRaster>>> layer;
+
+    private InterpolatedLayerGroup(final List<GeoAttachment<? extends IntLikeRaster>> attachments, final GeoLayer<List<Optional<IntLikeRaster>>> layer) {
+        this.attachments = attachments;
+        this.layer = layer;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public GeoChunk.Builder putAll(final GeoChunk.Builder builder, final GeoView sourceView, final RasterShape outputShape) {
+        if (attachments.isEmpty()) {
+            return builder;
+        }
+        return putAll(builder, layer.get(sourceView, outputShape));
+    }
+
+    public GeoChunk.Builder putAllResident(final GeoChunk.Builder builder, final GeoView sourceView, final RasterShape outputShape) {
+        if (attachments.isEmpty()) {
+            return builder;
+        }
+        return putAll(builder, layer.getResident(sourceView, outputShape));
+    }
+
+    private GeoChunk.Builder putAll(final GeoChunk.Builder builder, final CompletableFuture<Optional<List<Optional<IntLikeRaster>>>> rasters) {
+        for (int i = 0; i < attachments.size(); i++) {
+            put(builder, attachments.get(i), rasters, i);
+        }
+        return builder;
+    }
+
+    // Every raster is created with the same type as the source raster, so it must match the attachment it was sampled for
+    @SuppressWarnings("unchecked")
+    private static <V extends IntLikeRaster> void put(final GeoChunk.Builder builder, final GeoAttachment<V> attachment, final CompletableFuture<Optional<List<Optional<IntLikeRaster>>>> rasters, final int index) {
+        builder.put(attachment, rasters.thenApply(r -> r.flatMap(list -> (Optional<V>) list.get(index))));
+    }
+
+    public static class Builder {
+        private final List<GeoAttachment<? extends IntLikeRaster>> attachments = new ArrayList<>();
+        private final List<LeveledRasterSampler<? extends IntLikeRaster>> samplers = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public <V extends IntLikeRaster> Builder add(final GeoAttachment<V> attachment, final LeveledRasterSampler<V> sampler) {
+            attachments.add(attachment);
+            samplers.add(sampler);
+            return this;
+        }
+
+        // Anything not in the given set is left out of the group entirely, so is never sampled
+        public InterpolatedLayerGroup build(final Projection projection, final GeoAttachmentSet included, final Executor executor) {
+            final List<GeoAttachment<? extends IntLikeRaster>> includedAttachments = new ArrayList<>();
+            final List<LeveledRasterSampler<? extends IntLikeRaster>> includedSamplers = new ArrayList<>();
+            for (int i = 0; i < attachments.size(); i++) {
+                if (included.contains(attachments.get(i))) {
+                    includedAttachments.add(attachments.get(i));
+                    includedSamplers.add(samplers.get(i));
+                }
+            }
+            return new InterpolatedLayerGroup(List.copyOf(includedAttachments), projection.createInterpolatedLayers(includedSamplers, executor));
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package dev.gegy.terrarium.backend.layer;
 
+import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.raster.Raster;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 public class LeveledRasterSampler<V extends Raster> {
     // Interpolation filling in every second block is okay, but try to not upsample more than that
@@ -40,10 +45,46 @@ public class LeveledRasterSampler<V extends Raster> {
         return levels.getLast();
     }
 
+    // Picks the level closest to the ideal one that can be sampled without fetching anything. Coarser levels still make
+    // for a usable rough result, but finer levels are only considered while they wouldn't be too costly to downsample.
+    public Optional<RasterSampler<V>> chooseResident(final double blocksPerDegreeX, final double blocksPerDegreeY, final Function<RasterSampler<V>, GeoView> mapView) {
+        final RasterSampler<V> ideal = choose(blocksPerDegreeX, blocksPerDegreeY);
+        for (final RasterSampler<V> level : closestLevels(ideal)) {
+            if (level != ideal && wouldOversample(level, blocksPerDegreeX, blocksPerDegreeY)) {
+                continue;
+            }
+            if (level.isResident(mapView.apply(level))) {
+                return Optional.of(level);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // The same levels, but with every level sampled through the given wrapper
+    public LeveledRasterSampler<V> mapLevels(final UnaryOperator<RasterSampler<V>> function) {
+        return new LeveledRasterSampler<>(levels.stream().map(function).toList());
+    }
+
     public RasterSampler<V> maxLevel() {
         return levels.getLast();
     }
 
+    // Starting from the given level, and going finer before coarser so as to lose as little detail as we can
+    private List<RasterSampler<V>> closestLevels(final RasterSampler<V> from) {
+        final int fromIndex = levels.indexOf(from);
+        final List<RasterSampler<V>> result = new ArrayList<>(levels.size());
+        result.add(from);
+        for (int distance = 1; distance < levels.size(); distance++) {
+            if (fromIndex + distance < levels.size()) {
+                result.add(levels.get(fromIndex + distance));
+            }
+            if (fromIndex - distance >= 0) {
+                result.add(levels.get(fromIndex - distance));
+            }
+        }
+        return result;
+    }
+
     private boolean wouldUndersample(final RasterSampler<V> level, final double blocksPerDegreeX, final double blocksPerDegreeY) {
         final double maxBlocksPerDegreeX = level.width() / 360.0 * MAX_UPSAMPLE_FACTOR;
         final double maxBlocksPerDegreeY = level.height() / 180.0 * MAX_UPSAMPLE_FACTOR;
@@ -55,4 +96,5 @@ public class LeveledRasterSampler<V extends Raster> {
         final double minBlocksPerDegreeY = level.height() / 180.0 / MAX_DOWNSAMPLE_FACTOR;
         return blocksPerDegreeX <= minBlocksPerDegreeX || blocksPerDegreeY <= minBlocksPerDegreeY;
     }
+
 }
@@ -9,6 +9,15 @@ import java.util.concurrent.CompletableFuture;
 public interface RasterSampler<V extends Raster> {
     CompletableFuture<Optional<V>> get(GeoView view);
 
+    // Whether get can be served without fetching anything, which callers can use to prefer data that's already at hand
+    default boolean isResident(final GeoView view) {
+        return false;
+    }
+
+    // Hands back a raster returned by get once the caller is entirely done with it, so that it can be reused
+    default void release(final V raster) {
+    }
+
     int width();
 
     int height();
@@ -8,7 +8,32 @@ import java.util.function.Supplier;
 public interface Cacher<K, V> {
     CompletableFuture<Optional<V>> getOrLoad(K key, Supplier<CompletableFuture<Optional<V>>> loader);
 
+    // Whether getOrLoad would be able to return a value without calling the loader
+    default boolean contains(final K key) {
+        return false;
+    }
+
+    // Drops whatever is stored for the key, so that the next getOrLoad has to call the loader again
+    default void remove(final K key) {
+    }
+
     default <K1> Cacher<K1, V> mapKey(final Function<K1, K> function) {
-        return (key, loader) -> getOrLoad(function.apply(key), loader);
+        final Cacher<K, V> parent = this;
+        return new Cacher<>() {
+            @Override
+            public CompletableFuture<Optional<V>> getOrLoad(final K1 key, final Supplier<CompletableFuture<Optional<V>>> loader) {
+                return parent.getOrLoad(function.apply(key), loader);
+            }
+
+            @Override
+            public boolean contains(final K1 key) {
+                return parent.contains(function.apply(key));
+            }
+
+            @Override
+            public void remove(final K1 key) {
+                parent.remove(function.apply(key));
+            }
+        };
     }
 }
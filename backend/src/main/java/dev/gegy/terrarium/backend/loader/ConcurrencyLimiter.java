@@ -1,39 +1,74 @@
 package dev.gegy.terrarium.backend.loader;
 
-import java.util.Queue;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class ConcurrencyLimiter {
     private final int maxConcurrency;
 
     private final AtomicInteger activeCount = new AtomicInteger();
-    private final Queue<Supplier<CompletableFuture<?>>> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final PriorityBlockingQueue<Task<?>> tasks;
+
+    private final LongAdder startedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
 
     public ConcurrencyLimiter(final int maxConcurrency) {
+        this(maxConcurrency, Priority.COMPARATOR);
+    }
+
+    public ConcurrencyLimiter(final int maxConcurrency, final Comparator<Priority> comparator) {
         this.maxConcurrency = maxConcurrency;
+        // Tasks of equal priority are run in the order they were submitted
+        final Comparator<Task<?>> taskComparator = Comparator.<Task<?>, Priority>comparing(Task::priority, comparator)
+                .thenComparingLong(Task::sequence);
+        tasks = new PriorityBlockingQueue<>(11, taskComparator);
     }
 
     public <K, V> Loader<K, V> wrap(final Loader<K, V> loader) {
         return key -> submit(() -> loader.load(key));
     }
 
+    public <K, V> Loader<K, V> wrap(final Loader<K, V> loader, final Function<K, Priority> priority) {
+        return key -> submit(priority.apply(key), () -> loader.load(key));
+    }
+
     public <R> CompletableFuture<R> submit(final Supplier<CompletableFuture<R>> task) {
+        return submit(Priority.DEFAULT, task);
+    }
+
+    public <R> CompletableFuture<R> submit(final Priority priority, final Supplier<CompletableFuture<R>> task) {
+        return enqueue(priority, task, new CompletableFuture<>());
+    }
+
+    // The returned future fails with a TimeoutException once the deadline passes
+    public <R> CompletableFuture<R> submit(final Priority priority, final Duration deadline, final Supplier<CompletableFuture<R>> task) {
         final CompletableFuture<R> future = new CompletableFuture<>();
-        tasks.add(() -> {
-            if (future.isCancelled()) {
-                return CompletableFuture.completedFuture(null);
+        future.orTimeout(deadline.toNanos(), TimeUnit.NANOSECONDS);
+        return enqueue(priority, task, future);
+    }
+
+    private <R> CompletableFuture<R> enqueue(final Priority priority, final Supplier<CompletableFuture<R>> task, final CompletableFuture<R> future) {
+        final Task<R> entry = new Task<>(priority, nextSequence.getAndIncrement(), System.nanoTime(), task, future);
+        tasks.add(entry);
+        // Anything that is cancelled or times out before it gets to start shouldn't keep occupying the queue
+        future.whenComplete((result, throwable) -> {
+            if (tasks.remove(entry)) {
+                droppedCount.increment();
             }
-            return task.get().whenComplete((result, throwable) -> {
-                if (throwable != null) {
-                    future.completeExceptionally(throwable);
-                } else {
-                    future.complete(result);
-                }
-            });
         });
+
         trySchedule();
         return future;
     }
@@ -45,9 +80,10 @@ public class ConcurrencyLimiter {
                 return;
             }
             if (activeCount.compareAndSet(count, count + 1)) {
-                final Supplier<CompletableFuture<?>> task = tasks.poll();
+                final Task<?> task = tasks.poll();
                 if (task != null) {
-                    task.get().whenComplete((r, t) -> {
+                    recordWait(System.nanoTime() - task.submitTime());
+                    task.start().whenComplete((r, t) -> {
                         activeCount.decrementAndGet();
                         trySchedule();
                     });
@@ -58,4 +94,65 @@ public class ConcurrencyLimiter {
             }
         }
     }
+
+    private void recordWait(final long waitNanos) {
+        startedCount.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    public Metrics metrics() {
+        return new Metrics(
+                tasks.size(),
+                activeCount.get(),
+                startedCount.sum(),
+                droppedCount.sum(),
+                Duration.ofNanos(totalWaitNanos.sum()),
+                Duration.ofNanos(maxWaitNanos.get())
+        );
+    }
+
+    public record Metrics(int queueDepth, int activeCount, long startedCount, long droppedCount, Duration totalWait, Duration maxWait) {
+        public Optional<Duration> averageWait() {
+            if (startedCount == 0) {
+                return Optional.empty();
+            }
+            return Optional.of(totalWait.dividedBy(startedCount));
+        }
+    }
+
+    // Purposes are ordered from most to least urgent
+    public enum Purpose {
+        INTERACTIVE,
+        GENERATION,
+        LOD,
+        SPECULATIVE,
+    }
+
+    // Within a purpose, lower ranks are run first
+    public record Priority(Purpose purpose, double rank) {
+        public static final Priority DEFAULT = new Priority(Purpose.GENERATION, 0.0);
+
+        public static final Comparator<Priority> COMPARATOR = Comparator.comparing(Priority::purpose)
+                .thenComparingDouble(Priority::rank);
+
+        public static Priority of(final Purpose purpose) {
+            return new Priority(purpose, 0.0);
+        }
+    }
+
+    private record Task<R>(Priority priority, long sequence, long submitTime, Supplier<CompletableFuture<R>> task, CompletableFuture<R> future) {
+        public CompletableFuture<?> start() {
+            if (future.isDone()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return task.get().whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    future.completeExceptionally(throwable);
+                } else {
+                    future.complete(result);
+                }
+            });
+        }
+    }
 }
@@ -11,6 +11,7 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
@@ -22,6 +23,8 @@ public class FileCacher implements Cacher<Path, byte[]> {
     private final Executor executor;
 
     private final Map<Path, CompletableFuture<Optional<byte[]>>> pendingLoads = new ConcurrentHashMap<>();
+    // Paths that we've read or written ourselves, so that we can tell what's cached without going to the disk
+    private final Set<Path> knownPaths = ConcurrentHashMap.newKeySet();
 
     public FileCacher(final Executor executor) {
         this.executor = executor;
@@ -32,6 +35,16 @@ public class FileCacher implements Cacher<Path, byte[]> {
         return pendingLoads.computeIfAbsent(path, p -> _getOrLoad(p, loader));
     }
 
+    @Override
+    public boolean contains(final Path path) {
+        return knownPaths.contains(path);
+    }
+
+    @Override
+    public void remove(final Path path) {
+        deleteQuietly(path);
+    }
+
     private CompletableFuture<Optional<byte[]>> _getOrLoad(final Path path, final Supplier<CompletableFuture<Optional<byte[]>>> loader) {
         return CompletableFuture.supplyAsync(() -> get(path), executor).thenComposeAsync(cachedValue -> {
             if (cachedValue.isPresent()) {
@@ -58,6 +71,7 @@ public class FileCacher implements Cacher<Path, byte[]> {
         try {
             Files.createDirectories(path.getParent());
             writeSafe(path, value.get());
+            knownPaths.add(path);
         } catch (final IOException e) {
             LOGGER.error("Failed to put data tile at {} into cache, dropping", path, e);
             deleteQuietly(path);
@@ -77,7 +91,9 @@ public class FileCacher implements Cacher<Path, byte[]> {
     private Optional<byte[]> get(final Path path) {
         try {
             if (Files.exists(path)) {
-                return Optional.of(Files.readAllBytes(path));
+                final byte[] value = Files.readAllBytes(path);
+                knownPaths.add(path);
+                return Optional.of(value);
             }
         } catch (final IOException e) {
             LOGGER.error("Failed to read data tile at {} from cache, dropping", path, e);
@@ -86,7 +102,8 @@ public class FileCacher implements Cacher<Path, byte[]> {
         return Optional.empty();
     }
 
-    private static void deleteQuietly(final Path path) {
+    private void deleteQuietly(final Path path) {
+        knownPaths.remove(path);
         try {
             Files.deleteIfExists(path);
         } catch (final IOException ignored) {
@@ -27,4 +27,10 @@ public class GuavaInMemoryCacher<K, V> implements Cacher<K, V> {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public boolean contains(final K key) {
+        final CompletableFuture<Optional<V>> future = cache.getIfPresent(key);
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
 }
@@ -0,0 +1,181 @@
+package dev.gegy.terrarium.backend.loader;
+
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// Streams responses straight into files rather than buffering them on the heap. Requests prefer HTTP/2, so that many
+// concurrent downloads from the same host get multiplexed over a single connection.
+public record HttpDownloader(HttpClient client, Duration requestTimeout) {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_PARTIAL_CONTENT = 206;
+    private static final int STATUS_RANGE_NOT_SATISFIABLE = 416;
+
+    public CompletableFuture<Result> download(final URI uri, final Path path) {
+        if (Files.exists(path)) {
+            return CompletableFuture.completedFuture(Result.cached(path));
+        }
+
+        // Each download gets its own temporary file, so that concurrent downloads to the same path can't interleave
+        final Path temporaryPath;
+        try {
+            Files.createDirectories(path.getParent());
+            temporaryPath = Files.createTempFile(path.getParent(), path.getFileName().toString() + ".", ".tmp");
+        } catch (final IOException e) {
+            LOGGER.error("Failed to create directory for download of {} to {}", uri, path, e);
+            return CompletableFuture.completedFuture(Result.FAILED);
+        }
+
+        final HttpResponse.BodyHandler<Path> bodyHandler = HttpResponse.BodyHandlers.ofFile(temporaryPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        );
+        return client.sendAsync(request(uri).build(), bodyHandler).handle((response, throwable) -> {
+            try {
+                if (throwable != null) {
+                    throw new IOException("Request failed", throwable);
+                }
+                if (response.statusCode() != STATUS_OK) {
+                    throw new IOException("Unexpected status code " + response.statusCode());
+                }
+                Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return Result.downloaded(path);
+            } catch (final IOException e) {
+                LOGGER.error("Failed to download {} to {}", uri, path, e);
+                deleteQuietly(temporaryPath);
+                return Result.FAILED;
+            }
+        });
+    }
+
+    // Keeps whatever was received in a .part file if the download fails, and asks for only the remaining bytes with a
+    // range request next time. Servers that ignore the range will just send the whole file again.
+    public CompletableFuture<Result> downloadResumable(final URI uri, final Path path) {
+        if (Files.exists(path)) {
+            return CompletableFuture.completedFuture(Result.cached(path));
+        }
+
+        final Path partialPath = path.resolveSibling(path.getFileName().toString() + ".part");
+        final long resumeFrom;
+        try {
+            Files.createDirectories(path.getParent());
+            resumeFrom = Files.exists(partialPath) ? Files.size(partialPath) : 0;
+        } catch (final IOException e) {
+            LOGGER.error("Failed to prepare download of {} to {}", uri, path, e);
+            return CompletableFuture.completedFuture(Result.FAILED);
+        }
+
+        final HttpRequest.Builder request = request(uri);
+        if (resumeFrom > 0) {
+            request.header("Range", "bytes=" + resumeFrom + "-");
+        }
+
+        final HttpResponse.BodyHandler<Path> bodyHandler = responseInfo -> {
+            final StandardOpenOption mode = responseInfo.statusCode() == STATUS_PARTIAL_CONTENT
+                    ? StandardOpenOption.APPEND
+                    : StandardOpenOption.TRUNCATE_EXISTING;
+            if (responseInfo.statusCode() == STATUS_OK || responseInfo.statusCode() == STATUS_PARTIAL_CONTENT) {
+                return HttpResponse.BodyHandlers.ofFile(partialPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode).apply(responseInfo);
+            }
+            return HttpResponse.BodySubscribers.replacing(partialPath);
+        };
+
+        return client.sendAsync(request.build(), bodyHandler).handle((response, throwable) -> {
+            try {
+                if (throwable != null) {
+                    throw new IOException("Request failed after receiving " + sizeQuietly(partialPath) + " bytes", throwable);
+                }
+                final int status = response.statusCode();
+                if (status == STATUS_RANGE_NOT_SATISFIABLE && resumeFrom > 0) {
+                    // If we already have every byte, the server can't satisfy a range starting at the end of the file.
+                    // Otherwise the file must have changed under us, and what we have of it is no use.
+                    if (completeLength(response) != resumeFrom) {
+                        LOGGER.warn("Partial download of {} at {} doesn't match the server's copy, starting over", uri, partialPath);
+                        Files.deleteIfExists(partialPath);
+                        return downloadResumable(uri, path);
+                    }
+                } else if (status != STATUS_OK && status != STATUS_PARTIAL_CONTENT) {
+                    throw new IOException("Unexpected status code " + status);
+                }
+                Files.move(partialPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return CompletableFuture.completedFuture(Result.downloaded(path));
+            } catch (final IOException e) {
+                LOGGER.error("Failed to download {} to {}, will resume from {}", uri, path, partialPath, e);
+                return CompletableFuture.completedFuture(Result.FAILED);
+            }
+        }).thenCompose(Function.identity());
+    }
+
+    // The total size from a "Content-Range: bytes */<size>" header, as sent alongside a 416 response
+    private static long completeLength(final HttpResponse<?> response) {
+        final String prefix = "bytes */";
+        return response.headers().firstValue("Content-Range")
+                .filter(range -> range.startsWith(prefix))
+                .map(range -> {
+                    try {
+                        return Long.parseLong(range.substring(prefix.length()).trim());
+                    } catch (final NumberFormatException e) {
+                        return -1L;
+                    }
+                })
+                .orElse(-1L);
+    }
+
+    private HttpRequest.Builder request(final URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .header("User-Agent", HttpLoader.USER_AGENT)
+                .version(HttpClient.Version.HTTP_2)
+                .timeout(requestTimeout)
+                .GET();
+    }
+
+    private static long sizeQuietly(final Path path) {
+        try {
+            return Files.size(path);
+        } catch (final IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (final IOException ignored) {
+        }
+    }
+
+    public enum Status {
+        DOWNLOADED,
+        CACHED,
+        FAILED,
+    }
+
+    public record Result(Status status, long bytes) {
+        public static final Result FAILED = new Result(Status.FAILED, 0);
+
+        private static Result downloaded(final Path path) {
+            return new Result(Status.DOWNLOADED, sizeQuietly(path));
+        }
+
+        private static Result cached(final Path path) {
+            return new Result(Status.CACHED, sizeQuietly(path));
+        }
+
+        public boolean isPresent() {
+            return status != Status.FAILED;
+        }
+    }
+}
@@ -11,20 +11,61 @@ public interface Loader<K, V> {
 
     CompletableFuture<Optional<V>> load(K key);
 
+    // Whether loading the key can be served from a cache, rather than having to fetch it. This is only a hint, as the
+    // cached value may be evicted at any point.
+    default boolean isCached(final K key) {
+        return false;
+    }
+
     default <K1> Loader<K1, V> mapKey(final Function<K1, K> function) {
-        return key -> load(function.apply(key));
+        final Loader<K, V> parent = this;
+        return new Loader<>() {
+            @Override
+            public CompletableFuture<Optional<V>> load(final K1 key) {
+                return parent.load(function.apply(key));
+            }
+
+            @Override
+            public boolean isCached(final K1 key) {
+                return parent.isCached(function.apply(key));
+            }
+        };
     }
 
     default <K1> Loader<K1, V> compose(final Loader<K1, K> other) {
-        return key -> other.load(key).thenCompose(result -> {
-            if (result.isPresent()) {
-                return load(result.get());
+        final Loader<K, V> parent = this;
+        return new Loader<>() {
+            @Override
+            public CompletableFuture<Optional<V>> load(final K1 key) {
+                return other.load(key).thenCompose(result -> {
+                    if (result.isPresent()) {
+                        return parent.load(result.get());
+                    }
+                    return CompletableFuture.completedFuture(Optional.empty());
+                });
             }
-            return CompletableFuture.completedFuture(Optional.empty());
-        });
+
+            // We don't know what key other resolves to until it has loaded, but composing is only used to decode or
+            // convert whatever other loads, so it comes down to whether other has it
+            @Override
+            public boolean isCached(final K1 key) {
+                return other.isCached(key);
+            }
+        };
     }
 
     default Loader<K, V> cached(final Cacher<K, V> cacher) {
-        return key -> cacher.getOrLoad(key, () -> load(key));
+        final Loader<K, V> parent = this;
+        return new Loader<>() {
+            @Override
+            public CompletableFuture<Optional<V>> load(final K key) {
+                return cacher.getOrLoad(key, () -> parent.load(key));
+            }
+
+            @Override
+            public boolean isCached(final K key) {
+                return cacher.contains(key) || parent.isCached(key);
+            }
+        };
     }
 }
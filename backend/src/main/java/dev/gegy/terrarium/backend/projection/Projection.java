@@ -2,16 +2,23 @@ package dev.gegy.terrarium.backend.projection;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
+import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.earth.GeoCoords;
 import dev.gegy.terrarium.backend.layer.GeoLayer;
 import dev.gegy.terrarium.backend.layer.LeveledRasterSampler;
 import dev.gegy.terrarium.backend.projection.cylindrical.Equirectangular;
 import dev.gegy.terrarium.backend.projection.cylindrical.Mercator;
+import dev.gegy.terrarium.backend.projection.transverse.TransverseMercator;
 import dev.gegy.terrarium.backend.raster.EnumRaster;
 import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
 import dev.gegy.terrarium.backend.util.Util;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 public interface Projection {
     Codec<Projection> CODEC = Type.CODEC.dispatch(Projection::type, type -> type.codec);
@@ -38,11 +45,40 @@ public interface Projection {
 
     <V extends IntLikeRaster> GeoLayer<V> createInterpolatedLayer(LeveledRasterSampler<V> leveledSampler, Executor executor);
 
+    // Interpolates layers that are always sampled together, in the same order as the given samplers. Projections can
+    // share whatever work doesn't depend on the layer data, but by default each layer is simply sampled by itself.
+    default GeoLayer<List<Optional<IntLikeRaster>>> createInterpolatedLayers(final List<LeveledRasterSampler<? extends IntLikeRaster>> leveledSamplers, final Executor executor) {
+        final List<GeoLayer<? extends IntLikeRaster>> layers = leveledSamplers.stream()
+                .<GeoLayer<? extends IntLikeRaster>>map(leveledSampler -> createInterpolatedLayer(leveledSampler, executor))
+                .toList();
+        return new GeoLayer<>() {
+            @Override
+            public CompletableFuture<Optional<List<Optional<IntLikeRaster>>>> get(final GeoView sourceView, final RasterShape outputShape) {
+                return sampleAll(layers, layer -> layer.get(sourceView, outputShape));
+            }
+
+            @Override
+            public CompletableFuture<Optional<List<Optional<IntLikeRaster>>>> getResident(final GeoView sourceView, final RasterShape outputShape) {
+                return sampleAll(layers, layer -> layer.getResident(sourceView, outputShape));
+            }
+        };
+    }
+
+    private static CompletableFuture<Optional<List<Optional<IntLikeRaster>>>> sampleAll(final List<GeoLayer<? extends IntLikeRaster>> layers, final Function<GeoLayer<? extends IntLikeRaster>, CompletableFuture<? extends Optional<? extends IntLikeRaster>>> sampler) {
+        final List<CompletableFuture<? extends Optional<? extends IntLikeRaster>>> futures = layers.stream()
+                .<CompletableFuture<? extends Optional<? extends IntLikeRaster>>>map(sampler)
+                .toList();
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(unused -> Optional.of(
+                futures.stream().map(future -> future.join().<IntLikeRaster>map(raster -> raster)).toList()
+        ));
+    }
+
     <E extends Enum<E>, V extends EnumRaster<E>> GeoLayer<V> createVoronoiLayer(LeveledRasterSampler<V> leveledSampler, Executor executor);
 
     enum Type {
         EQUIRECTANGULAR("equirectangular", Equirectangular.CODEC),
         MERCATOR("mercator", Mercator.CODEC),
+        TRANSVERSE_MERCATOR("transverse_mercator", TransverseMercator.CODEC),
         ;
 
         public static final Codec<Type> CODEC = Util.stringLookupCodec(values(), type -> type.key);
@@ -0,0 +1,154 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.raster.ByteRaster;
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
+import dev.gegy.terrarium.backend.util.ScratchBuffers;
+import dev.gegy.terrarium.backend.util.Util;
+
+// Specialized versions of the interpolating resamplers that work directly on the backing arrays of rasters. The source
+// is widened to floats once, and the sample positions come from a precomputed table rather than being computed for
+// every source row. All working space is borrowed from the thread's scratch buffers. These need to produce exactly the same output as
+// the generic path, so all arithmetic is done in the same order.
+final class ArrayInterpolation {
+    static final boolean VECTORIZE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private ArrayInterpolation() {
+    }
+
+    static boolean supports(final IntLikeRaster raster) {
+        return raster instanceof ShortRaster || raster instanceof UnsignedByteRaster || raster instanceof ByteRaster;
+    }
+
+    static void resampleTwoPoint(final IntLikeRaster source, final IntLikeRaster target, final SamplingTable table, final boolean vectorize) {
+        try (final ScratchBuffers scratch = ScratchBuffers.acquire()) {
+            final int sourceWidth = source.width();
+            final int sourceHeight = source.height();
+            final int targetWidth = target.width();
+            final int targetHeight = target.height();
+            final float[] values = toFloats(source, scratch);
+
+            final int[] originsX = table.originsX();
+            final float[] weightsX = table.weightsX();
+            final int[] originsY = table.originsY();
+            final float[] weightsY = table.weightsY();
+
+            final float[] intermediate = scratch.floats(targetWidth * sourceHeight);
+            for (int sourceY = 0; sourceY < sourceHeight; sourceY++) {
+                final int sourceOffset = sourceY * sourceWidth;
+                final int intermediateOffset = sourceY * targetWidth;
+                for (int targetX = 0; targetX < targetWidth; targetX++) {
+                    final int i = sourceOffset + originsX[targetX];
+                    intermediate[intermediateOffset + targetX] = Util.lerp(values[i], values[i + 1], weightsX[targetX]);
+                }
+            }
+
+            final int[] row = scratch.ints(targetWidth);
+            for (int targetY = 0; targetY < targetHeight; targetY++) {
+                final float weightY = weightsY[targetY];
+                final int offset = originsY[targetY] * targetWidth;
+                if (vectorize) {
+                    VectorInterpolation.lerpFloor(intermediate, offset, offset + targetWidth, weightY, row, targetWidth);
+                } else {
+                    for (int targetX = 0; targetX < targetWidth; targetX++) {
+                        row[targetX] = Util.floorInt(Util.lerp(intermediate[offset + targetX], intermediate[offset + targetWidth + targetX], weightY));
+                    }
+                }
+                writeRow(target, targetY, row, targetWidth);
+            }
+        }
+    }
+
+    static void resampleCubic(final IntLikeRaster source, final IntLikeRaster target, final SamplingTable table, final boolean vectorize) {
+        try (final ScratchBuffers scratch = ScratchBuffers.acquire()) {
+            final int sourceWidth = source.width();
+            final int sourceHeight = source.height();
+            final int targetWidth = target.width();
+            final int targetHeight = target.height();
+            final float[] values = toFloats(source, scratch);
+
+            final int[] originsX = table.originsX();
+            final float[] weightsX = table.weightsX();
+            final int[] originsY = table.originsY();
+            final float[] weightsY = table.weightsY();
+
+            final float[] intermediate = scratch.floats(targetWidth * sourceHeight);
+            for (int sourceY = 0; sourceY < sourceHeight; sourceY++) {
+                final int sourceOffset = sourceY * sourceWidth;
+                final int intermediateOffset = sourceY * targetWidth;
+                for (int targetX = 0; targetX < targetWidth; targetX++) {
+                    final int i = sourceOffset + originsX[targetX];
+                    intermediate[intermediateOffset + targetX] = Util.cubic(values[i - 1], values[i], values[i + 1], values[i + 2], weightsX[targetX]);
+                }
+            }
+
+            final int[] row = scratch.ints(targetWidth);
+            for (int targetY = 0; targetY < targetHeight; targetY++) {
+                final float weightY = weightsY[targetY];
+                final int offset = originsY[targetY] * targetWidth;
+                if (vectorize) {
+                    VectorInterpolation.cubicFloor(intermediate, offset, targetWidth, weightY, row, targetWidth);
+                } else {
+                    for (int targetX = 0; targetX < targetWidth; targetX++) {
+                        final int i = offset + targetX;
+                        row[targetX] = Util.floorInt(Util.cubic(
+                                intermediate[i - targetWidth],
+                                intermediate[i],
+                                intermediate[i + targetWidth],
+                                intermediate[i + targetWidth * 2],
+                                weightY
+                        ));
+                    }
+                }
+                writeRow(target, targetY, row, targetWidth);
+            }
+        }
+    }
+
+    private static float[] toFloats(final IntLikeRaster raster, final ScratchBuffers scratch) {
+        final int size = raster.shape().size();
+        final float[] values = scratch.floats(size);
+        if (raster instanceof final ShortRaster shortRaster) {
+            final short[] buffer = shortRaster.buffer();
+            for (int i = 0; i < size; i++) {
+                values[i] = buffer[i];
+            }
+        } else if (raster instanceof final UnsignedByteRaster byteRaster) {
+            final byte[] buffer = byteRaster.buffer();
+            for (int i = 0; i < size; i++) {
+                values[i] = buffer[i] & 0xff;
+            }
+        } else if (raster instanceof final ByteRaster byteRaster) {
+            final byte[] buffer = byteRaster.buffer();
+            for (int i = 0; i < size; i++) {
+                values[i] = buffer[i];
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported raster " + raster);
+        }
+        return values;
+    }
+
+    private static void writeRow(final IntLikeRaster raster, final int y, final int[] row, final int width) {
+        final int offset = raster.shape().index(0, y);
+        if (raster instanceof final ShortRaster shortRaster) {
+            final short[] buffer = shortRaster.buffer();
+            for (int x = 0; x < width; x++) {
+                buffer[offset + x] = (short) row[x];
+            }
+        } else if (raster instanceof final UnsignedByteRaster byteRaster) {
+            final byte[] buffer = byteRaster.buffer();
+            for (int x = 0; x < width; x++) {
+                buffer[offset + x] = (byte) row[x];
+            }
+        } else if (raster instanceof final ByteRaster byteRaster) {
+            final byte[] buffer = byteRaster.buffer();
+            for (int x = 0; x < width; x++) {
+                buffer[offset + x] = (byte) row[x];
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported raster " + raster);
+        }
+    }
+}
@@ -3,12 +3,13 @@ package dev.gegy.terrarium.backend.projection.cylindrical;
 import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.layer.GeoLayer;
 import dev.gegy.terrarium.backend.layer.LeveledRasterSampler;
-import dev.gegy.terrarium.backend.layer.RasterSampler;
 import dev.gegy.terrarium.backend.projection.Projection;
 import dev.gegy.terrarium.backend.raster.EnumRaster;
 import dev.gegy.terrarium.backend.raster.IntLikeRaster;
 import dev.gegy.terrarium.backend.raster.Raster;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Executor;
 
 public interface CylindricalProjection extends Projection {
@@ -20,47 +21,12 @@ public interface CylindricalProjection extends Projection {
 
     double lat(double blockZ);
 
+    default RowLatitudes rowLatitudes(final GeoView view, final int rowCount) {
+        return RowLatitudes.compute(this, view, rowCount);
+    }
+
     default <V extends Raster> GeoLayer<V> createResamplingLayer(final ResamplerFactory<V> resamplerFactory, final LeveledRasterSampler<V> leveledSampler, final Executor executor) {
-        return (sourceView, outputShape) -> {
-            final double lon0 = lon(sourceView.x0());
-            final double lon1 = lon(sourceView.x1() + 0.5);
-            final double lat0 = lat(sourceView.z1() + 0.5);
-            final double lat1 = lat(sourceView.z0());
-
-            final double outputPixelsPerDegreeX = outputShape.width() / (lon1 - lon0);
-            final double outputPixelsPerDegreeY = outputShape.height() / (lat1 - lat0);
-            final RasterSampler<V> sampler = leveledSampler.choose(outputPixelsPerDegreeX, outputPixelsPerDegreeY);
-
-            final double x0 = (lon0 + 180.0) / 360.0 * sampler.width();
-            final double z0 = (90.0 - lat1) / 180.0 * sampler.height();
-            final double x1 = (lon1 + 180.0) / 360.0 * sampler.width();
-            final double z1 = (90.0 - lat0) / 180.0 * sampler.height();
-
-            // Big approximation: the scale won't necessarily be the same over the full sampled area, but it's good enough for now
-            // TODO: This means we can't sample big areas at once, so it might become relevant in the future
-            final double outputToMapScaleX = (x1 - x0) / outputShape.width();
-            final double outputToMapScaleZ = (z1 - z0) / outputShape.height();
-
-            final Resampler<? super V> resampler = resamplerFactory.create(Math.min(outputToMapScaleX, outputToMapScaleZ));
-
-            final GeoView mapView = resampler.extend(new GeoView(
-                    (int) Math.floor(x0),
-                    (int) Math.floor(z0),
-                    (int) Math.floor(x1),
-                    (int) Math.floor(z1)
-            ));
-            final float offsetX = (float) (x0 - mapView.x0());
-            final float offsetZ = (float) (z0 - mapView.z0());
-
-            return sampler.get(mapView).thenApplyAsync(
-                    r -> r.map(source -> {
-                        final V output = Raster.type(source).create(outputShape);
-                        resampler.resample(source, output, (float) outputToMapScaleX, (float) outputToMapScaleZ, offsetX, offsetZ, mapView.x0(), mapView.z0());
-                        return output;
-                    }),
-                    executor
-            );
-        };
+        return new ResamplingLayer<>(this, resamplerFactory, leveledSampler, executor);
     }
 
     @Override
@@ -92,6 +58,11 @@ public interface CylindricalProjection extends Projection {
         );
     }
 
+    @Override
+    default GeoLayer<List<Optional<IntLikeRaster>>> createInterpolatedLayers(final List<LeveledRasterSampler<? extends IntLikeRaster>> leveledSamplers, final Executor executor) {
+        return new FusedInterpolation(this, leveledSamplers, executor);
+    }
+
     @Override
     default <E extends Enum<E>, V extends EnumRaster<E>> GeoLayer<V> createVoronoiLayer(final LeveledRasterSampler<V> leveledSampler, final Executor executor) {
         final Voronoi voronoi = new Voronoi(0.45f, 2016969737595986194L);
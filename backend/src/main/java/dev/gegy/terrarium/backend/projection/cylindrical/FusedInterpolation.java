@@ -0,0 +1,105 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.layer.GeoLayer;
+import dev.gegy.terrarium.backend.layer.LeveledRasterSampler;
+import dev.gegy.terrarium.backend.layer.RasterSampler;
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.Raster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+// Interpolates several layers that are always sampled over the same views. Any layers that end up choosing a level with
+// the same dimensions are sampled from exactly the same map area, so they share one plan and sampling table rather than
+// each working it out again, and all layers are then resampled together in a single task.
+final class FusedInterpolation implements GeoLayer<List<Optional<IntLikeRaster>>> {
+    private final CylindricalProjection projection;
+    private final List<LeveledRasterSampler<? extends IntLikeRaster>> leveledSamplers;
+    private final Executor executor;
+
+    FusedInterpolation(final CylindricalProjection projection, final List<LeveledRasterSampler<? extends IntLikeRaster>> leveledSamplers, final Executor executor) {
+        this.projection = projection;
+        this.leveledSamplers = List.copyOf(leveledSamplers);
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Optional<List<Optional<IntLikeRaster>>>> get(final GeoView sourceView, final RasterShape outputShape) {
+        return sample(sourceView, outputShape, false);
+    }
+
+    @Override
+    public CompletableFuture<Optional<List<Optional<IntLikeRaster>>>> getResident(final GeoView sourceView, final RasterShape outputShape) {
+        return sample(sourceView, outputShape, true);
+    }
+
+    private CompletableFuture<Optional<List<Optional<IntLikeRaster>>>> sample(final GeoView sourceView, final RasterShape outputShape, final boolean residentOnly) {
+        final ViewBounds bounds = ViewBounds.of(projection, sourceView, outputShape);
+        final Map<RasterShape, SharedPlan> plans = new HashMap<>();
+
+        final List<Request<?>> requests = new ArrayList<>(leveledSamplers.size());
+        for (final LeveledRasterSampler<? extends IntLikeRaster> leveledSampler : leveledSamplers) {
+            requests.add(request(leveledSampler, bounds, outputShape, plans, residentOnly));
+        }
+
+        final CompletableFuture<?>[] sources = requests.stream().map(Request::source).toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(sources).thenApplyAsync(unused -> {
+            final List<Optional<IntLikeRaster>> outputs = new ArrayList<>(requests.size());
+            for (final Request<?> request : requests) {
+                outputs.add(request.resample(outputShape));
+            }
+            return Optional.of(outputs);
+        }, executor);
+    }
+
+    private static <V extends IntLikeRaster> Request<V> request(final LeveledRasterSampler<V> leveledSampler, final ViewBounds bounds, final RasterShape outputShape, final Map<RasterShape, SharedPlan> plans, final boolean residentOnly) {
+        final double pixelsPerDegreeX = bounds.pixelsPerDegreeX(outputShape);
+        final double pixelsPerDegreeY = bounds.pixelsPerDegreeY(outputShape);
+        final Function<RasterSampler<V>, GeoView> mapView = level -> ResamplingPlan.create(bounds, outputShape, level.width(), level.height(), InterpolationMode::choose).mapView();
+        final Optional<RasterSampler<V>> chosen = residentOnly
+                ? leveledSampler.chooseResident(pixelsPerDegreeX, pixelsPerDegreeY, mapView)
+                : Optional.of(leveledSampler.choose(pixelsPerDegreeX, pixelsPerDegreeY));
+        if (chosen.isEmpty()) {
+            return new Request<>(null, null, CompletableFuture.completedFuture(Optional.empty()));
+        }
+
+        final RasterSampler<V> sampler = chosen.get();
+        final SharedPlan plan = plans.computeIfAbsent(
+                new RasterShape(sampler.width(), sampler.height()),
+                mapShape -> SharedPlan.create(bounds, outputShape, mapShape)
+        );
+        return new Request<>(sampler, plan, sampler.get(plan.plan().mapView()));
+    }
+
+    private record SharedPlan(ResamplingPlan<InterpolationMode> plan, SamplingTable table) {
+        static SharedPlan create(final ViewBounds bounds, final RasterShape outputShape, final RasterShape mapShape) {
+            final ResamplingPlan<InterpolationMode> plan = ResamplingPlan.create(bounds, outputShape, mapShape.width(), mapShape.height(), InterpolationMode::choose);
+            final SamplingTable table = plan.createTable(plan.resampler(), outputShape);
+            return new SharedPlan(plan, table);
+        }
+    }
+
+    // Without a sampler, nothing could be sampled for the layer and the source is always empty
+    private record Request<V extends IntLikeRaster>(@Nullable RasterSampler<V> sampler, @Nullable SharedPlan plan, CompletableFuture<Optional<V>> source) {
+        Optional<IntLikeRaster> resample(final RasterShape outputShape) {
+            if (sampler == null || plan == null) {
+                return Optional.empty();
+            }
+            return source.join().map(source -> {
+                final V output = Raster.type(source).create(outputShape);
+                plan.plan().resampler().resample(source, output, plan.table());
+                sampler.release(source);
+                return output;
+            });
+        }
+    }
+}
@@ -2,6 +2,8 @@ package dev.gegy.terrarium.backend.projection.cylindrical;
 
 import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.util.ScratchBuffers;
 import dev.gegy.terrarium.backend.util.Util;
 
 public interface InterpolationMode extends Resampler<IntLikeRaster> {
@@ -12,18 +14,26 @@ public interface InterpolationMode extends Resampler<IntLikeRaster> {
         }
 
         @Override
-        public <V extends IntLikeRaster> void resample(final V source, final V target, final float scaleX, final float scaleY, final float offsetX, final float offsetY, final int seedX, final int seedY) {
+        public <V extends IntLikeRaster> void resample(final V source, final V target, final SamplingTable table) {
+            final int[] originsX = table.originsX();
+            final int[] originsY = table.originsY();
             for (int targetY = 0; targetY < target.height(); targetY++) {
                 for (int targetX = 0; targetX < target.width(); targetX++) {
-                    final float sourceX = targetX * scaleX + offsetX;
-                    final float sourceY = targetY * scaleY + offsetY;
-                    target.putInt(targetX, targetY, source.getInt(Util.floorInt(sourceX), Util.floorInt(sourceY)));
+                    target.putInt(targetX, targetY, source.getInt(originsX[targetX], originsY[targetY]));
                 }
             }
         }
+
+        @Override
+        public <V extends IntLikeRaster> void resamplePoints(final V source, final V target, final float[] sourceXs, final float[] sourceYs, final int seedX, final int seedY) {
+            final int width = target.width();
+            for (int i = 0; i < sourceXs.length; i++) {
+                target.putInt(i % width, i / width, source.getInt(Util.floorInt(sourceXs[i]), Util.floorInt(sourceYs[i])));
+            }
+        }
     };
 
-    interface TwoPoint extends InterpolationMode {
+    interface TwoPoint extends InterpolationMode, SamplingTable.Weighting {
         @Override
         default GeoView extend(final GeoView view) {
             return new GeoView(
@@ -35,44 +45,75 @@ public interface InterpolationMode extends Resampler<IntLikeRaster> {
         }
 
         @Override
-        default <V extends IntLikeRaster> void resample(final V source, final V target, final float scaleX, final float scaleY, final float offsetX, final float offsetY, final int seedX, final int seedY) {
-            final int sourceHeight = source.height();
-            final int targetWidth = target.width();
-            final int targetHeight = target.height();
-            final float[] intermediate = new float[targetWidth * sourceHeight];
-            for (int sourceY = 0; sourceY < sourceHeight; sourceY++) {
-                for (int targetX = 0; targetX < targetWidth; targetX++) {
-                    final float sourceX = targetX * scaleX + offsetX;
-                    final int originX = Util.floorInt(sourceX);
-                    final float midX = sourceX - originX;
-                    intermediate[targetX + sourceY * targetWidth] = interpolate(
-                            source.getInt(originX, sourceY),
-                            source.getInt(originX + 1, sourceY),
-                            midX
-                    );
-                }
+        default SamplingTable createTable(final float[] sourceXs, final float[] sourceYs) {
+            return SamplingTable.create(sourceXs, sourceYs, this);
+        }
+
+        @Override
+        default <V extends IntLikeRaster> void resample(final V source, final V target, final SamplingTable table) {
+            if (ArrayInterpolation.supports(source) && ArrayInterpolation.supports(target)) {
+                ArrayInterpolation.resampleTwoPoint(source, target, table, ArrayInterpolation.VECTORIZE);
+                return;
             }
-            for (int targetY = 0; targetY < targetHeight; targetY++) {
-                final float sourceY = targetY * scaleY + offsetY;
-                final int originY = Util.floorInt(sourceY);
-                final float midY = sourceY - originY;
-                int i = originY * targetWidth;
-                for (int targetX = 0; targetX < targetWidth; targetX++) {
-                    target.putInt(targetX, targetY, Util.floorInt(interpolate(
-                            intermediate[i],
-                            intermediate[i + targetWidth],
-                            midY
-                    )));
-                    i++;
+
+            final int[] originsX = table.originsX();
+            final float[] weightsX = table.weightsX();
+            final int[] originsY = table.originsY();
+            final float[] weightsY = table.weightsY();
+            try (final ScratchBuffers scratch = ScratchBuffers.acquire()) {
+                final int sourceHeight = source.height();
+                final int targetWidth = target.width();
+                final int targetHeight = target.height();
+                final float[] intermediate = scratch.floats(targetWidth * sourceHeight);
+                for (int sourceY = 0; sourceY < sourceHeight; sourceY++) {
+                    for (int targetX = 0; targetX < targetWidth; targetX++) {
+                        final int originX = originsX[targetX];
+                        intermediate[targetX + sourceY * targetWidth] = Util.lerp(
+                                source.getInt(originX, sourceY),
+                                source.getInt(originX + 1, sourceY),
+                                weightsX[targetX]
+                        );
+                    }
                 }
+                for (int targetY = 0; targetY < targetHeight; targetY++) {
+                    final float weightY = weightsY[targetY];
+                    int i = originsY[targetY] * targetWidth;
+                    for (int targetX = 0; targetX < targetWidth; targetX++) {
+                        target.putInt(targetX, targetY, Util.floorInt(Util.lerp(
+                                intermediate[i],
+                                intermediate[i + targetWidth],
+                                weightY
+                        )));
+                        i++;
+                    }
+                }
+            }
+        }
+
+        @Override
+        default <V extends IntLikeRaster> void resamplePoints(final V source, final V target, final float[] sourceXs, final float[] sourceYs, final int seedX, final int seedY) {
+            final int width = target.width();
+            for (int i = 0; i < sourceXs.length; i++) {
+                final int originX = Util.floorInt(sourceXs[i]);
+                final int originY = Util.floorInt(sourceYs[i]);
+                final float weightX = weight(sourceXs[i] - originX);
+                final float top = Util.lerp(source.getInt(originX, originY), source.getInt(originX + 1, originY), weightX);
+                final float bottom = Util.lerp(source.getInt(originX, originY + 1), source.getInt(originX + 1, originY + 1), weightX);
+                target.putInt(i % width, i / width, Util.floorInt(Util.lerp(top, bottom, weight(sourceYs[i] - originY))));
             }
         }
 
-        float interpolate(float a, float b, float x);
+        default float interpolate(final float a, final float b, final float x) {
+            return Util.lerp(a, b, weight(x));
+        }
+
+        // How far to blend towards the second point, given how far between the two points we are sampling
+        @Override
+        float weight(float x);
     }
 
-    InterpolationMode LINEAR = (TwoPoint) Util::lerp;
-    InterpolationMode COSINE = (TwoPoint) (a, b, x) -> Util.lerp(a, b, (1.0f - (float) Math.cos(x * Math.PI)) / 2.0f);
+    InterpolationMode LINEAR = (TwoPoint) x -> x;
+    InterpolationMode COSINE = (TwoPoint) x -> (1.0f - (float) Math.cos(x * Math.PI)) / 2.0f;
 
     InterpolationMode CUBIC = new InterpolationMode() {
         @Override
@@ -86,48 +127,99 @@ public interface InterpolationMode extends Resampler<IntLikeRaster> {
         }
 
         @Override
-        public <V extends IntLikeRaster> void resample(final V source, final V target, final float scaleX, final float scaleY, final float offsetX, final float offsetY, final int seedX, final int seedY) {
-            final int sourceHeight = source.height();
-            final int targetWidth = target.width();
-            final int targetHeight = target.height();
-            final float[] intermediate = new float[targetWidth * sourceHeight];
-            for (int sourceY = 0; sourceY < sourceHeight; sourceY++) {
-                for (int targetX = 0; targetX < targetWidth; targetX++) {
-                    final float sourceX = targetX * scaleX + offsetX;
-                    final int originX = Util.floorInt(sourceX);
-                    final float midX = sourceX - originX;
-                    intermediate[targetX + sourceY * targetWidth] = interpolate(
-                            source.getInt(originX - 1, sourceY),
-                            source.getInt(originX, sourceY),
-                            source.getInt(originX + 1, sourceY),
-                            source.getInt(originX + 2, sourceY),
-                            midX
-                    );
-                }
+        public <V extends IntLikeRaster> void resample(final V source, final V target, final SamplingTable table) {
+            if (ArrayInterpolation.supports(source) && ArrayInterpolation.supports(target)) {
+                ArrayInterpolation.resampleCubic(source, target, table, ArrayInterpolation.VECTORIZE);
+                return;
             }
-            for (int targetY = 0; targetY < targetHeight; targetY++) {
-                final float sourceY = targetY * scaleY + offsetY;
-                final int originY = Util.floorInt(sourceY);
-                final float midY = sourceY - originY;
-                int i = originY * targetWidth;
-                for (int targetX = 0; targetX < targetWidth; targetX++) {
-                    target.putInt(targetX, targetY, Util.floorInt(interpolate(
-                            intermediate[i - targetWidth],
-                            intermediate[i],
-                            intermediate[i + targetWidth],
-                            intermediate[i + targetWidth * 2],
-                            midY
-                    )));
-                    i++;
+
+            final int[] originsX = table.originsX();
+            final float[] weightsX = table.weightsX();
+            final int[] originsY = table.originsY();
+            final float[] weightsY = table.weightsY();
+            try (final ScratchBuffers scratch = ScratchBuffers.acquire()) {
+                final int sourceHeight = source.height();
+                final int targetWidth = target.width();
+                final int targetHeight = target.height();
+                final float[] intermediate = scratch.floats(targetWidth * sourceHeight);
+                for (int sourceY = 0; sourceY < sourceHeight; sourceY++) {
+                    for (int targetX = 0; targetX < targetWidth; targetX++) {
+                        final int originX = originsX[targetX];
+                        intermediate[targetX + sourceY * targetWidth] = Util.cubic(
+                                source.getInt(originX - 1, sourceY),
+                                source.getInt(originX, sourceY),
+                                source.getInt(originX + 1, sourceY),
+                                source.getInt(originX + 2, sourceY),
+                                weightsX[targetX]
+                        );
+                    }
+                }
+                for (int targetY = 0; targetY < targetHeight; targetY++) {
+                    final float weightY = weightsY[targetY];
+                    int i = originsY[targetY] * targetWidth;
+                    for (int targetX = 0; targetX < targetWidth; targetX++) {
+                        target.putInt(targetX, targetY, Util.floorInt(Util.cubic(
+                                intermediate[i - targetWidth],
+                                intermediate[i],
+                                intermediate[i + targetWidth],
+                                intermediate[i + targetWidth * 2],
+                                weightY
+                        )));
+                        i++;
+                    }
                 }
             }
         }
 
-        private static float interpolate(final float a, final float b, final float c, final float d, final float x) {
-            return b + 0.5f * x * (c - a + x * (2.0f * a - 5.0f * b + 4.0f * c - d + x * (3.0f * (b - c) + d - a)));
+        @Override
+        public <V extends IntLikeRaster> void resamplePoints(final V source, final V target, final float[] sourceXs, final float[] sourceYs, final int seedX, final int seedY) {
+            final int width = target.width();
+            for (int i = 0; i < sourceXs.length; i++) {
+                final int originX = Util.floorInt(sourceXs[i]);
+                final int originY = Util.floorInt(sourceYs[i]);
+                final float weightX = sourceXs[i] - originX;
+                target.putInt(i % width, i / width, Util.floorInt(Util.cubic(
+                        cubicRow(source, originX, originY - 1, weightX),
+                        cubicRow(source, originX, originY, weightX),
+                        cubicRow(source, originX, originY + 1, weightX),
+                        cubicRow(source, originX, originY + 2, weightX),
+                        sourceYs[i] - originY
+                )));
+            }
+        }
+
+        private static float cubicRow(final IntLikeRaster source, final int originX, final int y, final float weightX) {
+            return Util.cubic(
+                    source.getInt(originX - 1, y),
+                    source.getInt(originX, y),
+                    source.getInt(originX + 1, y),
+                    source.getInt(originX + 2, y),
+                    weightX
+            );
         }
     };
 
+    // Everything about resampling that doesn't depend on the source values, so that it can be shared between layers
+    default SamplingTable createTable(final RasterShape targetShape, final float scaleX, final float scaleY, final float offsetX, final float offsetY) {
+        return createTable(SamplingTable.positions(targetShape.width(), scaleX, offsetX), SamplingTable.positions(targetShape.height(), scaleY, offsetY));
+    }
+
+    default SamplingTable createTable(final float[] sourceXs, final float[] sourceYs) {
+        return SamplingTable.create(sourceXs, sourceYs, SamplingTable.Weighting.LINEAR);
+    }
+
+    <V extends IntLikeRaster> void resample(V source, V target, SamplingTable table);
+
+    @Override
+    default <V extends IntLikeRaster> void resample(final V source, final V target, final float scaleX, final float scaleY, final float offsetX, final float offsetY, final int seedX, final int seedY) {
+        resample(source, target, createTable(target.shape(), scaleX, scaleY, offsetX, offsetY));
+    }
+
+    @Override
+    default <V extends IntLikeRaster> void resampleRows(final V source, final V target, final float scaleX, final float offsetX, final float[] sourceYs, final int seedX, final int seedY) {
+        resample(source, target, createTable(SamplingTable.positions(target.width(), scaleX, offsetX), sourceYs));
+    }
+
     static InterpolationMode choose(final double relativeScale) {
         if (relativeScale < 0.3) {
             return CUBIC;
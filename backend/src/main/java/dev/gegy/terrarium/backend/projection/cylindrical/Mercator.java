@@ -3,6 +3,7 @@ package dev.gegy.terrarium.backend.projection.cylindrical;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.earth.EarthConstants;
 
 public class Mercator implements CylindricalProjection {
@@ -12,6 +13,7 @@ public class Mercator implements CylindricalProjection {
 
     private final double metersPerBlock;
     private final int blocksX;
+    private final RowLatitudeCache rowLatitudeCache = new RowLatitudeCache(this);
 
     public Mercator(final double metersPerBlock) {
         this.metersPerBlock = metersPerBlock;
@@ -48,6 +50,11 @@ public class Mercator implements CylindricalProjection {
         return Math.toDegrees(unprojectY(blockZ / blocksX * (2.0 * Math.PI)));
     }
 
+    @Override
+    public RowLatitudes rowLatitudes(final GeoView view, final int rowCount) {
+        return rowLatitudeCache.get(view, rowCount);
+    }
+
     private static double projectY(final double lat) {
         return Math.log(Math.tan(Math.PI / 4.0 - lat / 2.0));
     }
@@ -6,5 +6,12 @@ import dev.gegy.terrarium.backend.raster.Raster;
 public interface Resampler<R extends Raster> {
     <V extends R> void resample(V source, V target, float scaleX, float scaleY, float offsetX, float offsetY, int seedX, int seedY);
 
+    // Takes the source position of every target row rather than a single scale, for when rows aren't evenly spaced
+    <V extends R> void resampleRows(V source, V target, float scaleX, float offsetX, float[] sourceYs, int seedX, int seedY);
+
+    // Takes the source position of every target pixel, in row-major order, for projections that don't map rows and
+    // columns onto the source independently
+    <V extends R> void resamplePoints(V source, V target, float[] sourceXs, float[] sourceYs, int seedX, int seedY);
+
     GeoView extend(GeoView view);
 }
@@ -0,0 +1,59 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.layer.GeoLayer;
+import dev.gegy.terrarium.backend.layer.LeveledRasterSampler;
+import dev.gegy.terrarium.backend.layer.RasterSampler;
+import dev.gegy.terrarium.backend.raster.Raster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+final class ResamplingLayer<V extends Raster> implements GeoLayer<V> {
+    private final CylindricalProjection projection;
+    private final CylindricalProjection.ResamplerFactory<V> resamplerFactory;
+    private final LeveledRasterSampler<V> leveledSampler;
+    private final Executor executor;
+
+    ResamplingLayer(final CylindricalProjection projection, final CylindricalProjection.ResamplerFactory<V> resamplerFactory, final LeveledRasterSampler<V> leveledSampler, final Executor executor) {
+        this.projection = projection;
+        this.resamplerFactory = resamplerFactory;
+        this.leveledSampler = leveledSampler;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Optional<V>> get(final GeoView sourceView, final RasterShape outputShape) {
+        final ViewBounds bounds = ViewBounds.of(projection, sourceView, outputShape);
+        final RasterSampler<V> sampler = leveledSampler.choose(bounds.pixelsPerDegreeX(outputShape), bounds.pixelsPerDegreeY(outputShape));
+        return sample(sampler, plan(bounds, outputShape, sampler), outputShape);
+    }
+
+    @Override
+    public CompletableFuture<Optional<V>> getResident(final GeoView sourceView, final RasterShape outputShape) {
+        final ViewBounds bounds = ViewBounds.of(projection, sourceView, outputShape);
+        return leveledSampler.chooseResident(
+                bounds.pixelsPerDegreeX(outputShape),
+                bounds.pixelsPerDegreeY(outputShape),
+                level -> plan(bounds, outputShape, level).mapView()
+        ).map(sampler -> sample(sampler, plan(bounds, outputShape, sampler), outputShape)).orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()));
+    }
+
+    private ResamplingPlan<Resampler<? super V>> plan(final ViewBounds bounds, final RasterShape outputShape, final RasterSampler<V> level) {
+        return ResamplingPlan.create(bounds, outputShape, level.width(), level.height(), resamplerFactory::create);
+    }
+
+    private CompletableFuture<Optional<V>> sample(final RasterSampler<V> sampler, final ResamplingPlan<Resampler<? super V>> plan, final RasterShape outputShape) {
+        return sampler.get(plan.mapView()).thenApplyAsync(
+                r -> r.map(source -> {
+                    final V output = Raster.type(source).create(outputShape);
+                    plan.resample(plan.resampler(), source, output);
+                    sampler.release(source);
+                    return output;
+                }),
+                executor
+        );
+    }
+}
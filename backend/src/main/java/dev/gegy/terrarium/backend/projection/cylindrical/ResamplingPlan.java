@@ -0,0 +1,88 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.raster.Raster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+
+import javax.annotation.Nullable;
+import java.util.function.DoubleFunction;
+
+// How to sample a view out of a map with the given dimensions, which is the same for any layers with those dimensions.
+// If rows can't be treated as evenly spaced, sourceZs holds the exact position in the map for every output row.
+record ResamplingPlan<R extends Resampler<?>>(
+        R resampler,
+        GeoView mapView,
+        float scaleX,
+        float scaleZ,
+        float offsetX,
+        float offsetZ,
+        @Nullable float[] sourceZs
+) {
+    // How far (in map pixels) rows can stray from being evenly spaced before we sample each one exactly
+    private static final double MAX_ROW_ERROR = 0.05;
+
+    static <R extends Resampler<?>> ResamplingPlan<R> create(final ViewBounds bounds, final RasterShape outputShape, final int mapWidth, final int mapHeight, final DoubleFunction<R> resamplerFactory) {
+        final double x0 = (bounds.lon0() + 180.0) / 360.0 * mapWidth;
+        final double z0 = (90.0 - bounds.lat1()) / 180.0 * mapHeight;
+        final double x1 = (bounds.lon1() + 180.0) / 360.0 * mapWidth;
+        final double z1 = (90.0 - bounds.lat0()) / 180.0 * mapHeight;
+
+        // Longitude is always linear in x for cylindrical projections, but latitude need not be in z, and then the scale
+        // differs between rows. This only becomes noticeable over large views, so we only resolve rows individually then.
+        final double outputToMapScaleX = (x1 - x0) / outputShape.width();
+        final double outputToMapScaleZ = (z1 - z0) / outputShape.height();
+
+        final R resampler = resamplerFactory.apply(Math.min(outputToMapScaleX, outputToMapScaleZ));
+
+        final GeoView mapView = resampler.extend(new GeoView(
+                (int) Math.floor(x0),
+                (int) Math.floor(z0),
+                (int) Math.floor(x1),
+                (int) Math.floor(z1)
+        ));
+        return new ResamplingPlan<>(
+                resampler,
+                mapView,
+                (float) outputToMapScaleX,
+                (float) outputToMapScaleZ,
+                (float) (x0 - mapView.x0()),
+                (float) (z0 - mapView.z0()),
+                exactRows(bounds, mapHeight, z0, outputToMapScaleZ, mapView)
+        );
+    }
+
+    @Nullable
+    private static float[] exactRows(final ViewBounds bounds, final int mapHeight, final double z0, final double scaleZ, final GeoView mapView) {
+        final double[] rowLatitudes = bounds.rowLatitudes();
+        final double[] rows = new double[rowLatitudes.length];
+        double maxError = 0.0;
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = (90.0 - rowLatitudes[row]) / 180.0 * mapHeight;
+            maxError = Math.max(maxError, Math.abs(rows[row] - (z0 + row * scaleZ)));
+        }
+        if (maxError <= MAX_ROW_ERROR) {
+            return null;
+        }
+
+        final float[] sourceZs = new float[rows.length];
+        for (int row = 0; row < rows.length; row++) {
+            sourceZs[row] = (float) (rows[row] - mapView.z0());
+        }
+        return sourceZs;
+    }
+
+    <V extends Raster> void resample(final Resampler<? super V> resampler, final V source, final V target) {
+        if (sourceZs != null) {
+            resampler.resampleRows(source, target, scaleX, offsetX, sourceZs, mapView.x0(), mapView.z0());
+        } else {
+            resampler.resample(source, target, scaleX, scaleZ, offsetX, offsetZ, mapView.x0(), mapView.z0());
+        }
+    }
+
+    SamplingTable createTable(final InterpolationMode mode, final RasterShape outputShape) {
+        if (sourceZs != null) {
+            return mode.createTable(SamplingTable.positions(outputShape.width(), scaleX, offsetX), sourceZs);
+        }
+        return mode.createTable(outputShape, scaleX, scaleZ, offsetX, offsetZ);
+    }
+}
@@ -0,0 +1,49 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.GeoView;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+
+// Every chunk along the same row of the world samples exactly the same latitudes, so projections where latitude is
+// expensive to compute can hold on to them. Split into stripes so that generation threads rarely wait on each other.
+public final class RowLatitudeCache {
+    private static final int STRIPE_COUNT = 16;
+    private static final int MAX_ENTRIES_PER_STRIPE = 256;
+    private static final int MAX_PACKED_SIZE = 0xffff;
+
+    private final CylindricalProjection projection;
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    public RowLatitudeCache(final CylindricalProjection projection) {
+        this.projection = projection;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public RowLatitudes get(final GeoView view, final int rowCount) {
+        final int height = view.height();
+        if (height > MAX_PACKED_SIZE || rowCount > MAX_PACKED_SIZE) {
+            return RowLatitudes.compute(projection, view, rowCount);
+        }
+        final long key = (long) view.z0() << 32 | (long) height << 16 | rowCount;
+        final Stripe stripe = stripes[Long.hashCode(key * 0x9e3779b97f4a7c15L) & STRIPE_COUNT - 1];
+        synchronized (stripe) {
+            final RowLatitudes cached = stripe.getAndMoveToLast(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Computed outside the lock: at worst two threads compute the same rows, which is cheaper than waiting
+        final RowLatitudes latitudes = RowLatitudes.compute(projection, view, rowCount);
+        synchronized (stripe) {
+            stripe.putAndMoveToLast(key, latitudes);
+            if (stripe.size() > MAX_ENTRIES_PER_STRIPE) {
+                stripe.removeFirst();
+            }
+        }
+        return latitudes;
+    }
+
+    private static final class Stripe extends Long2ObjectLinkedOpenHashMap<RowLatitudes> {
+    }
+}
@@ -0,0 +1,15 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.GeoView;
+
+// The latitudes at the north and south edges of a view, and the latitude sampled by every output row in between
+public record RowLatitudes(double north, double south, double[] rows) {
+    public static RowLatitudes compute(final CylindricalProjection projection, final GeoView view, final int rowCount) {
+        final double blocksPerRow = (view.z1() + 0.5 - view.z0()) / rowCount;
+        final double[] rows = new double[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            rows[row] = projection.lat(view.z0() + row * blocksPerRow);
+        }
+        return new RowLatitudes(projection.lat(view.z0()), projection.lat(view.z1() + 0.5), rows);
+    }
+}
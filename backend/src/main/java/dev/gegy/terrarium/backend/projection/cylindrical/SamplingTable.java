@@ -0,0 +1,47 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.util.Util;
+
+// The source coordinates and interpolation weights for every target column and row. These only depend on how the view
+// is being sampled, so they can be computed once and applied to every layer sampled the same way.
+public record SamplingTable(RasterShape targetShape, int[] originsX, float[] weightsX, int[] originsY, float[] weightsY) {
+    public static SamplingTable create(final RasterShape targetShape, final float scaleX, final float scaleY, final float offsetX, final float offsetY, final Weighting weighting) {
+        return create(positions(targetShape.width(), scaleX, offsetX), positions(targetShape.height(), scaleY, offsetY), weighting);
+    }
+
+    // Takes the source position of every target column and row, for when they aren't evenly spaced
+    public static SamplingTable create(final float[] sourceXs, final float[] sourceYs, final Weighting weighting) {
+        final int[] originsX = new int[sourceXs.length];
+        final float[] weightsX = new float[sourceXs.length];
+        for (int targetX = 0; targetX < sourceXs.length; targetX++) {
+            final int originX = Util.floorInt(sourceXs[targetX]);
+            originsX[targetX] = originX;
+            weightsX[targetX] = weighting.weight(sourceXs[targetX] - originX);
+        }
+
+        final int[] originsY = new int[sourceYs.length];
+        final float[] weightsY = new float[sourceYs.length];
+        for (int targetY = 0; targetY < sourceYs.length; targetY++) {
+            final int originY = Util.floorInt(sourceYs[targetY]);
+            originsY[targetY] = originY;
+            weightsY[targetY] = weighting.weight(sourceYs[targetY] - originY);
+        }
+
+        return new SamplingTable(new RasterShape(sourceXs.length, sourceYs.length), originsX, weightsX, originsY, weightsY);
+    }
+
+    public static float[] positions(final int count, final float scale, final float offset) {
+        final float[] positions = new float[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = i * scale + offset;
+        }
+        return positions;
+    }
+
+    public interface Weighting {
+        Weighting LINEAR = x -> x;
+
+        float weight(float x);
+    }
+}
@@ -0,0 +1,71 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.util.Util;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Only loaded when the jdk.incubator.vector module is present, so nothing else may reference the Vector API directly.
+// Only the vertical pass is vectorized: it reads whole contiguous rows with a single weight, while the horizontal pass
+// would need gathers, which have been seen to crash C2 on JDK 21.0.1. Fused multiply-adds would be faster, but would
+// round differently from the scalar path.
+final class VectorInterpolation {
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorInterpolation() {
+    }
+
+    static void lerpFloor(final float[] values, final int offsetA, final int offsetB, final float weight, final int[] output, final int length) {
+        final FloatVector x = FloatVector.broadcast(FLOAT_SPECIES, weight);
+        final int bound = FLOAT_SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += FLOAT_SPECIES.length()) {
+            final FloatVector a = FloatVector.fromArray(FLOAT_SPECIES, values, offsetA + i);
+            final FloatVector b = FloatVector.fromArray(FLOAT_SPECIES, values, offsetB + i);
+            floor(lerp(a, b, x)).intoArray(output, i);
+        }
+        for (; i < length; i++) {
+            output[i] = Util.floorInt(Util.lerp(values[offsetA + i], values[offsetB + i], weight));
+        }
+    }
+
+    // Samples the four rows around the one at the given offset
+    static void cubicFloor(final float[] values, final int offset, final int stride, final float weight, final int[] output, final int length) {
+        final FloatVector x = FloatVector.broadcast(FLOAT_SPECIES, weight);
+        final int bound = FLOAT_SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += FLOAT_SPECIES.length()) {
+            final int index = offset + i;
+            final FloatVector a = FloatVector.fromArray(FLOAT_SPECIES, values, index - stride);
+            final FloatVector b = FloatVector.fromArray(FLOAT_SPECIES, values, index);
+            final FloatVector c = FloatVector.fromArray(FLOAT_SPECIES, values, index + stride);
+            final FloatVector d = FloatVector.fromArray(FLOAT_SPECIES, values, index + stride * 2);
+            floor(cubic(a, b, c, d, x)).intoArray(output, i);
+        }
+        for (; i < length; i++) {
+            final int index = offset + i;
+            output[i] = Util.floorInt(Util.cubic(values[index - stride], values[index], values[index + stride], values[index + stride * 2], weight));
+        }
+    }
+
+    private static FloatVector lerp(final FloatVector a, final FloatVector b, final FloatVector x) {
+        return a.add(b.sub(a).mul(x));
+    }
+
+    // Mirrors the evaluation order of Util.cubic exactly
+    private static FloatVector cubic(final FloatVector a, final FloatVector b, final FloatVector c, final FloatVector d, final FloatVector x) {
+        final FloatVector inner = b.sub(c).mul(3.0f).add(d).sub(a);
+        final FloatVector middle = a.mul(2.0f).sub(b.mul(5.0f)).add(c.mul(4.0f)).sub(d).add(x.mul(inner));
+        final FloatVector outer = c.sub(a).add(x.mul(middle));
+        return b.add(x.mul(0.5f).mul(outer));
+    }
+
+    // The conversion truncates towards zero, so negative values with a fractional part need to be stepped down by one
+    private static IntVector floor(final FloatVector value) {
+        final IntVector truncated = (IntVector) value.convert(VectorOperators.F2I, 0);
+        final FloatVector truncatedValue = (FloatVector) truncated.convert(VectorOperators.I2F, 0);
+        return truncated.sub(1, value.lt(truncatedValue).cast(INT_SPECIES));
+    }
+}
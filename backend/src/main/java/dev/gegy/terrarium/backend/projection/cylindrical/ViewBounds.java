@@ -0,0 +1,27 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+
+// rowLatitudes holds the exact latitude sampled by every output row, which isn't necessarily evenly spaced between
+// lat1 and lat0
+record ViewBounds(double lon0, double lat0, double lon1, double lat1, double[] rowLatitudes) {
+    static ViewBounds of(final CylindricalProjection projection, final GeoView view, final RasterShape outputShape) {
+        final RowLatitudes latitudes = projection.rowLatitudes(view, outputShape.height());
+        return new ViewBounds(
+                projection.lon(view.x0()),
+                latitudes.south(),
+                projection.lon(view.x1() + 0.5),
+                latitudes.north(),
+                latitudes.rows()
+        );
+    }
+
+    double pixelsPerDegreeX(final RasterShape shape) {
+        return shape.width() / (lon1 - lon0);
+    }
+
+    double pixelsPerDegreeY(final RasterShape shape) {
+        return shape.height() / (lat1 - lat0);
+    }
+}
@@ -2,6 +2,7 @@ package dev.gegy.terrarium.backend.projection.cylindrical;
 
 import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.raster.EnumRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
 import dev.gegy.terrarium.backend.util.Util;
 
 import java.util.Random;
@@ -33,40 +34,62 @@ public class Voronoi implements Resampler<EnumRaster<?>> {
 
     @Override
     public <V extends EnumRaster<?>> void resample(final V source, final V target, final float scaleX, final float scaleY, final float offsetX, final float offsetY, final int seedX, final int seedY) {
-        resampleCap(source, target, scaleX, scaleY, offsetX, offsetY, seedX, seedY);
-    }
+        final byte[] sourceBuffer = source.buffer();
+        final byte[] targetBuffer = target.buffer();
+        if (target.width() <= source.width() && target.height() <= source.height()) {
+            resampleNearest(sourceBuffer, source.width(), targetBuffer, target.shape(), scaleX, offsetX, SamplingTable.positions(target.height(), scaleY, offsetY));
+            return;
+        }
 
-    @SuppressWarnings("unchecked")
-    private <T extends Enum<T>> void resampleCap(final EnumRaster<?> source, final EnumRaster<?> target, final float scaleX, final float scaleY, final float offsetX, final float offsetY, final int seedX, final int seedY) {
-        resample0((EnumRaster<T>) source, (EnumRaster<T>) target, scaleX, scaleY, offsetX, offsetY, seedX, seedY);
+        resampleVoronoi(sourceBuffer, source.width(), targetBuffer, target.shape(), scaleX, offsetX, SamplingTable.positions(target.height(), scaleY, offsetY), seedX & JITTER_MASK, seedY & JITTER_MASK);
     }
 
-    private <T extends Enum<T>> void resample0(final EnumRaster<T> source, final EnumRaster<T> target, final float scaleX, final float scaleY, final float offsetX, final float offsetY, final int seedX, final int seedY) {
+    @Override
+    public <V extends EnumRaster<?>> void resampleRows(final V source, final V target, final float scaleX, final float offsetX, final float[] sourceYs, final int seedX, final int seedY) {
         if (target.width() <= source.width() && target.height() <= source.height()) {
-            resampleNearest(source, target, scaleX, scaleY, offsetX, offsetY);
+            resampleNearest(source.buffer(), source.width(), target.buffer(), target.shape(), scaleX, offsetX, sourceYs);
             return;
         }
+        resampleVoronoi(source.buffer(), source.width(), target.buffer(), target.shape(), scaleX, offsetX, sourceYs, seedX & JITTER_MASK, seedY & JITTER_MASK);
+    }
+
+    @Override
+    public <V extends EnumRaster<?>> void resamplePoints(final V source, final V target, final float[] sourceXs, final float[] sourceYs, final int seedX, final int seedY) {
+        final byte[] sourceBuffer = source.buffer();
+        final byte[] targetBuffer = target.buffer();
+        final int sourceWidth = source.width();
+        final boolean nearest = target.width() <= source.width() && target.height() <= source.height();
+        for (int i = 0; i < sourceXs.length; i++) {
+            if (nearest) {
+                targetBuffer[i] = sourceBuffer[Util.floorInt(sourceXs[i]) + Util.floorInt(sourceYs[i]) * sourceWidth];
+            } else {
+                targetBuffer[i] = sourceBuffer[pick(sourceXs[i], sourceYs[i], sourceWidth, seedX & JITTER_MASK, seedY & JITTER_MASK)];
+            }
+        }
+    }
 
-        for (int targetY = 0; targetY < target.height(); targetY++) {
-            for (int targetX = 0; targetX < target.width(); targetX++) {
-                final float sourceX = targetX * scaleX + offsetX;
-                final float sourceY = targetY * scaleY + offsetY;
-                target.put(targetX, targetY, sample(source, sourceX, sourceY, seedX, seedY));
+    private static void resampleNearest(final byte[] source, final int sourceWidth, final byte[] target, final RasterShape targetShape, final float scaleX, final float offsetX, final float[] sourceYs) {
+        for (int targetY = 0; targetY < targetShape.height(); targetY++) {
+            final int sourceOffset = Util.floorInt(sourceYs[targetY]) * sourceWidth;
+            final int targetOffset = targetY * targetShape.width();
+            for (int targetX = 0; targetX < targetShape.width(); targetX++) {
+                target[targetOffset + targetX] = source[sourceOffset + Util.floorInt(targetX * scaleX + offsetX)];
             }
         }
     }
 
-    private static <T extends Enum<T>> void resampleNearest(final EnumRaster<T> source, final EnumRaster<T> target, final float scaleX, final float scaleY, final float offsetX, final float offsetY) {
-        for (int targetY = 0; targetY < target.height(); targetY++) {
-            for (int targetX = 0; targetX < target.width(); targetX++) {
+    private void resampleVoronoi(final byte[] source, final int sourceWidth, final byte[] target, final RasterShape targetShape, final float scaleX, final float offsetX, final float[] sourceYs, final int seedX, final int seedY) {
+        for (int targetY = 0; targetY < targetShape.height(); targetY++) {
+            final float sourceY = sourceYs[targetY];
+            final int targetOffset = targetY * targetShape.width();
+            for (int targetX = 0; targetX < targetShape.width(); targetX++) {
                 final float sourceX = targetX * scaleX + offsetX;
-                final float sourceY = targetY * scaleY + offsetY;
-                target.put(targetX, targetY, source.get(Util.floorInt(sourceX), Util.floorInt(sourceY)));
+                target[targetOffset + targetX] = source[pick(sourceX, sourceY, sourceWidth, seedX, seedY)];
             }
         }
     }
 
-    private <T extends Enum<T>> T sample(final EnumRaster<T> raster, final float x, final float y, final int seedX, final int seedY) {
+    private int pick(final float x, final float y, final int sourceWidth, final int seedX, final int seedY) {
         final int originX = Util.floorInt(x);
         final int originY = Util.floorInt(y);
 
@@ -90,7 +113,7 @@ public class Voronoi implements Resampler<EnumRaster<?>> {
             }
         }
 
-        return raster.get(pickedX, pickedY);
+        return pickedX + pickedY * sourceWidth;
     }
 
     private float getDistanceToCell(final float x, final float y, final int cellX, final int cellY, final int seedX, final int seedY) {
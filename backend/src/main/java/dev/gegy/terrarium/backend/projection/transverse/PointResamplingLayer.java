@@ -0,0 +1,146 @@
+package dev.gegy.terrarium.backend.projection.transverse;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.earth.EarthConstants;
+import dev.gegy.terrarium.backend.layer.GeoLayer;
+import dev.gegy.terrarium.backend.layer.LeveledRasterSampler;
+import dev.gegy.terrarium.backend.layer.RasterSampler;
+import dev.gegy.terrarium.backend.projection.Projection;
+import dev.gegy.terrarium.backend.projection.cylindrical.Resampler;
+import dev.gegy.terrarium.backend.raster.Raster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+
+// Resamples for projections where rows and columns of the view don't line up with rows and columns of the map, by
+// projecting every output pixel individually. The map area is the bounding box of all of those pixels, taken across the
+// antimeridian when that makes for a narrower box, and wrapped around the edges of the map where it runs past them.
+// The level is chosen for the real distance covered by each output pixel, since the span of longitudes says little
+// about resolution close to the poles.
+class PointResamplingLayer<V extends Raster> implements GeoLayer<V> {
+    private static final double METERS_PER_DEGREE = EarthConstants.CIRCUMFERENCE_EQUATOR / 360.0;
+
+    private final Projection projection;
+    private final DoubleFunction<Resampler<? super V>> resamplerFactory;
+    private final LeveledRasterSampler<V> leveledSampler;
+    private final Executor executor;
+
+    PointResamplingLayer(final Projection projection, final DoubleFunction<Resampler<? super V>> resamplerFactory, final LeveledRasterSampler<V> leveledSampler, final Executor executor) {
+        this.projection = projection;
+        this.resamplerFactory = resamplerFactory;
+        this.leveledSampler = leveledSampler.mapLevels(WrappingRasterSampler::new);
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Optional<V>> get(final GeoView sourceView, final RasterShape outputShape) {
+        return sample(sourceView, outputShape, false);
+    }
+
+    @Override
+    public CompletableFuture<Optional<V>> getResident(final GeoView sourceView, final RasterShape outputShape) {
+        return sample(sourceView, outputShape, true);
+    }
+
+    private CompletableFuture<Optional<V>> sample(final GeoView sourceView, final RasterShape outputShape, final boolean residentOnly) {
+        final int width = outputShape.width();
+        final int height = outputShape.height();
+        final double blocksPerPixelX = (sourceView.x1() + 0.5 - sourceView.x0()) / width;
+        final double blocksPerPixelZ = (sourceView.z1() + 0.5 - sourceView.z0()) / height;
+
+        final double[] lats = new double[outputShape.size()];
+        final double[] lons = new double[outputShape.size()];
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        // The same longitudes taken from 0 to 360, which is the narrower range for views crossing the antimeridian
+        double minEastLon = Double.POSITIVE_INFINITY;
+        double maxEastLon = Double.NEGATIVE_INFINITY;
+        for (int y = 0; y < height; y++) {
+            final double blockZ = sourceView.z0() + y * blocksPerPixelZ;
+            for (int x = 0; x < width; x++) {
+                final double blockX = sourceView.x0() + x * blocksPerPixelX;
+                final int i = outputShape.indexUnchecked(x, y);
+                final double lat = projection.lat(blockX, blockZ);
+                final double lon = wrapLon(projection.lon(blockX, blockZ));
+                final double eastLon = lon < 0.0 ? lon + 360.0 : lon;
+                lats[i] = lat;
+                lons[i] = lon;
+                minLat = Math.min(minLat, lat);
+                maxLat = Math.max(maxLat, lat);
+                minLon = Math.min(minLon, lon);
+                maxLon = Math.max(maxLon, lon);
+                minEastLon = Math.min(minEastLon, eastLon);
+                maxEastLon = Math.max(maxEastLon, eastLon);
+            }
+        }
+
+        final Extent extent;
+        if (maxEastLon - minEastLon < maxLon - minLon) {
+            // Longitudes past 180 end up past the right edge of the map, where they're wrapped back around
+            for (int i = 0; i < lons.length; i++) {
+                if (lons[i] < 0.0) {
+                    lons[i] += 360.0;
+                }
+            }
+            extent = new Extent(minLat, maxLat, minEastLon, maxEastLon);
+        } else {
+            extent = new Extent(minLat, maxLat, minLon, maxLon);
+        }
+
+        final double metersPerPixel = Math.min(blocksPerPixelX, blocksPerPixelZ) * projection.idealMetersPerBlock();
+        final double pixelsPerDegree = METERS_PER_DEGREE / metersPerPixel;
+
+        final Function<RasterSampler<V>, GeoView> levelView = level -> extent.mapView(level, resampler(pixelsPerDegree, level));
+        final Optional<RasterSampler<V>> chosen = residentOnly
+                ? leveledSampler.chooseResident(pixelsPerDegree, pixelsPerDegree, levelView)
+                : Optional.of(leveledSampler.choose(pixelsPerDegree, pixelsPerDegree));
+        if (chosen.isEmpty()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        final RasterSampler<V> sampler = chosen.get();
+        final Resampler<? super V> resampler = resampler(pixelsPerDegree, sampler);
+        final GeoView mapView = extent.mapView(sampler, resampler);
+
+        final float[] sourceXs = new float[lons.length];
+        final float[] sourceZs = new float[lats.length];
+        for (int i = 0; i < sourceXs.length; i++) {
+            sourceXs[i] = (float) ((lons[i] + 180.0) / 360.0 * sampler.width() - mapView.x0());
+            sourceZs[i] = (float) ((90.0 - lats[i]) / 180.0 * sampler.height() - mapView.z0());
+        }
+
+        return sampler.get(mapView).thenApplyAsync(
+                r -> r.map(source -> {
+                    final V output = Raster.type(source).create(outputShape);
+                    resampler.resamplePoints(source, output, sourceXs, sourceZs, mapView.x0(), mapView.z0());
+                    sampler.release(source);
+                    return output;
+                }),
+                executor
+        );
+    }
+
+    private Resampler<? super V> resampler(final double pixelsPerDegree, final RasterSampler<V> level) {
+        return resamplerFactory.apply(level.height() / 180.0 / pixelsPerDegree);
+    }
+
+    private static double wrapLon(final double lon) {
+        return lon - Math.floor((lon + 180.0) / 360.0) * 360.0;
+    }
+
+    private record Extent(double minLat, double maxLat, double minLon, double maxLon) {
+        GeoView mapView(final RasterSampler<?> level, final Resampler<?> resampler) {
+            return resampler.extend(new GeoView(
+                    (int) Math.floor((minLon + 180.0) / 360.0 * level.width()),
+                    (int) Math.floor((90.0 - maxLat) / 180.0 * level.height()),
+                    (int) Math.floor((maxLon + 180.0) / 360.0 * level.width()),
+                    (int) Math.floor((90.0 - minLat) / 180.0 * level.height())
+            ));
+        }
+    }
+}
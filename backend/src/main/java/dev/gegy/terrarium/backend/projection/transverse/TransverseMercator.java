@@ -0,0 +1,96 @@
+package dev.gegy.terrarium.backend.projection.transverse;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.gegy.terrarium.backend.earth.EarthConstants;
+import dev.gegy.terrarium.backend.layer.GeoLayer;
+import dev.gegy.terrarium.backend.layer.LeveledRasterSampler;
+import dev.gegy.terrarium.backend.projection.Projection;
+import dev.gegy.terrarium.backend.projection.cylindrical.InterpolationMode;
+import dev.gegy.terrarium.backend.projection.cylindrical.Voronoi;
+import dev.gegy.terrarium.backend.raster.EnumRaster;
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+
+import java.util.concurrent.Executor;
+
+// Spherical transverse Mercator around a chosen origin. Unlike Mercator, scale stays close to true everywhere near the
+// origin regardless of latitude, so regional worlds far from the equator don't end up requesting far more data than
+// they need. Distortion grows with distance from the origin's meridian, so this suits worlds of a few thousand km.
+public class TransverseMercator implements Projection {
+    public static final MapCodec<TransverseMercator> CODEC = RecordCodecBuilder.mapCodec(i -> i.group(
+            Codec.DOUBLE.fieldOf("meters_per_block").forGetter(p -> p.metersPerBlock),
+            Codec.DOUBLE.optionalFieldOf("origin_lat", 0.0).forGetter(p -> p.originLat),
+            Codec.DOUBLE.optionalFieldOf("origin_lon", 0.0).forGetter(p -> p.originLon)
+    ).apply(i, TransverseMercator::new));
+
+    private static final double EARTH_RADIUS = EarthConstants.CIRCUMFERENCE_EQUATOR / (2.0 * Math.PI);
+    private static final double MAX_B = 1.0 - 1.0e-12;
+
+    private final double metersPerBlock;
+    private final double originLat;
+    private final double originLon;
+
+    private final double blocksPerRadian;
+    private final double originLatRadians;
+
+    public TransverseMercator(final double metersPerBlock, final double originLat, final double originLon) {
+        this.metersPerBlock = metersPerBlock;
+        this.originLat = originLat;
+        this.originLon = originLon;
+        blocksPerRadian = EARTH_RADIUS / metersPerBlock;
+        originLatRadians = Math.toRadians(originLat);
+    }
+
+    public TransverseMercator withMetersPerBlock(final double metersPerBlock) {
+        return new TransverseMercator(metersPerBlock, originLat, originLon);
+    }
+
+    @Override
+    public Type type() {
+        return Type.TRANSVERSE_MERCATOR;
+    }
+
+    @Override
+    public float idealMetersPerBlock() {
+        return (float) metersPerBlock;
+    }
+
+    @Override
+    public double blockX(final double lat, final double lon) {
+        // Points on the equator a quarter turn from the origin's meridian are infinitely far away, so they're clamped
+        // to somewhere merely very far away instead
+        final double b = Math.clamp(Math.cos(Math.toRadians(lat)) * Math.sin(Math.toRadians(lon - originLon)), -MAX_B, MAX_B);
+        return 0.5 * Math.log((1.0 + b) / (1.0 - b)) * blocksPerRadian;
+    }
+
+    @Override
+    public double blockZ(final double lat, final double lon) {
+        final double latRadians = Math.toRadians(lat);
+        final double northing = Math.atan2(Math.tan(latRadians), Math.cos(Math.toRadians(lon - originLon))) - originLatRadians;
+        return -northing * blocksPerRadian;
+    }
+
+    @Override
+    public double lat(final double blockX, final double blockZ) {
+        final double d = -blockZ / blocksPerRadian + originLatRadians;
+        return Math.toDegrees(Math.asin(Math.sin(d) / Math.cosh(blockX / blocksPerRadian)));
+    }
+
+    @Override
+    public double lon(final double blockX, final double blockZ) {
+        final double d = -blockZ / blocksPerRadian + originLatRadians;
+        return originLon + Math.toDegrees(Math.atan2(Math.sinh(blockX / blocksPerRadian), Math.cos(d)));
+    }
+
+    @Override
+    public <V extends IntLikeRaster> GeoLayer<V> createInterpolatedLayer(final LeveledRasterSampler<V> leveledSampler, final Executor executor) {
+        return new PointResamplingLayer<>(this, InterpolationMode::choose, leveledSampler, executor);
+    }
+
+    @Override
+    public <E extends Enum<E>, V extends EnumRaster<E>> GeoLayer<V> createVoronoiLayer(final LeveledRasterSampler<V> leveledSampler, final Executor executor) {
+        final Voronoi voronoi = new Voronoi(0.45f, 2016969737595986194L);
+        return new PointResamplingLayer<>(this, scale -> voronoi, leveledSampler, executor);
+    }
+}
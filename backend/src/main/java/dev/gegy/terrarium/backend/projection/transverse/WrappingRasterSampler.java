@@ -0,0 +1,115 @@
+package dev.gegy.terrarium.backend.projection.transverse;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.layer.RasterSampler;
+import dev.gegy.terrarium.backend.raster.Raster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Lets views run past the edges of the map, as they do around the antimeridian and the poles. Columns past either side
+// wrap around from the other, while rows past either pole repeat the closest row of the map.
+final class WrappingRasterSampler<V extends Raster> implements RasterSampler<V> {
+    private final RasterSampler<V> parent;
+
+    WrappingRasterSampler(final RasterSampler<V> parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Optional<V>> get(final GeoView view) {
+        if (isWithinMap(view)) {
+            return parent.get(view);
+        }
+
+        final List<Part> parts = parts(view);
+        final CompletableFuture<Optional<V>>[] futures = new CompletableFuture[parts.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = parent.get(parts.get(i).view());
+        }
+        return CompletableFuture.allOf(futures).thenApply(unused -> {
+            final List<V> rasters = new ArrayList<>(futures.length);
+            for (final CompletableFuture<Optional<V>> future : futures) {
+                future.join().ifPresent(rasters::add);
+            }
+            if (rasters.size() < futures.length) {
+                rasters.forEach(parent::release);
+                return Optional.empty();
+            }
+
+            final V result = Raster.type(rasters.getFirst()).create(view.shape());
+            for (int i = 0; i < futures.length; i++) {
+                copyPart(result, rasters.get(i), parts.get(i));
+                parent.release(rasters.get(i));
+            }
+            return Optional.of(result);
+        });
+    }
+
+    // Shifted copies are written furthest first, so that each row past the edge of the part is last written by the copy
+    // that puts the part's closest row there, and the unshifted copy then puts every other row back in place
+    private static void copyPart(final Raster result, final Raster raster, final Part part) {
+        for (int offset = part.offsetZ(); offset > 0; offset--) {
+            result.copyFromClipped(raster, part.offsetX(), part.offsetZ() - offset);
+        }
+        final int bottomPadding = result.height() - part.offsetZ() - raster.height();
+        for (int offset = bottomPadding; offset > 0; offset--) {
+            result.copyFromClipped(raster, part.offsetX(), part.offsetZ() + offset);
+        }
+        result.copyFromClipped(raster, part.offsetX(), part.offsetZ());
+    }
+
+    @Override
+    public boolean isResident(final GeoView view) {
+        if (isWithinMap(view)) {
+            return parent.isResident(view);
+        }
+        for (final Part part : parts(view)) {
+            if (!parent.isResident(part.view())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void release(final V raster) {
+        parent.release(raster);
+    }
+
+    @Override
+    public int width() {
+        return parent.width();
+    }
+
+    @Override
+    public int height() {
+        return parent.height();
+    }
+
+    private boolean isWithinMap(final GeoView view) {
+        return view.x0() >= 0 && view.z0() >= 0 && view.x1() < parent.width() && view.z1() < parent.height();
+    }
+
+    // Splits the view into the runs of columns that lie within the map, clamping the rows to the map
+    private List<Part> parts(final GeoView view) {
+        final int width = parent.width();
+        final int z0 = Math.clamp(view.z0(), 0, parent.height() - 1);
+        final int z1 = Math.clamp(view.z1(), 0, parent.height() - 1);
+        final List<Part> parts = new ArrayList<>();
+        int x = view.x0();
+        while (x <= view.x1()) {
+            final int partX0 = Math.floorMod(x, width);
+            final int partX1 = Math.min(width - 1, partX0 + view.x1() - x);
+            parts.add(new Part(new GeoView(partX0, z0, partX1, z1), x - view.x0(), z0 - view.z0()));
+            x += partX1 - partX0 + 1;
+        }
+        return parts;
+    }
+
+    private record Part(GeoView view, int offsetX, int offsetZ) {
+    }
+}
@@ -2,6 +2,7 @@ package dev.gegy.terrarium.backend.raster;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.gegy.terrarium.backend.util.BinaryCodec;
 
 import java.util.BitSet;
 
@@ -10,7 +11,8 @@ public class BitRaster implements Raster {
             RasterShape.CODEC.forGetter(BitRaster::shape),
             RasterBufferCodecs.BIT_SET.fieldOf("data").forGetter(r -> r.buffer)
     ).apply(i, BitRaster::new));
-    public static final RasterType<BitRaster> TYPE = RasterType.create(BitRaster::create, CODEC);
+    public static final BinaryCodec<BitRaster> BINARY_CODEC = RasterBinaryCodecs.bitSet(BitRaster::new, r -> r.buffer);
+    public static final RasterType<BitRaster> TYPE = RasterType.create(BitRaster::create, CODEC, BINARY_CODEC);
 
     protected final RasterShape shape;
     protected final BitSet buffer;
@@ -49,6 +51,11 @@ public class BitRaster implements Raster {
         return shape;
     }
 
+    @Override
+    public long byteSize() {
+        return buffer.size() / Byte.SIZE;
+    }
+
     @Override
     public void copyFrom(final Raster raster) {
         if (raster instanceof final BitRaster bitRaster) {
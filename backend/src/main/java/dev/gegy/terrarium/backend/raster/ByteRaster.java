@@ -2,13 +2,17 @@ package dev.gegy.terrarium.backend.raster;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.gegy.terrarium.backend.util.BinaryCodec;
+
+import java.nio.ByteBuffer;
 
 public class ByteRaster implements IntLikeRaster {
     public static final Codec<ByteRaster> CODEC = RecordCodecBuilder.create(i -> i.group(
             RasterShape.CODEC.forGetter(ByteRaster::shape),
             RasterBufferCodecs.BYTES.fieldOf("data").forGetter(r -> r.buffer)
     ).apply(i, ByteRaster::new));
-    public static final RasterType<ByteRaster> TYPE = RasterType.create(ByteRaster::create, CODEC);
+    public static final BinaryCodec<ByteRaster> BINARY_CODEC = RasterBinaryCodecs.bytes(ByteRaster::new, r -> r.buffer);
+    public static final RasterType<ByteRaster> TYPE = RasterType.create(ByteRaster::create, CODEC, BINARY_CODEC);
 
     protected final RasterShape shape;
     protected final byte[] buffer;
@@ -40,6 +44,21 @@ public class ByteRaster implements IntLikeRaster {
         System.arraycopy(raster.buffer, 0, buffer, 0, buffer.length);
     }
 
+    // Exposes the backing array for hot loops that can't afford to go through getInt/putInt per value
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public void readFrom(final ByteBuffer input, final int x0, final int y0, final RasterShape region) {
+        for (int y = 0; y < region.height(); y++) {
+            input.get(buffer, shape.index(x0, y0 + y), region.width());
+        }
+    }
+
+    public void writeTo(final ByteBuffer output) {
+        output.put(buffer);
+    }
+
     @Override
     public RasterType<ByteRaster> type() {
         return TYPE;
@@ -50,6 +69,11 @@ public class ByteRaster implements IntLikeRaster {
         return shape;
     }
 
+    @Override
+    public long byteSize() {
+        return buffer.length;
+    }
+
     @Override
     public void copyFrom(final Raster raster) {
         if (raster instanceof final ByteRaster byteRaster) {
@@ -0,0 +1,66 @@
+package dev.gegy.terrarium.backend.raster;
+
+import java.util.List;
+
+// Reduces a square grid of equally-sized rasters into a single raster of the same size, so each output pixel covers a
+// factor * factor block of source pixels. Blocks may straddle the edges between sources, as sizes need not divide evenly.
+public interface Downsampler<V extends Raster> {
+    static <V extends IntLikeRaster> Downsampler<V> average() {
+        return (sources, factor, output) -> {
+            final RasterShape shape = output.shape();
+            final int area = factor * factor;
+            for (int y = 0; y < shape.height(); y++) {
+                for (int x = 0; x < shape.width(); x++) {
+                    long sum = 0;
+                    for (int dy = 0; dy < factor; dy++) {
+                        final int sourceY = y * factor + dy;
+                        for (int dx = 0; dx < factor; dx++) {
+                            final int sourceX = x * factor + dx;
+                            final V source = sourceAt(sources, factor, shape, sourceX, sourceY);
+                            sum += source.getInt(sourceX % shape.width(), sourceY % shape.height());
+                        }
+                    }
+                    output.putInt(x, y, (int) Math.floorDiv(sum + area / 2, area));
+                }
+            }
+        };
+    }
+
+    // Ties go to whichever value got there first, scanning each block row by row
+    static <T extends Enum<T>> Downsampler<EnumRaster<T>> majority() {
+        return (sources, factor, output) -> {
+            final RasterShape shape = output.shape();
+            final byte[] outputBuffer = output.buffer();
+            final int[] counts = new int[256];
+            final int[] seen = new int[factor * factor];
+            for (int y = 0; y < shape.height(); y++) {
+                for (int x = 0; x < shape.width(); x++) {
+                    int best = 0;
+                    int bestCount = 0;
+                    for (int i = 0; i < seen.length; i++) {
+                        final int sourceX = x * factor + i % factor;
+                        final int sourceY = y * factor + i / factor;
+                        final EnumRaster<T> source = sourceAt(sources, factor, shape, sourceX, sourceY);
+                        final int value = source.buffer()[shape.indexUnchecked(sourceX % shape.width(), sourceY % shape.height())] & 0xff;
+                        seen[i] = value;
+                        if (++counts[value] > bestCount) {
+                            best = value;
+                            bestCount = counts[value];
+                        }
+                    }
+                    for (final int value : seen) {
+                        counts[value] = 0;
+                    }
+                    outputBuffer[shape.indexUnchecked(x, y)] = (byte) best;
+                }
+            }
+        };
+    }
+
+    private static <V extends Raster> V sourceAt(final List<? extends V> sources, final int factor, final RasterShape shape, final int sourceX, final int sourceY) {
+        return sources.get(sourceX / shape.width() + sourceY / shape.height() * factor);
+    }
+
+    // Sources are row-major, factor sources wide and factor sources tall
+    void downsample(List<? extends V> sources, int factor, V output);
+}
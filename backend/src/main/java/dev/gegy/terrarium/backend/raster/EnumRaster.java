@@ -1,14 +1,22 @@
 package dev.gegy.terrarium.backend.raster;
 
+import com.google.gson.JsonElement;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
+import com.mojang.serialization.JsonOps;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.gegy.terrarium.backend.util.BinaryCodec;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class EnumRaster<T extends Enum<T>> implements Raster {
@@ -34,6 +42,11 @@ public class EnumRaster<T extends Enum<T>> implements Raster {
         return type.variants[buffer[shape.index(x, y)] & 0xff];
     }
 
+    // Exposes the backing array of ordinals, so that resampling can move values around without touching the enum
+    public byte[] buffer() {
+        return buffer;
+    }
+
     private void checkSameType(final EnumRaster<T> raster) {
         if (!type.equals(raster.type)) {
             throw new IllegalArgumentException("Enum rasters have different types: got " + raster.type + ", but expected" + type);
@@ -74,6 +87,11 @@ public class EnumRaster<T extends Enum<T>> implements Raster {
         return shape;
     }
 
+    @Override
+    public long byteSize() {
+        return buffer.length;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void copyFrom(final Raster raster) {
@@ -161,6 +179,7 @@ public class EnumRaster<T extends Enum<T>> implements Raster {
         private final T defaultValue;
         private final T[] variants;
         private final Codec<EnumRaster<T>> codec;
+        private final BinaryCodec<EnumRaster<T>> binaryCodec;
 
         public EnumRasterType(final T defaultValue, final Codec<T> valueCodec) {
             this.defaultValue = defaultValue;
@@ -176,6 +195,69 @@ public class EnumRaster<T extends Enum<T>> implements Raster {
                     },
                     raster -> Pair.of(raster.shape, PalettedBuffer.pack(enumClass, raster.buffer))
             );
+            binaryCodec = createBinaryCodec(enumClass, valueCodec);
+        }
+
+        // Like the codec, values are stored through a palette so that ordinals never end up on disk, and each value is
+        // referred to by the same key that valueCodec gives it, so that renaming a constant doesn't break stored data
+        private BinaryCodec<EnumRaster<T>> createBinaryCodec(final Class<T> enumClass, final Codec<T> valueCodec) {
+            final String[] keys = new String[variants.length];
+            final Map<String, T> lookup = new HashMap<>();
+            for (final T variant : variants) {
+                final String key = valueCodec.encodeStart(JsonOps.INSTANCE, variant).result()
+                        .filter(JsonElement::isJsonPrimitive)
+                        .map(JsonElement::getAsString)
+                        .orElseThrow(() -> new IllegalArgumentException("Cannot construct EnumRaster for " + enumClass + " as " + variant + " does not encode to a key"));
+                if (lookup.put(key, variant) != null) {
+                    throw new IllegalArgumentException("Cannot construct EnumRaster for " + enumClass + " with duplicate key " + key);
+                }
+                keys[variant.ordinal()] = key;
+            }
+
+            return new BinaryCodec<>() {
+                @Override
+                public void write(final EnumRaster<T> raster, final DataOutput output) throws IOException {
+                    RasterBinaryCodecs.writeShape(raster.shape, output);
+                    final PalettedBuffer<T> packed = PalettedBuffer.pack(enumClass, raster.buffer);
+                    BinaryCodec.writeVarInt(output, packed.palette().size());
+                    for (final T value : packed.palette()) {
+                        output.writeUTF(keys[value.ordinal()]);
+                    }
+                    if (packed.buffer().isPresent()) {
+                        output.write(packed.buffer().get());
+                    }
+                }
+
+                @Override
+                public EnumRaster<T> read(final DataInput input) throws IOException {
+                    final RasterShape shape = RasterBinaryCodecs.readShape(input);
+                    final int paletteSize = BinaryCodec.readVarInt(input);
+                    if (paletteSize < 1 || paletteSize > variants.length) {
+                        throw new IOException("Invalid palette size " + paletteSize + " for " + enumClass);
+                    }
+                    final List<T> palette = new ArrayList<>(paletteSize);
+                    for (int i = 0; i < paletteSize; i++) {
+                        final String key = input.readUTF();
+                        final T value = lookup.get(key);
+                        if (value == null) {
+                            throw new IOException("Unrecognized " + enumClass.getSimpleName() + " value: " + key);
+                        }
+                        palette.add(value);
+                    }
+                    Optional<byte[]> buffer = Optional.empty();
+                    if (paletteSize > 1) {
+                        final byte[] packedBuffer = new byte[shape.size()];
+                        input.readFully(packedBuffer);
+                        buffer = Optional.of(packedBuffer);
+                    }
+                    final DataResult<byte[]> unpacked = new PalettedBuffer<>(palette, buffer).unpack(shape.size());
+                    final Optional<byte[]> result = unpacked.result();
+                    if (result.isEmpty()) {
+                        throw new IOException(unpacked.error().map(DataResult.Error::message).orElse("Failed to unpack palette"));
+                    }
+                    return new EnumRaster<>(EnumRasterType.this, shape, result.get());
+                }
+            };
         }
 
         @Override
@@ -192,6 +274,11 @@ public class EnumRaster<T extends Enum<T>> implements Raster {
             return codec;
         }
 
+        @Override
+        public BinaryCodec<EnumRaster<T>> binaryCodec() {
+            return binaryCodec;
+        }
+
         @Override
         public boolean equals(final Object obj) {
             if (obj == this) {
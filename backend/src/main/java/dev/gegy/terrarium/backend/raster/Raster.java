@@ -5,6 +5,8 @@ public interface Raster {
 
     RasterShape shape();
 
+    long byteSize();
+
     default int width() {
         return shape().width();
     }
@@ -0,0 +1,99 @@
+package dev.gegy.terrarium.backend.raster;
+
+import dev.gegy.terrarium.backend.util.BinaryCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+public class RasterBinaryCodecs {
+    // Far beyond anything we store, but keeps a corrupted shape from allocating whatever it claims
+    private static final int MAX_SIZE = 1 << 24;
+
+    public static <T extends Raster> BinaryCodec<T> bytes(final BiFunction<RasterShape, byte[], T> factory, final Function<T, byte[]> buffer) {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(final T raster, final DataOutput output) throws IOException {
+                writeShape(raster.shape(), output);
+                output.write(buffer.apply(raster));
+            }
+
+            @Override
+            public T read(final DataInput input) throws IOException {
+                final RasterShape shape = readShape(input);
+                final byte[] bytes = new byte[shape.size()];
+                input.readFully(bytes);
+                return factory.apply(shape, bytes);
+            }
+        };
+    }
+
+    // Each value is stored as the difference from the one before it, as a varint. Neighbouring values in the rasters we
+    // store this way, like elevation, tend to be close together, so most end up as a single byte.
+    public static <T extends Raster> BinaryCodec<T> deltaShorts(final BiFunction<RasterShape, short[], T> factory, final Function<T, short[]> buffer) {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(final T raster, final DataOutput output) throws IOException {
+                writeShape(raster.shape(), output);
+                short last = 0;
+                for (final short value : buffer.apply(raster)) {
+                    BinaryCodec.writeSignedVarInt(output, value - last);
+                    last = value;
+                }
+            }
+
+            @Override
+            public T read(final DataInput input) throws IOException {
+                final RasterShape shape = readShape(input);
+                final short[] values = new short[shape.size()];
+                short last = 0;
+                for (int i = 0; i < values.length; i++) {
+                    last = (short) (last + BinaryCodec.readSignedVarInt(input));
+                    values[i] = last;
+                }
+                return factory.apply(shape, values);
+            }
+        };
+    }
+
+    public static <T extends Raster> BinaryCodec<T> bitSet(final BiFunction<RasterShape, BitSet, T> factory, final Function<T, BitSet> buffer) {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(final T raster, final DataOutput output) throws IOException {
+                writeShape(raster.shape(), output);
+                final byte[] bytes = buffer.apply(raster).toByteArray();
+                BinaryCodec.writeVarInt(output, bytes.length);
+                output.write(bytes);
+            }
+
+            @Override
+            public T read(final DataInput input) throws IOException {
+                final RasterShape shape = readShape(input);
+                final int length = BinaryCodec.readVarInt(input);
+                if (length < 0 || length > (shape.size() + Byte.SIZE - 1) / Byte.SIZE) {
+                    throw new IOException("Unexpected length " + length + " for bits of " + shape);
+                }
+                final byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                return factory.apply(shape, BitSet.valueOf(bytes));
+            }
+        };
+    }
+
+    public static void writeShape(final RasterShape shape, final DataOutput output) throws IOException {
+        BinaryCodec.writeVarInt(output, shape.width());
+        BinaryCodec.writeVarInt(output, shape.height());
+    }
+
+    public static RasterShape readShape(final DataInput input) throws IOException {
+        final int width = BinaryCodec.readVarInt(input);
+        final int height = BinaryCodec.readVarInt(input);
+        if (width < 0 || height < 0 || (long) width * height > MAX_SIZE) {
+            throw new IOException("Invalid raster shape " + width + "x" + height);
+        }
+        return new RasterShape(width, height);
+    }
+}
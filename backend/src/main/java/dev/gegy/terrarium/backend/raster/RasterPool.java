@@ -0,0 +1,45 @@
+package dev.gegy.terrarium.backend.raster;
+
+import dev.gegy.terrarium.backend.util.ScratchBuffers;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Keeps released rasters around to be handed out again for the same shape, for short-lived rasters that get created at
+// a high rate. Acquired rasters have undefined contents, so they must be entirely overwritten before being read.
+public class RasterPool<V extends Raster> {
+    private static final int MAX_RETAINED_PER_SHAPE = 32;
+    // Shapes mostly repeat, but if they don't, there's no point holding onto rasters that will never be asked for again
+    private static final int MAX_SHAPES = 16;
+
+    private final Function<RasterShape, V> factory;
+    private final Map<RasterShape, Queue<V>> pools = new ConcurrentHashMap<>();
+
+    public RasterPool(final Function<RasterShape, V> factory) {
+        this.factory = factory;
+    }
+
+    public V acquire(final RasterShape shape) {
+        final Queue<V> pool = pools.get(shape);
+        if (pool != null) {
+            final V raster = pool.poll();
+            if (raster != null) {
+                ScratchBuffers.recordReuse(raster.byteSize());
+                return raster;
+            }
+        }
+        final V raster = factory.apply(shape);
+        ScratchBuffers.recordAllocation(raster.byteSize());
+        return raster;
+    }
+
+    public void release(final V raster) {
+        if (pools.size() >= MAX_SHAPES && !pools.containsKey(raster.shape())) {
+            pools.clear();
+        }
+        pools.computeIfAbsent(raster.shape(), shape -> new ArrayBlockingQueue<>(MAX_RETAINED_PER_SHAPE)).offer(raster);
+    }
+}
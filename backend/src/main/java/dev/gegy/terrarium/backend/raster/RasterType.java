@@ -1,11 +1,12 @@
 package dev.gegy.terrarium.backend.raster;
 
 import com.mojang.serialization.Codec;
+import dev.gegy.terrarium.backend.util.BinaryCodec;
 
 import java.util.function.Function;
 
 public interface RasterType<T extends Raster> {
-    static <T extends Raster> RasterType<T> create(final Function<RasterShape, T> factory, final Codec<T> codec) {
+    static <T extends Raster> RasterType<T> create(final Function<RasterShape, T> factory, final Codec<T> codec, final BinaryCodec<T> binaryCodec) {
         return new RasterType<>() {
             @Override
             public T create(final RasterShape shape) {
@@ -16,10 +17,17 @@ public interface RasterType<T extends Raster> {
             public Codec<T> codec() {
                 return codec;
             }
+
+            @Override
+            public BinaryCodec<T> binaryCodec() {
+                return binaryCodec;
+            }
         };
     }
 
     T create(RasterShape shape);
 
     Codec<T> codec();
+
+    BinaryCodec<T> binaryCodec();
 }
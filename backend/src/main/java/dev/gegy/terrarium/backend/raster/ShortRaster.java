@@ -2,13 +2,18 @@ package dev.gegy.terrarium.backend.raster;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.gegy.terrarium.backend.util.BinaryCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
 
 public class ShortRaster implements IntLikeRaster {
     public static final Codec<ShortRaster> CODEC = RecordCodecBuilder.create(i -> i.group(
             RasterShape.CODEC.forGetter(ShortRaster::shape),
             RasterBufferCodecs.SHORTS.fieldOf("data").forGetter(r -> r.buffer)
     ).apply(i, ShortRaster::new));
-    public static final RasterType<ShortRaster> TYPE = RasterType.create(ShortRaster::create, CODEC);
+    public static final BinaryCodec<ShortRaster> BINARY_CODEC = RasterBinaryCodecs.deltaShorts(ShortRaster::new, r -> r.buffer);
+    public static final RasterType<ShortRaster> TYPE = RasterType.create(ShortRaster::create, CODEC, BINARY_CODEC);
 
     protected final RasterShape shape;
     protected final short[] buffer;
@@ -40,6 +45,24 @@ public class ShortRaster implements IntLikeRaster {
         System.arraycopy(raster.buffer, 0, buffer, 0, buffer.length);
     }
 
+    // Exposes the backing array for hot loops that can't afford to go through getInt/putInt per value
+    public short[] buffer() {
+        return buffer;
+    }
+
+    public void readFrom(final ByteBuffer input, final int x0, final int y0, final RasterShape region) {
+        final ShortBuffer values = input.asShortBuffer();
+        for (int y = 0; y < region.height(); y++) {
+            values.get(buffer, shape.index(x0, y0 + y), region.width());
+        }
+        input.position(input.position() + region.size() * Short.BYTES);
+    }
+
+    public void writeTo(final ByteBuffer output) {
+        output.asShortBuffer().put(buffer);
+        output.position(output.position() + buffer.length * Short.BYTES);
+    }
+
     @Override
     public RasterType<ShortRaster> type() {
         return TYPE;
@@ -50,6 +73,11 @@ public class ShortRaster implements IntLikeRaster {
         return shape;
     }
 
+    @Override
+    public long byteSize() {
+        return (long) buffer.length * Short.BYTES;
+    }
+
     @Override
     public void copyFrom(final Raster raster) {
         if (raster instanceof final ShortRaster shortRaster) {
@@ -2,7 +2,9 @@ package dev.gegy.terrarium.backend.raster;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.gegy.terrarium.backend.util.BinaryCodec;
 
+import java.nio.ByteBuffer;
 import java.util.function.IntFunction;
 
 public class UnsignedByteRaster implements IntLikeRaster {
@@ -10,7 +12,8 @@ public class UnsignedByteRaster implements IntLikeRaster {
             RasterShape.CODEC.forGetter(UnsignedByteRaster::shape),
             RasterBufferCodecs.BYTES.fieldOf("data").forGetter(r -> r.buffer)
     ).apply(i, UnsignedByteRaster::new));
-    public static final RasterType<UnsignedByteRaster> TYPE = RasterType.create(UnsignedByteRaster::create, CODEC);
+    public static final BinaryCodec<UnsignedByteRaster> BINARY_CODEC = RasterBinaryCodecs.bytes(UnsignedByteRaster::new, r -> r.buffer);
+    public static final RasterType<UnsignedByteRaster> TYPE = RasterType.create(UnsignedByteRaster::create, CODEC, BINARY_CODEC);
 
     protected final RasterShape shape;
     protected final byte[] buffer;
@@ -48,6 +51,21 @@ public class UnsignedByteRaster implements IntLikeRaster {
         System.arraycopy(raster.buffer, 0, buffer, 0, buffer.length);
     }
 
+    // Exposes the backing array for hot loops that can't afford to go through getInt/putInt per value
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public void readFrom(final ByteBuffer input, final int x0, final int y0, final RasterShape region) {
+        for (int y = 0; y < region.height(); y++) {
+            input.get(buffer, shape.index(x0, y0 + y), region.width());
+        }
+    }
+
+    public void writeTo(final ByteBuffer output) {
+        output.put(buffer);
+    }
+
     @Override
     public RasterType<? extends UnsignedByteRaster> type() {
         return TYPE;
@@ -58,6 +76,11 @@ public class UnsignedByteRaster implements IntLikeRaster {
         return shape;
     }
 
+    @Override
+    public long byteSize() {
+        return buffer.length;
+    }
+
     @Override
     public void copyFrom(final Raster raster) {
         if (raster instanceof final UnsignedByteRaster byteRaster) {
@@ -0,0 +1,135 @@
+package dev.gegy.terrarium.backend.raster.reader;
+
+import dev.gegy.terrarium.backend.raster.RasterShape;
+
+// Specialized versions of RasterFilter.evaluateInPlace that work directly on the backing arrays of a raster.
+// These need to produce exactly the same output as the generic path: the left neighbour is carried along as the
+// untruncated evaluated value, while the neighbours above are read back out of the array.
+final class ArrayRasterFilters {
+    private static final boolean VECTORIZE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private ArrayRasterFilters() {
+    }
+
+    static void evaluateShorts(final RasterFilter filter, final short[] buffer, final int stride, final int x0, final int y0, final RasterShape region) {
+        evaluateShorts(filter, buffer, stride, x0, y0, region, VECTORIZE);
+    }
+
+    static void evaluateShorts(final RasterFilter filter, final short[] buffer, final int stride, final int x0, final int y0, final RasterShape region, final boolean vectorize) {
+        final int width = region.width();
+        for (int y = 0; y < region.height(); y++) {
+            final int offset = (y0 + y) * stride + x0;
+            final int aboveOffset = offset - stride;
+            switch (filter) {
+                case NONE -> {
+                    return;
+                }
+                case LEFT -> {
+                    int a = 0;
+                    for (int x = 0; x < width; x++) {
+                        a = buffer[offset + x] + a;
+                        buffer[offset + x] = (short) a;
+                    }
+                }
+                case UP -> {
+                    if (y == 0) {
+                        continue;
+                    }
+                    if (vectorize) {
+                        VectorRasterFilters.addShorts(buffer, offset, aboveOffset, width);
+                    } else {
+                        for (int x = 0; x < width; x++) {
+                            buffer[offset + x] += buffer[aboveOffset + x];
+                        }
+                    }
+                }
+                case AVERAGE -> {
+                    int a = 0;
+                    for (int x = 0; x < width; x++) {
+                        final int b = y > 0 ? buffer[aboveOffset + x] : 0;
+                        a = buffer[offset + x] + (a + b) / 2;
+                        buffer[offset + x] = (short) a;
+                    }
+                }
+                case PAETH -> {
+                    int a = 0;
+                    for (int x = 0; x < width; x++) {
+                        final int b = y > 0 ? buffer[aboveOffset + x] : 0;
+                        final int c = x > 0 && y > 0 ? buffer[aboveOffset + x - 1] : 0;
+                        a = paeth(buffer[offset + x], a, b, c);
+                        buffer[offset + x] = (short) a;
+                    }
+                }
+            }
+        }
+    }
+
+    static void evaluateBytes(final RasterFilter filter, final byte[] buffer, final boolean unsigned, final int stride, final int x0, final int y0, final RasterShape region) {
+        evaluateBytes(filter, buffer, unsigned, stride, x0, y0, region, VECTORIZE);
+    }
+
+    static void evaluateBytes(final RasterFilter filter, final byte[] buffer, final boolean unsigned, final int stride, final int x0, final int y0, final RasterShape region, final boolean vectorize) {
+        final int mask = unsigned ? 0xff : 0xffffffff;
+        final int width = region.width();
+        for (int y = 0; y < region.height(); y++) {
+            final int offset = (y0 + y) * stride + x0;
+            final int aboveOffset = offset - stride;
+            switch (filter) {
+                case NONE -> {
+                    return;
+                }
+                case LEFT -> {
+                    int a = 0;
+                    for (int x = 0; x < width; x++) {
+                        a = (buffer[offset + x] & mask) + a;
+                        buffer[offset + x] = (byte) a;
+                    }
+                }
+                case UP -> {
+                    // Wrapping addition is the same regardless of signedness
+                    if (y == 0) {
+                        continue;
+                    }
+                    if (vectorize) {
+                        VectorRasterFilters.addBytes(buffer, offset, aboveOffset, width);
+                    } else {
+                        for (int x = 0; x < width; x++) {
+                            buffer[offset + x] += buffer[aboveOffset + x];
+                        }
+                    }
+                }
+                case AVERAGE -> {
+                    int a = 0;
+                    for (int x = 0; x < width; x++) {
+                        final int b = y > 0 ? buffer[aboveOffset + x] & mask : 0;
+                        a = (buffer[offset + x] & mask) + (a + b) / 2;
+                        buffer[offset + x] = (byte) a;
+                    }
+                }
+                case PAETH -> {
+                    int a = 0;
+                    for (int x = 0; x < width; x++) {
+                        final int b = y > 0 ? buffer[aboveOffset + x] & mask : 0;
+                        final int c = x > 0 && y > 0 ? buffer[aboveOffset + x - 1] & mask : 0;
+                        a = paeth(buffer[offset + x] & mask, a, b, c);
+                        buffer[offset + x] = (byte) a;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int paeth(final int x, final int a, final int b, final int c) {
+        final int p = a + b - c;
+        final int da = Math.abs(a - p);
+        final int db = Math.abs(b - p);
+        final int dc = Math.abs(c - p);
+        if (da < db && da < dc) {
+            return x + a;
+        } else if (db < dc) {
+            return x + b;
+        } else {
+            return x + c;
+        }
+    }
+}
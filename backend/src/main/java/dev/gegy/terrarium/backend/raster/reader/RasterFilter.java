@@ -1,7 +1,10 @@
 package dev.gegy.terrarium.backend.raster.reader;
 
+import dev.gegy.terrarium.backend.raster.ByteRaster;
 import dev.gegy.terrarium.backend.raster.IntLikeRaster;
 import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
 
 public enum RasterFilter {
     NONE {
@@ -11,7 +14,7 @@ public enum RasterFilter {
         }
 
         @Override
-        public <T extends IntLikeRaster> void evaluateInPlace(final T input) {
+        public <T extends IntLikeRaster> void evaluateInPlace(final T input, final int x0, final int y0, final RasterShape region) {
         }
     },
     LEFT {
@@ -52,16 +55,36 @@ public enum RasterFilter {
     public abstract int evaluate(int x, int a, int b, int c);
 
     public <T extends IntLikeRaster> void evaluateInPlace(final T input) {
-        final RasterShape shape = input.shape();
-        for (int y = 0; y < shape.height(); y++) {
+        evaluateInPlace(input, 0, 0, input.shape());
+    }
+
+    // Neighbours are only taken from within the given region, so that chunks can be filtered in place within a
+    // larger raster without seeing each other
+    public <T extends IntLikeRaster> void evaluateInPlace(final T input, final int x0, final int y0, final RasterShape region) {
+        final int stride = input.shape().width();
+        if (input instanceof final ShortRaster raster) {
+            ArrayRasterFilters.evaluateShorts(this, raster.buffer(), stride, x0, y0, region);
+        } else if (input instanceof final UnsignedByteRaster raster) {
+            ArrayRasterFilters.evaluateBytes(this, raster.buffer(), true, stride, x0, y0, region);
+        } else if (input instanceof final ByteRaster raster) {
+            ArrayRasterFilters.evaluateBytes(this, raster.buffer(), false, stride, x0, y0, region);
+        } else {
+            evaluateInPlaceGeneric(input, x0, y0, region);
+        }
+    }
+
+    public <T extends IntLikeRaster> void evaluateInPlaceGeneric(final T input, final int x0, final int y0, final RasterShape region) {
+        for (int y = 0; y < region.height(); y++) {
+            final int outputY = y0 + y;
             int lastValue = 0;
-            for (int x = 0; x < shape.width(); x++) {
-                final int value = input.getInt(x, y);
+            for (int x = 0; x < region.width(); x++) {
+                final int outputX = x0 + x;
+                final int value = input.getInt(outputX, outputY);
                 final int a = lastValue;
-                final int b = y > 0 ? input.getInt(x, y - 1) : 0;
-                final int c = x > 0 && y > 0 ? input.getInt(x - 1, y - 1) : 0;
+                final int b = y > 0 ? input.getInt(outputX, outputY - 1) : 0;
+                final int c = x > 0 && y > 0 ? input.getInt(outputX - 1, outputY - 1) : 0;
                 final int evaluatedValue = evaluate(value, a, b, c);
-                input.putInt(x, y, evaluatedValue);
+                input.putInt(outputX, outputY, evaluatedValue);
                 lastValue = evaluatedValue;
             }
         }
@@ -9,33 +9,50 @@ import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 public final class RasterFormat<T extends IntLikeRaster> {
-    public static final RasterFormat<UnsignedByteRaster> UNSIGNED_BYTE = new RasterFormat<>(UnsignedByteRaster::create, (buffer, shape) -> {
+    public static final RasterFormat<UnsignedByteRaster> UNSIGNED_BYTE = new RasterFormat<>(0, Byte.BYTES, UnsignedByteRaster::create, (buffer, shape) -> {
         final byte[] bytes = new byte[shape.size()];
         buffer.get(bytes);
         return UnsignedByteRaster.wrap(shape, bytes);
-    });
+    }, UnsignedByteRaster::readFrom, UnsignedByteRaster::writeTo);
 
-    public static final RasterFormat<ByteRaster> BYTE = new RasterFormat<>(ByteRaster::create, (buffer, shape) -> {
+    public static final RasterFormat<ByteRaster> BYTE = new RasterFormat<>(1, Byte.BYTES, ByteRaster::create, (buffer, shape) -> {
         final byte[] bytes = new byte[shape.size()];
         buffer.get(bytes);
         return ByteRaster.wrap(shape, bytes);
-    });
+    }, ByteRaster::readFrom, ByteRaster::writeTo);
 
-    public static final RasterFormat<ShortRaster> SHORT = new RasterFormat<>(ShortRaster::create, (buffer, shape) -> {
+    public static final RasterFormat<ShortRaster> SHORT = new RasterFormat<>(2, Short.BYTES, ShortRaster::create, (buffer, shape) -> {
         final short[] values = new short[shape.size()];
         buffer.asShortBuffer().get(values);
         return ShortRaster.wrap(shape, values);
-    });
+    }, ShortRaster::readFrom, ShortRaster::writeTo);
 
+    private final int id;
+    private final int bytesPerValue;
     private final Function<RasterShape, T> factory;
     private final Reader<T> reader;
+    private final RegionReader<T> regionReader;
+    private final BiConsumer<T, ByteBuffer> writer;
 
-    private RasterFormat(final Function<RasterShape, T> factory, final Reader<T> reader) {
+    private RasterFormat(final int id, final int bytesPerValue, final Function<RasterShape, T> factory, final Reader<T> reader, final RegionReader<T> regionReader, final BiConsumer<T, ByteBuffer> writer) {
+        this.id = id;
+        this.bytesPerValue = bytesPerValue;
         this.factory = factory;
         this.reader = reader;
+        this.regionReader = regionReader;
+        this.writer = writer;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public int bytesPerValue() {
+        return bytesPerValue;
     }
 
     public T create(final RasterShape shape) {
@@ -46,6 +63,14 @@ public final class RasterFormat<T extends IntLikeRaster> {
         return reader.read(buffer, shape);
     }
 
+    public void readInto(final ByteBuffer buffer, final T output, final int x0, final int y0, final RasterShape region) {
+        regionReader.read(output, buffer, x0, y0, region);
+    }
+
+    public void write(final T raster, final ByteBuffer buffer) {
+        writer.accept(raster, buffer);
+    }
+
     @Nullable
     public static RasterFormat<?> byId(final int id) {
         return switch (id) {
@@ -59,4 +84,8 @@ public final class RasterFormat<T extends IntLikeRaster> {
     interface Reader<T extends IntLikeRaster> {
         T read(ByteBuffer buffer, RasterShape shape) throws IOException;
     }
+
+    interface RegionReader<T extends IntLikeRaster> {
+        void read(T output, ByteBuffer buffer, int x0, int y0, RasterShape region);
+    }
 }
@@ -11,14 +11,17 @@ import dev.gegy.terrarium.backend.util.Util;
 import org.slf4j.Logger;
 import org.tukaani.xz.SingleXZInputStream;
 
-import javax.annotation.Nullable;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.ReadableByteChannel;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.function.IntFunction;
 
@@ -28,96 +31,146 @@ public final class RasterReader {
     private static final byte[] SIGNATURE = "TERRARIUM/RASTER".getBytes(StandardCharsets.UTF_8);
     private static final int HEADER_LENGTH = SIGNATURE.length + 1;
 
-    public static <T extends IntLikeRaster> Loader<byte[], T> loader(final RasterFormat<T> format, final Executor executor) {
-        return bytes -> CompletableFuture.supplyAsync(() -> {
+    public static <T extends IntLikeRaster> Loader<ByteBuffer, T> loader(final RasterFormat<T> format, final Executor executor) {
+        return buffer -> CompletableFuture.supplyAsync(() -> {
             try {
-                return Optional.of(read(bytes, format));
+                return parse(buffer, format);
             } catch (final IOException e) {
-                LOGGER.error("Failed to read raster of format {}", format, e);
+                throw new CompletionException(e);
+            }
+        }, executor).thenCompose(chunkedRaster -> chunkedRaster.decodeAsync(executor)).handle((raster, throwable) -> {
+            if (throwable != null) {
+                LOGGER.error("Failed to read raster of format {}", format, throwable);
                 return Optional.empty();
             }
-        }, executor);
+            return Optional.of(raster);
+        });
     }
 
-    public static <T extends Enum<T>> Loader<byte[], EnumRaster<T>> loader(final RasterType<EnumRaster<T>> type, final IntFunction<T> lookup, final Executor executor) {
+    public static <T extends Enum<T>> Loader<ByteBuffer, EnumRaster<T>> loader(final RasterType<EnumRaster<T>> type, final IntFunction<T> lookup, final Executor executor) {
         final Loader<UnsignedByteRaster, EnumRaster<T>> converter = Loader.from(raster -> raster.mapToEnum(type, lookup));
         return converter.compose(loader(RasterFormat.UNSIGNED_BYTE, executor));
     }
 
     public static <T extends IntLikeRaster> T read(final byte[] bytes, final RasterFormat<T> format) throws IOException {
-        try (final ReadableByteChannel channel = Util.asChannel(bytes)) {
-            return read(channel, format);
-        }
+        return read(ByteBuffer.wrap(bytes), format);
     }
 
-    public static <T extends IntLikeRaster> T read(final ReadableByteChannel channel, final RasterFormat<T> format) throws IOException {
-        final int version = parseHeader(channel);
+    // Chunk bodies are sliced directly out of the given buffer, so a memory-mapped tile never gets copied onto the heap
+    // before decompression
+    public static <T extends IntLikeRaster> T read(final ByteBuffer buffer, final RasterFormat<T> format) throws IOException {
+        return parse(buffer, format).decode();
+    }
+
+    private static <T extends IntLikeRaster> ChunkedRaster<T> parse(final ByteBuffer buffer, final RasterFormat<T> format) throws IOException {
+        final ByteBuffer input = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+
+        final int version = parseHeader(input);
         if (version != 0) {
             throw new IOException("Unrecognized raster version: " + version);
         }
 
-        final ByteBuffer dataHeader = ByteBuffer.allocate(Integer.BYTES * 2 + Byte.BYTES);
-        Util.readFully(channel, dataHeader);
+        checkRemaining(input, Integer.BYTES * 2 + Byte.BYTES);
+        final int width = input.getInt();
+        final int height = input.getInt();
 
-        final int width = dataHeader.getInt();
-        final int height = dataHeader.getInt();
-
-        final RasterFormat<?> dataFormat = RasterFormat.byId(dataHeader.get() & 0xff);
+        final RasterFormat<?> dataFormat = RasterFormat.byId(input.get() & 0xff);
         if (dataFormat != format) {
             throw new IOException("Expected raster of type: " + format + ", but got " + dataFormat);
         }
 
         final RasterShape shape = new RasterShape(width, height);
-        T raster = null;
-
-        final ByteBuffer chunkHeader = ByteBuffer.allocate(Integer.BYTES);
-        while (Util.tryReadFully(channel, chunkHeader.rewind())) {
-            final int chunkLength = chunkHeader.getInt();
-            final ByteBuffer chunkBody = ByteBuffer.allocate(chunkLength);
-            Util.readFully(channel, chunkBody);
-            raster = readChunk(chunkBody, raster, shape, format);
-        }
-
-        if (raster == null) {
-            return format.create(shape);
+        final List<Chunk> chunks = new ArrayList<>();
+
+        while (input.remaining() >= Integer.BYTES) {
+            final int chunkLength = input.getInt();
+            checkRemaining(input, chunkLength);
+            final ByteBuffer chunkBody = input.slice(input.position(), chunkLength);
+            input.position(input.position() + chunkLength);
+            chunks.add(parseChunk(chunkBody, shape));
         }
 
-        return raster;
+        return new ChunkedRaster<>(format, format.create(shape), chunks);
     }
 
-    private static int parseHeader(final ReadableByteChannel channel) throws IOException {
-        final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
-        Util.readFully(channel, header);
+    private static int parseHeader(final ByteBuffer input) throws IOException {
+        checkRemaining(input, HEADER_LENGTH);
 
         final byte[] signature = new byte[SIGNATURE.length];
-        header.get(signature);
+        input.get(signature);
         if (!Arrays.equals(signature, SIGNATURE)) {
             throw new IOException("Invalid signature: " + new String(signature, StandardCharsets.UTF_8));
         }
 
-        return header.get() & 0xff;
+        return input.get() & 0xff;
     }
 
-    private static <T extends IntLikeRaster> T readChunk(final ByteBuffer buffer, @Nullable T output, final RasterShape outputShape, final RasterFormat<T> format) throws IOException {
+    private static void checkRemaining(final ByteBuffer input, final int length) throws EOFException {
+        if (length < 0 || input.remaining() < length) {
+            throw new EOFException("Expected " + length + " bytes, got " + input.remaining());
+        }
+    }
+
+    private static Chunk parseChunk(final ByteBuffer buffer, final RasterShape outputShape) throws IOException {
+        checkRemaining(buffer, Integer.BYTES * 4 + Byte.BYTES);
         final int x = buffer.getInt();
         final int y = buffer.getInt();
-        final RasterShape shape = new RasterShape(buffer.getInt(), buffer.getInt());
+        final int width = buffer.getInt();
+        final int height = buffer.getInt();
         final RasterFilter filter = RasterFilter.byId(buffer.get() & 0xff);
+        if (x < 0 || y < 0 || width < 0 || height < 0 || x + width > outputShape.width() || y + height > outputShape.height()) {
+            throw new IOException("Chunk at " + x + ", " + y + " of size " + width + "x" + height + " is out of bounds of " + outputShape);
+        }
+        return new Chunk(x, y, new RasterShape(width, height), filter, buffer.slice());
+    }
 
-        final T raw;
-        try (final SingleXZInputStream input = new SingleXZInputStream(Util.asInputStream(buffer))) {
-            raw = format.read(ByteBuffer.wrap(input.readAllBytes()), shape);
+    // Chunks cover disjoint regions of the output raster, so each one can be decompressed and filtered directly into it
+    // independently of the others
+    private record ChunkedRaster<T extends IntLikeRaster>(RasterFormat<T> format, T output, List<Chunk> chunks) {
+        public T decode() throws IOException {
+            for (final Chunk chunk : chunks) {
+                chunk.decodeInto(output, format);
+            }
+            return output;
         }
-        filter.evaluateInPlace(raw);
 
-        if (x == 0 && y == 0 && shape.equals(outputShape)) {
-            return raw;
+        public CompletableFuture<T> decodeAsync(final Executor executor) {
+            if (chunks.size() <= 1) {
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return decode();
+                    } catch (final IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor);
+            }
+            final CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks.size()];
+            for (int i = 0; i < futures.length; i++) {
+                final Chunk chunk = chunks.get(i);
+                futures[i] = CompletableFuture.runAsync(() -> {
+                    try {
+                        chunk.decodeInto(output, format);
+                    } catch (final IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor);
+            }
+            return CompletableFuture.allOf(futures).thenApply(v -> output);
         }
+    }
 
-        if (output == null) {
-            output = format.create(outputShape);
+    private record Chunk(int x, int y, RasterShape shape, RasterFilter filter, ByteBuffer body) {
+        public <T extends IntLikeRaster> void decodeInto(final T output, final RasterFormat<T> format) throws IOException {
+            final int length = shape.size() * format.bytesPerValue();
+            final byte[] bytes;
+            try (final SingleXZInputStream input = new SingleXZInputStream(Util.asInputStream(body.duplicate()))) {
+                bytes = input.readNBytes(length);
+            }
+            if (bytes.length != length) {
+                throw new EOFException("Expected " + length + " decompressed bytes for chunk at " + x + ", " + y + ", got " + bytes.length);
+            }
+            format.readInto(ByteBuffer.wrap(bytes), output, x, y, shape);
+            filter.evaluateInPlace(output, x, y, shape);
         }
-        output.copyFrom(raw, x, y);
-        return output;
     }
 }
@@ -0,0 +1,41 @@
+package dev.gegy.terrarium.backend.raster.reader;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorSpecies;
+
+// Only loaded when the jdk.incubator.vector module is present, so nothing else may reference the Vector API directly.
+// Only UP can be vectorized: LEFT, AVERAGE and PAETH all depend on the value evaluated just before them in the row.
+final class VectorRasterFilters {
+    private static final VectorSpecies<Short> SHORT_SPECIES = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTE_SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private VectorRasterFilters() {
+    }
+
+    static void addShorts(final short[] buffer, final int offset, final int aboveOffset, final int length) {
+        final int bound = SHORT_SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SHORT_SPECIES.length()) {
+            final ShortVector value = ShortVector.fromArray(SHORT_SPECIES, buffer, offset + i);
+            final ShortVector above = ShortVector.fromArray(SHORT_SPECIES, buffer, aboveOffset + i);
+            value.add(above).intoArray(buffer, offset + i);
+        }
+        for (; i < length; i++) {
+            buffer[offset + i] += buffer[aboveOffset + i];
+        }
+    }
+
+    static void addBytes(final byte[] buffer, final int offset, final int aboveOffset, final int length) {
+        final int bound = BYTE_SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += BYTE_SPECIES.length()) {
+            final ByteVector value = ByteVector.fromArray(BYTE_SPECIES, buffer, offset + i);
+            final ByteVector above = ByteVector.fromArray(BYTE_SPECIES, buffer, aboveOffset + i);
+            value.add(above).intoArray(buffer, offset + i);
+        }
+        for (; i < length; i++) {
+            buffer[offset + i] += buffer[aboveOffset + i];
+        }
+    }
+}
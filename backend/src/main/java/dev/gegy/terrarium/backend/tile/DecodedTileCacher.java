@@ -0,0 +1,99 @@
+package dev.gegy.terrarium.backend.tile;
+
+import com.mojang.logging.LogUtils;
+import dev.gegy.terrarium.backend.loader.Cacher;
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.reader.RasterFormat;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Stores tiles after decompression and filtering as raw buffers, so that reloading them is a plain copy out of the
+// backing store rather than another pass through the XZ decoder
+public class DecodedTileCacher<T extends IntLikeRaster> implements Cacher<TileKey, T> {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final int MAGIC = 0x54524452;
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Integer.BYTES * 2;
+
+    private final Cacher<TileKey, ByteBuffer> store;
+    private final RasterFormat<T> format;
+
+    public DecodedTileCacher(final Cacher<TileKey, ByteBuffer> store, final RasterFormat<T> format) {
+        this.store = store;
+        this.format = format;
+    }
+
+    @Override
+    public CompletableFuture<Optional<T>> getOrLoad(final TileKey key, final Supplier<CompletableFuture<Optional<T>>> loader) {
+        return getOrLoad(key, loader, true);
+    }
+
+    private CompletableFuture<Optional<T>> getOrLoad(final TileKey key, final Supplier<CompletableFuture<Optional<T>>> loader, final boolean repair) {
+        // If we end up loading the tile ourselves, there's no need to decode it back out of the encoded form
+        final AtomicReference<T> loadedRaster = new AtomicReference<>();
+        return store.getOrLoad(key, () -> loader.get().thenApply(result -> {
+            result.ifPresent(loadedRaster::set);
+            return result.map(this::encode);
+        })).thenCompose(result -> {
+            final T raster = loadedRaster.get();
+            if (raster != null) {
+                return CompletableFuture.completedFuture(Optional.of(raster));
+            }
+            if (result.isEmpty()) {
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+            final Optional<T> decodedRaster = decode(key, result.get());
+            if (decodedRaster.isPresent()) {
+                return CompletableFuture.completedFuture(decodedRaster);
+            }
+            if (!repair) {
+                return loader.get();
+            }
+            // The stored copy is unusable, so replace it with the tile decoded afresh. This only happens once, in case
+            // the store keeps handing back something we can't read.
+            store.remove(key);
+            return getOrLoad(key, loader, false);
+        });
+    }
+
+    @Override
+    public boolean contains(final TileKey key) {
+        return store.contains(key);
+    }
+
+    private ByteBuffer encode(final T raster) {
+        final RasterShape shape = raster.shape();
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + shape.size() * format.bytesPerValue());
+        buffer.putInt(MAGIC);
+        buffer.put((byte) format.id());
+        buffer.putInt(shape.width());
+        buffer.putInt(shape.height());
+        format.write(raster, buffer);
+        return buffer.flip();
+    }
+
+    private Optional<T> decode(final TileKey key, final ByteBuffer buffer) {
+        final ByteBuffer input = buffer.duplicate();
+        try {
+            if (input.getInt() != MAGIC || (input.get() & 0xff) != format.id()) {
+                throw new IOException("Unexpected header for decoded tile");
+            }
+            final RasterShape shape = new RasterShape(input.getInt(), input.getInt());
+            if (input.remaining() != shape.size() * format.bytesPerValue()) {
+                throw new IOException("Expected " + shape.size() * format.bytesPerValue() + " bytes for " + shape + ", but got " + input.remaining());
+            }
+            return Optional.of(format.read(input, shape));
+        } catch (final IOException | BufferUnderflowException e) {
+            LOGGER.error("Failed to read decoded tile {} of format {}", key, format, e);
+            return Optional.empty();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 public class GuavaTileCache implements TileCache {
     private final Cache<Key<?>, CompletableFuture<? extends Optional<?>>> cache;
@@ -22,11 +23,20 @@ public class GuavaTileCache implements TileCache {
     @Override
     @SuppressWarnings("unchecked")
     public <V> Cacher<TileKey, V> createCacher(final TileMap<V> map) {
-        return (key, loader) -> {
-            try {
-                return (CompletableFuture<Optional<V>>) cache.get(new Key<>(map, key), loader::get);
-            } catch (final ExecutionException e) {
-                throw new RuntimeException(e);
+        return new Cacher<>() {
+            @Override
+            public CompletableFuture<Optional<V>> getOrLoad(final TileKey key, final Supplier<CompletableFuture<Optional<V>>> loader) {
+                try {
+                    return (CompletableFuture<Optional<V>>) cache.get(new Key<>(map, key), loader::get);
+                } catch (final ExecutionException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+            @Override
+            public boolean contains(final TileKey key) {
+                final CompletableFuture<? extends Optional<?>> future = cache.getIfPresent(new Key<>(map, key));
+                return future != null && future.isDone() && !future.isCompletedExceptionally();
             }
         };
     }
@@ -0,0 +1,346 @@
+package dev.gegy.terrarium.backend.tile;
+
+import com.mojang.logging.LogUtils;
+import dev.gegy.terrarium.backend.loader.Cacher;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Packs tiles into region files of REGION_SIZE x REGION_SIZE tiles, rather than keeping one file per tile.
+// Each region file is a fixed-size index followed by append-only tile data, and is read through a memory mapping.
+public class PackedTileCacher implements Cacher<TileKey, ByteBuffer>, AutoCloseable {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final int REGION_BITS = 5;
+    private static final int REGION_SIZE = 1 << REGION_BITS;
+    private static final int REGION_MASK = REGION_SIZE - 1;
+    private static final int ENTRY_COUNT = REGION_SIZE * REGION_SIZE;
+
+    private static final int MAGIC = 0x54525047;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + ENTRY_COUNT * Long.BYTES;
+
+    private static final long EMPTY_ENTRY = 0;
+
+    private final Path root;
+    private final Executor executor;
+
+    private final Map<Long, Region> regions = new ConcurrentHashMap<>();
+    private final Map<TileKey, CompletableFuture<Optional<ByteBuffer>>> pendingLoads = new ConcurrentHashMap<>();
+
+    public PackedTileCacher(final Path root, final Executor executor) {
+        this.root = root;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Optional<ByteBuffer>> getOrLoad(final TileKey key, final Supplier<CompletableFuture<Optional<ByteBuffer>>> loader) {
+        final Optional<ByteBuffer> cachedValue = getIfOpen(key);
+        if (cachedValue.isPresent()) {
+            return CompletableFuture.completedFuture(cachedValue);
+        }
+        return pendingLoads.computeIfAbsent(key, k -> _getOrLoad(k, loader));
+    }
+
+    // Only answers from the index of regions that are already open, as this is asked on the sampling path and shouldn't
+    // touch the disk. Tiles in a region that hasn't been opened yet are reported as missing until something loads from it.
+    @Override
+    public boolean contains(final TileKey key) {
+        final Region region = regions.get(regionKey(key));
+        return region != null && region.contains(entryIndex(key));
+    }
+
+    // Whether the tile is stored at all, opening its region if needed. This blocks on the disk, so should be called from
+    // the IO executor rather than anywhere that's sampling.
+    public boolean isStored(final TileKey key) {
+        if (!regions.containsKey(regionKey(key)) && !Files.exists(regionPath(key))) {
+            return false;
+        }
+        try {
+            return getOrOpenRegion(key).contains(entryIndex(key));
+        } catch (final IOException e) {
+            LOGGER.error("Failed to open packed cache region for {} at {}", key, root, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void remove(final TileKey key) {
+        try {
+            getOrOpenRegion(key).clear(entryIndex(key));
+        } catch (final IOException e) {
+            LOGGER.error("Failed to remove data tile {} from packed cache at {}", key, root, e);
+        }
+    }
+
+    private CompletableFuture<Optional<ByteBuffer>> _getOrLoad(final TileKey key, final Supplier<CompletableFuture<Optional<ByteBuffer>>> loader) {
+        return CompletableFuture.supplyAsync(() -> get(key), executor).thenComposeAsync(cachedValue -> {
+            if (cachedValue.isPresent()) {
+                pendingLoads.remove(key);
+                return CompletableFuture.completedFuture(cachedValue);
+            }
+            final CompletableFuture<Optional<ByteBuffer>> loadFuture = loader.get();
+            loadFuture.whenCompleteAsync((loadedValue, throwable) -> {
+                if (throwable == null) {
+                    put(key, loadedValue);
+                }
+                pendingLoads.remove(key);
+            }, executor);
+            return loadFuture;
+        }, executor);
+    }
+
+    // Avoids a round-trip through the executor when the region is already mapped, which is the common case once warm
+    private Optional<ByteBuffer> getIfOpen(final TileKey key) {
+        final Region region = regions.get(regionKey(key));
+        if (region == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(region.get(entryIndex(key)));
+        } catch (final IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Optional<ByteBuffer> get(final TileKey key) {
+        try {
+            final Region region = getOrOpenRegion(key);
+            return Optional.ofNullable(region.get(entryIndex(key)));
+        } catch (final IOException e) {
+            LOGGER.error("Failed to read data tile {} from packed cache at {}, dropping", key, root, e);
+            return Optional.empty();
+        }
+    }
+
+    private void put(final TileKey key, final Optional<ByteBuffer> value) {
+        try {
+            final Region region = getOrOpenRegion(key);
+            if (value.isPresent()) {
+                region.put(entryIndex(key), value.get());
+            } else {
+                region.clear(entryIndex(key));
+            }
+        } catch (final IOException e) {
+            LOGGER.error("Failed to put data tile {} into packed cache at {}, dropping", key, root, e);
+        }
+    }
+
+    private Region getOrOpenRegion(final TileKey key) throws IOException {
+        try {
+            return regions.computeIfAbsent(regionKey(key), regionKey -> {
+                try {
+                    return Region.open(regionPath(key));
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Path regionPath(final TileKey key) {
+        final int regionX = key.x() >> REGION_BITS;
+        final int regionY = key.y() >> REGION_BITS;
+        return root.resolve("r." + regionX + "." + regionY + ".tiles");
+    }
+
+    private static long regionKey(final TileKey key) {
+        final long regionX = key.x() >> REGION_BITS;
+        final long regionY = key.y() >> REGION_BITS;
+        return (regionX & 0xffffffffL) | regionY << 32;
+    }
+
+    private static int entryIndex(final TileKey key) {
+        return (key.x() & REGION_MASK) | (key.y() & REGION_MASK) << REGION_BITS;
+    }
+
+    @Override
+    public void close() {
+        for (final Region region : regions.values()) {
+            region.close();
+        }
+        regions.clear();
+    }
+
+    private static final class Region {
+        // Offsets are stored as ints, so a single region needs to stay within what can be mapped in one go
+        private static final long MAX_SIZE = Integer.MAX_VALUE;
+
+        private final Path path;
+        private final FileChannel channel;
+        // Packed as (offset << 32 | length), so that a lookup is a single atomic read
+        private final AtomicLongArray entries;
+
+        @Nullable
+        private volatile MappedByteBuffer mapping;
+        private long end;
+
+        private Region(final Path path, final FileChannel channel, final AtomicLongArray entries, final long end) {
+            this.path = path;
+            this.channel = channel;
+            this.entries = entries;
+            this.end = end;
+        }
+
+        public static Region open(final Path path) throws IOException {
+            Files.createDirectories(path.getParent());
+            final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                final AtomicLongArray entries = new AtomicLongArray(ENTRY_COUNT);
+                if (channel.size() < HEADER_SIZE || !readHeader(channel, entries)) {
+                    if (channel.size() > 0) {
+                        LOGGER.warn("Packed tile region at {} was invalid, discarding", path);
+                    }
+                    writeEmptyHeader(channel);
+                    for (int i = 0; i < ENTRY_COUNT; i++) {
+                        entries.set(i, EMPTY_ENTRY);
+                    }
+                }
+                return new Region(path, channel, entries, channel.size());
+            } catch (final IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private static boolean readHeader(final FileChannel channel, final AtomicLongArray entries) throws IOException {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return false;
+            }
+            final long size = channel.size();
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                final long entry = header.getLong();
+                if (entry != EMPTY_ENTRY && entryOffset(entry) + entryLength(entry) > size) {
+                    // Data was never fully written out, so we have to treat it as missing
+                    entries.set(i, EMPTY_ENTRY);
+                } else {
+                    entries.set(i, entry);
+                }
+            }
+            return true;
+        }
+
+        private static void writeEmptyHeader(final FileChannel channel) throws IOException {
+            channel.truncate(0);
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION);
+            header.position(HEADER_SIZE).flip();
+            writeFully(channel, header, 0);
+        }
+
+        public boolean contains(final int index) {
+            return entries.get(index) != EMPTY_ENTRY;
+        }
+
+        @Nullable
+        public ByteBuffer get(final int index) throws IOException {
+            final long entry = entries.get(index);
+            if (entry == EMPTY_ENTRY) {
+                return null;
+            }
+            final int offset = entryOffset(entry);
+            final int length = entryLength(entry);
+            MappedByteBuffer mapping = this.mapping;
+            if (mapping == null || offset + length > mapping.capacity()) {
+                mapping = remap(offset + length);
+            }
+            return mapping.slice(offset, length).asReadOnlyBuffer();
+        }
+
+        private synchronized MappedByteBuffer remap(final long requiredSize) throws IOException {
+            final MappedByteBuffer mapping = this.mapping;
+            if (mapping != null && requiredSize <= mapping.capacity()) {
+                return mapping;
+            }
+            final MappedByteBuffer newMapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+            this.mapping = newMapping;
+            return newMapping;
+        }
+
+        public synchronized void put(final int index, final ByteBuffer value) throws IOException {
+            final int length = value.remaining();
+            final long offset = end;
+            if (offset + length > MAX_SIZE) {
+                throw new IOException("Packed tile region at " + path + " is full");
+            }
+
+            writeFully(channel, value.duplicate(), offset);
+            // Make sure the data is persisted before the index points at it
+            channel.force(false);
+            end = offset + length;
+
+            writeEntry(index, packEntry((int) offset, length));
+        }
+
+        public synchronized void clear(final int index) throws IOException {
+            if (entries.get(index) != EMPTY_ENTRY) {
+                writeEntry(index, EMPTY_ENTRY);
+            }
+        }
+
+        private void writeEntry(final int index, final long entry) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            buffer.putLong(entry).flip();
+            writeFully(channel, buffer, Integer.BYTES * 2 + (long) index * Long.BYTES);
+            entries.set(index, entry);
+        }
+
+        public void close() {
+            try {
+                channel.close();
+            } catch (final IOException e) {
+                LOGGER.warn("Failed to close packed tile region at {}", path, e);
+            }
+        }
+
+        private static long packEntry(final int offset, final int length) {
+            return (long) offset << 32 | (length & 0xffffffffL);
+        }
+
+        private static int entryOffset(final long entry) {
+            return (int) (entry >>> 32);
+        }
+
+        private static int entryLength(final long entry) {
+            return (int) entry;
+        }
+
+        private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+            long readPosition = position;
+            while (buffer.hasRemaining()) {
+                final int count = channel.read(buffer, readPosition);
+                if (count < 0) {
+                    throw new IOException("Unexpected end of packed tile region");
+                }
+                readPosition += count;
+            }
+        }
+
+        private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+            long writePosition = position;
+            while (buffer.hasRemaining()) {
+                writePosition += channel.write(buffer, writePosition);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package dev.gegy.terrarium.backend.tile;
+
+import dev.gegy.terrarium.backend.loader.Loader;
+import dev.gegy.terrarium.backend.raster.Downsampler;
+import dev.gegy.terrarium.backend.raster.Raster;
+import dev.gegy.terrarium.backend.raster.RasterType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Builds tiles of a coarse level out of the finer level below it, when all the tiles it covers there are already
+// cached, rather than fetching the coarse tile separately. Anything else still goes through the source loader, as does
+// a tile that the source can serve from its own cache.
+// The finer map may itself be built from a pyramid, so a zoomed-out view can be assembled from whatever detailed tiles
+// have been fetched, as long as they cover it completely.
+public class PyramidLoader<V extends Raster> implements Loader<TileKey, V> {
+    private final Loader<TileKey, V> source;
+    private final TileMap<V> finer;
+    private final int factor;
+    private final RasterType<V> rasterType;
+    private final Downsampler<V> downsampler;
+    private final Executor executor;
+
+    public PyramidLoader(final Loader<TileKey, V> source, final TileMap<V> finer, final int factor, final RasterType<V> rasterType, final Downsampler<V> downsampler, final Executor executor) {
+        this.source = source;
+        this.finer = finer;
+        this.factor = factor;
+        this.rasterType = rasterType;
+        this.downsampler = downsampler;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Optional<V>> load(final TileKey key) {
+        if (source.isCached(key) || !isDerivable(key)) {
+            return source.load(key);
+        }
+
+        final List<CompletableFuture<Optional<V>>> futures = new ArrayList<>(factor * factor);
+        for (final TileKey child : children(key)) {
+            futures.add(finer.load(child));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenComposeAsync(unused -> {
+            final List<V> children = new ArrayList<>(futures.size());
+            for (final CompletableFuture<Optional<V>> future : futures) {
+                final Optional<V> child = future.join();
+                if (child.isEmpty()) {
+                    // Got evicted or failed to decode in the meantime
+                    return source.load(key);
+                }
+                children.add(child.get());
+            }
+            final V output = rasterType.create(finer.tileShape());
+            downsampler.downsample(children, factor, output);
+            return CompletableFuture.completedFuture(Optional.of(output));
+        }, executor);
+    }
+
+    @Override
+    public boolean isCached(final TileKey key) {
+        return source.isCached(key) || isDerivable(key);
+    }
+
+    private boolean isDerivable(final TileKey key) {
+        for (final TileKey child : children(key)) {
+            if (!finer.isCached(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<TileKey> children(final TileKey key) {
+        final List<TileKey> children = new ArrayList<>(factor * factor);
+        for (int y = 0; y < factor; y++) {
+            for (int x = 0; x < factor; x++) {
+                children.add(new TileKey(key.x() * factor + x, key.y() * factor + y));
+            }
+        }
+        return children;
+    }
+}
@@ -48,6 +48,11 @@ public class TileMap<V> implements Loader<TileKey, V> {
         return CompletableFuture.completedFuture(Optional.empty());
     }
 
+    @Override
+    public boolean isCached(final TileKey key) {
+        return !contains(key.x(), key.y()) || loader.isCached(key);
+    }
+
     @Override
     public TileMap<V> cached(final Cacher<TileKey, V> cacher) {
         return new TileMap<>(countX, countY, tileShape, Loader.super.cached(cacher));
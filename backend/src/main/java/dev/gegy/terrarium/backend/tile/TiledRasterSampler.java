@@ -3,22 +3,57 @@ package dev.gegy.terrarium.backend.tile;
 import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.layer.RasterSampler;
 import dev.gegy.terrarium.backend.raster.Raster;
+import dev.gegy.terrarium.backend.raster.RasterPool;
 import dev.gegy.terrarium.backend.raster.RasterShape;
 import dev.gegy.terrarium.backend.raster.RasterType;
 
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class TiledRasterSampler<V extends Raster> implements RasterSampler<V> {
+    // How much weight the latest batch gets when tracking the direction requests are moving in
+    private static final double MOVEMENT_SMOOTHING = 0.25;
+    // Movement is tracked in tiles, so that this means the same at every level. Anything slower than 1/64th of a tile per
+    // batch is mostly noise from generation order.
+    private static final double MOVEMENT_THRESHOLD = 1.0 / 64.0;
+
     private final TileMap<V> map;
     private final RasterType<V> rasterType;
     private final Executor executor;
+    private final Batching batching;
+    private final Executor batchExecutor;
+    private final RasterPool<V> rasterPool;
+
+    private final Object batchLock = new Object();
+    @Nullable
+    private List<Request<V>> pendingBatch;
+
+    private double lastCenterX = Double.NaN;
+    private double lastCenterZ = Double.NaN;
+    private double movementX;
+    private double movementZ;
 
     public TiledRasterSampler(final TileMap<V> map, final RasterType<V> rasterType, final Executor executor) {
+        this(map, rasterType, executor, Batching.DISABLED);
+    }
+
+    public TiledRasterSampler(final TileMap<V> map, final RasterType<V> rasterType, final Executor executor, final Batching batching) {
         this.map = map;
         this.rasterType = rasterType;
         this.executor = executor;
+        this.batching = batching;
+        batchExecutor = CompletableFuture.delayedExecutor(batching.window().toNanos(), TimeUnit.NANOSECONDS, executor);
+        rasterPool = new RasterPool<>(rasterType::create);
     }
 
     @Override
@@ -29,22 +64,162 @@ public class TiledRasterSampler<V extends Raster> implements RasterSampler<V> {
             return CompletableFuture.completedFuture(Optional.empty());
         }
 
+        if (!batching.enabled()) {
+            return assemble(view, tileView, loadTiles(tileView, map::load));
+        }
+
+        final Request<V> request = new Request<>(view, tileView, new CompletableFuture<>());
+        synchronized (batchLock) {
+            if (pendingBatch == null) {
+                pendingBatch = new ArrayList<>();
+                batchExecutor.execute(this::flushBatch);
+            }
+            pendingBatch.add(request);
+        }
+        return request.result();
+    }
+
+    @Override
+    public boolean isResident(final GeoView view) {
+        final GeoView tileView = view.floorDiv(map.tileShape());
+        for (int tileZ = tileView.z0(); tileZ <= tileView.z1(); tileZ++) {
+            for (int tileX = tileView.x0(); tileX <= tileView.x1(); tileX++) {
+                if (!map.isCached(new TileKey(tileX, tileZ))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void flushBatch() {
+        final List<Request<V>> batch;
+        synchronized (batchLock) {
+            batch = pendingBatch;
+            pendingBatch = null;
+        }
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Every tile needed by the batch is only requested once, and shared between all the views that overlap it
+            final Map<TileKey, CompletableFuture<Optional<V>>> tiles = new HashMap<>();
+            final Function<TileKey, CompletableFuture<Optional<V>>> loader = key -> tiles.computeIfAbsent(key, map::load);
+            final List<CompletableFuture<Optional<V>>[]> requestTiles = new ArrayList<>(batch.size());
+            for (final Request<V> request : batch) {
+                requestTiles.add(loadTiles(request.tileView(), loader));
+            }
+            // Prefetch only after the requested tiles have been asked for, but before any request completes
+            if (batching.prefetchDistance() > 0) {
+                prefetch(batch, tiles.keySet());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                final Request<V> request = batch.get(i);
+                assemble(request.view(), request.tileView(), requestTiles.get(i)).whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        request.result().completeExceptionally(throwable);
+                    } else {
+                        request.result().complete(result);
+                    }
+                });
+            }
+        } catch (final Throwable t) {
+            for (final Request<V> request : batch) {
+                request.result().completeExceptionally(t);
+            }
+        }
+    }
+
+    // Warms the tiles just ahead of the direction that requests have been moving in, so that they're already resident
+    // by the time anything actually asks for them
+    private void prefetch(final List<Request<V>> batch, final Set<TileKey> requestedTiles) {
+        final RasterShape tileShape = map.tileShape();
+        final GeoView bounds = unionBounds(batch);
+        final double centerX = (bounds.x0() + bounds.x1()) / 2.0 / tileShape.width();
+        final double centerZ = (bounds.z0() + bounds.z1()) / 2.0 / tileShape.height();
+
+        final int directionX;
+        final int directionZ;
+        synchronized (batchLock) {
+            if (!Double.isNaN(lastCenterX)) {
+                movementX += (centerX - lastCenterX - movementX) * MOVEMENT_SMOOTHING;
+                movementZ += (centerZ - lastCenterZ - movementZ) * MOVEMENT_SMOOTHING;
+            }
+            lastCenterX = centerX;
+            lastCenterZ = centerZ;
+            directionX = movementDirection(movementX);
+            directionZ = movementDirection(movementZ);
+        }
+        if (directionX == 0 && directionZ == 0) {
+            return;
+        }
+
+        final GeoView tileBounds = bounds.floorDiv(tileShape);
+        for (int step = 1; step <= batching.prefetchDistance(); step++) {
+            final int offsetX = directionX * step;
+            final int offsetZ = directionZ * step;
+            for (int tileZ = tileBounds.z0(); tileZ <= tileBounds.z1(); tileZ++) {
+                for (int tileX = tileBounds.x0(); tileX <= tileBounds.x1(); tileX++) {
+                    final TileKey key = new TileKey(tileX + offsetX, tileZ + offsetZ);
+                    if (!requestedTiles.contains(key) && map.contains(key.x(), key.y())) {
+                        map.load(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int movementDirection(final double movement) {
+        if (movement > MOVEMENT_THRESHOLD) {
+            return 1;
+        } else if (movement < -MOVEMENT_THRESHOLD) {
+            return -1;
+        }
+        return 0;
+    }
+
+    private static GeoView unionBounds(final List<? extends Request<?>> batch) {
+        int x0 = Integer.MAX_VALUE;
+        int z0 = Integer.MAX_VALUE;
+        int x1 = Integer.MIN_VALUE;
+        int z1 = Integer.MIN_VALUE;
+        for (final Request<?> request : batch) {
+            final GeoView view = request.view();
+            x0 = Math.min(x0, view.x0());
+            z0 = Math.min(z0, view.z0());
+            x1 = Math.max(x1, view.x1());
+            z1 = Math.max(z1, view.z1());
+        }
+        return new GeoView(x0, z0, x1, z1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Optional<V>>[] loadTiles(final GeoView tileView, final Function<TileKey, CompletableFuture<Optional<V>>> loader) {
         final int tileCountX = tileView.width();
         final int tileCountZ = tileView.height();
         final CompletableFuture<Optional<V>>[] futures = new CompletableFuture[tileCountX * tileCountZ];
         for (int tileZ = 0; tileZ < tileCountZ; tileZ++) {
             for (int tileX = 0; tileX < tileCountX; tileX++) {
                 final TileKey key = new TileKey(tileX + tileView.x0(), tileZ + tileView.z0());
-                futures[tileX + tileZ * tileCountX] = map.load(key);
+                futures[tileX + tileZ * tileCountX] = loader.apply(key);
             }
         }
+        return futures;
+    }
 
+    private CompletableFuture<Optional<V>> assemble(final GeoView view, final GeoView tileView, final CompletableFuture<Optional<V>>[] futures) {
+        final RasterShape tileShape = map.tileShape();
+        final int tileCountX = tileView.width();
+        final int tileCountZ = tileView.height();
         return CompletableFuture.allOf(futures).thenApplyAsync(unused -> {
-            final V result = rasterType.create(view.shape());
+            // Tiles always cover the full view, so every value of a reused raster gets overwritten
+            final V result = rasterPool.acquire(view.shape());
             for (int tileZ = 0; tileZ < tileCountZ; tileZ++) {
                 for (int tileX = 0; tileX < tileCountX; tileX++) {
                     final Optional<V> raster = futures[tileX + tileZ * tileCountX].join();
                     if (raster.isEmpty()) {
+                        rasterPool.release(result);
                         return Optional.empty();
                     }
                     final int absoluteTileX = (tileX + tileView.x0()) * tileShape.width();
@@ -56,6 +231,11 @@ public class TiledRasterSampler<V extends Raster> implements RasterSampler<V> {
         }, executor);
     }
 
+    @Override
+    public void release(final V raster) {
+        rasterPool.release(raster);
+    }
+
     @Override
     public int width() {
         return map.width();
@@ -65,4 +245,17 @@ public class TiledRasterSampler<V extends Raster> implements RasterSampler<V> {
     public int height() {
         return map.height();
     }
+
+    // When enabled, requests arriving within the window are resolved together. A positive prefetchDistance additionally
+    // loads that many rings of tiles ahead of the direction requests have been moving in.
+    public record Batching(Duration window, int prefetchDistance) {
+        public static final Batching DISABLED = new Batching(Duration.ZERO, 0);
+
+        public boolean enabled() {
+            return window.isPositive();
+        }
+    }
+
+    private record Request<V>(GeoView view, GeoView tileView, CompletableFuture<Optional<V>> result) {
+    }
 }
@@ -0,0 +1,129 @@
+package dev.gegy.terrarium.backend.tile;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import dev.gegy.terrarium.backend.loader.Cacher;
+import dev.gegy.terrarium.backend.raster.Raster;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Bounds the cache by the size of the resident raster buffers rather than by the number of tiles, so that large
+// elevation tiles and small byte tiles are accounted for fairly
+public class WeightedTileCache implements TileCache {
+    private final Cache<Key<?>, Entry> cache;
+    private final AtomicLong residentBytes = new AtomicLong();
+    // Any read through the cache, even through its map view, counts as an access and extends expiry, so residency is
+    // tracked on the side for lookups that shouldn't keep tiles alive
+    private final Map<Key<?>, Entry> residentEntries = new ConcurrentHashMap<>();
+
+    public WeightedTileCache(final Duration expiryTime, final long maximumBytes) {
+        cache = CacheBuilder.newBuilder()
+                .expireAfterAccess(expiryTime)
+                .maximumWeight(maximumBytes)
+                .weigher((Key<?> key, Entry entry) -> entry.weight)
+                .removalListener(this::onRemoved)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public <V> Cacher<TileKey, V> createCacher(final TileMap<V> map) {
+        return new Cacher<>() {
+            @Override
+            public CompletableFuture<Optional<V>> getOrLoad(final TileKey tile, final Supplier<CompletableFuture<Optional<V>>> loader) {
+                final Key<V> key = new Key<>(map, tile);
+                final Entry entry;
+                try {
+                    entry = cache.get(key, () -> new Entry(loader.get(), 0, true));
+                } catch (final ExecutionException e) {
+                    throw new RuntimeException(e);
+                }
+                // We can only know the real weight once the tile has loaded, so replace the pending entry when it does.
+                // A failed load is dropped instead, so that it gets retried rather than sitting in the cache for good.
+                if (entry.pending && entry.weighScheduled.compareAndSet(false, true)) {
+                    entry.future.whenComplete((result, throwable) -> {
+                        if (throwable != null) {
+                            cache.asMap().remove(key, entry);
+                        } else {
+                            settle(key, entry, result);
+                        }
+                    });
+                }
+                return entry.<V>future();
+            }
+
+            @Override
+            public boolean contains(final TileKey tile) {
+                return residentEntries.containsKey(new Key<>(map, tile));
+            }
+        };
+    }
+
+    private void settle(final Key<?> key, final Entry entry, final Optional<?> result) {
+        final long byteSize = result.map(WeightedTileCache::byteSize).orElse(0L);
+        final Entry settledEntry = new Entry(entry.future, (int) Math.min(byteSize, Integer.MAX_VALUE), false);
+        if (cache.asMap().replace(key, entry, settledEntry)) {
+            residentBytes.addAndGet(settledEntry.weight);
+            residentEntries.put(key, settledEntry);
+        }
+    }
+
+    private void onRemoved(final RemovalNotification<Key<?>, Entry> notification) {
+        final Entry entry = notification.getValue();
+        if (entry != null) {
+            residentBytes.addAndGet(-entry.weight);
+            // Notifications can arrive late, so only forget the key if it still refers to this entry
+            residentEntries.remove(notification.getKey(), entry);
+        }
+    }
+
+    private static long byteSize(final Object value) {
+        if (value instanceof final Raster raster) {
+            return raster.byteSize();
+        }
+        return 0;
+    }
+
+    public Stats stats() {
+        final CacheStats stats = cache.stats();
+        return new Stats(stats.hitCount(), stats.missCount(), stats.evictionCount(), residentBytes.get(), cache.size());
+    }
+
+    public record Stats(long hitCount, long missCount, long evictionCount, long residentBytes, long residentTiles) {
+        public double hitRate() {
+            final long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<? extends Optional<?>> future;
+        private final int weight;
+        private final boolean pending;
+        private final AtomicBoolean weighScheduled = new AtomicBoolean();
+
+        private Entry(final CompletableFuture<? extends Optional<?>> future, final int weight, final boolean pending) {
+            this.future = future;
+            this.weight = weight;
+            this.pending = pending;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <V> CompletableFuture<Optional<V>> future() {
+            return (CompletableFuture<Optional<V>>) future;
+        }
+    }
+
+    private record Key<V>(TileMap<V> map, TileKey tile) {
+    }
+}
@@ -0,0 +1,65 @@
+package dev.gegy.terrarium.backend.util;
+
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Measures how quickly the JVM is allocating, alongside how much of the scratch space asked for by hot paths was served
+// by reusing buffers, so that the effect of pooling can be checked under load
+public class AllocationMonitor {
+    private static final long MIN_SAMPLE_INTERVAL_NANOS = 1_000_000_000L;
+
+    @Nullable
+    private static final com.sun.management.ThreadMXBean THREADS = findThreadBean();
+
+    private long lastTime = System.nanoTime();
+    private long lastHeapBytes = heapAllocatedBytes();
+    private ScratchBuffers.Stats lastStats = ScratchBuffers.stats();
+    private Rate rate = Rate.ZERO;
+
+    @Nullable
+    private static com.sun.management.ThreadMXBean findThreadBean() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof final com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+            return threads;
+        }
+        return null;
+    }
+
+    private static long heapAllocatedBytes() {
+        return THREADS != null ? THREADS.getTotalThreadAllocatedBytes() : -1;
+    }
+
+    // Rates are averaged over at least a second, so this can be polled every frame without becoming noisy
+    public synchronized Rate sample() {
+        final long time = System.nanoTime();
+        final long elapsed = time - lastTime;
+        if (elapsed < MIN_SAMPLE_INTERVAL_NANOS) {
+            return rate;
+        }
+
+        final double seconds = elapsed / 1.0e9;
+        final long heapBytes = heapAllocatedBytes();
+        final ScratchBuffers.Stats stats = ScratchBuffers.stats();
+        rate = new Rate(
+                heapBytes >= 0 && lastHeapBytes >= 0 ? (heapBytes - lastHeapBytes) / seconds : -1.0,
+                (stats.allocatedBytes() - lastStats.allocatedBytes()) / seconds,
+                (stats.reusedBytes() - lastStats.reusedBytes()) / seconds
+        );
+
+        lastTime = time;
+        lastHeapBytes = heapBytes;
+        lastStats = stats;
+        return rate;
+    }
+
+    // Heap allocation rate is negative if the JVM can't report it
+    public record Rate(double heapBytesPerSecond, double scratchAllocatedBytesPerSecond, double scratchReusedBytesPerSecond) {
+        public static final Rate ZERO = new Rate(0.0, 0.0, 0.0);
+
+        public double scratchReuseRatio() {
+            final double total = scratchAllocatedBytesPerSecond + scratchReusedBytesPerSecond;
+            return total > 0.0 ? scratchReusedBytesPerSecond / total : 0.0;
+        }
+    }
+}
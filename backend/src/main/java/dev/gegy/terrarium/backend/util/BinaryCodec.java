@@ -0,0 +1,43 @@
+package dev.gegy.terrarium.backend.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// A plain binary form for values that get stored often enough for going through a DFU codec to show up
+public interface BinaryCodec<V> {
+    void write(V value, DataOutput output) throws IOException;
+
+    V read(DataInput input) throws IOException;
+
+    static void writeVarInt(final DataOutput output, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7f) != 0) {
+            output.writeByte((remaining & 0x7f) | 0x80);
+            remaining >>>= 7;
+        }
+        output.writeByte(remaining);
+    }
+
+    static int readVarInt(final DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            final byte b = input.readByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt is too long");
+    }
+
+    // Zigzag encoded, so that small negative values also stay small
+    static void writeSignedVarInt(final DataOutput output, final int value) throws IOException {
+        writeVarInt(output, (value << 1) ^ (value >> 31));
+    }
+
+    static int readSignedVarInt(final DataInput input) throws IOException {
+        final int value = readVarInt(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,111 @@
+package dev.gegy.terrarium.backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+// Per-thread working space for hot loops, such as resampling, that would otherwise allocate fresh arrays every call.
+// Arrays are borrowed for the lifetime of a scope, and handed out again by the next scope on the same thread - so their
+// contents are undefined, and they may be longer than what was asked for.
+public final class ScratchBuffers implements AutoCloseable {
+    // Anything bigger than this is allocated as usual, rather than being held onto by every worker thread
+    private static final int MAX_RETAINED_BYTES = 4 * 1024 * 1024;
+
+    private static final ThreadLocal<ScratchBuffers> LOCAL = ThreadLocal.withInitial(ScratchBuffers::new);
+
+    private static final LongAdder ALLOCATED_BYTES = new LongAdder();
+    private static final LongAdder REUSED_BYTES = new LongAdder();
+
+    private final Slots<float[]> floats = new Slots<>(float[]::new, array -> array.length, Float.BYTES);
+    private final Slots<int[]> ints = new Slots<>(int[]::new, array -> array.length, Integer.BYTES);
+
+    private boolean inUse;
+
+    private ScratchBuffers() {
+    }
+
+    public static ScratchBuffers acquire() {
+        final ScratchBuffers buffers = LOCAL.get();
+        if (buffers.inUse) {
+            // Nested scopes on the same thread get their own buffers, which just won't be kept around afterwards
+            return new ScratchBuffers();
+        }
+        buffers.inUse = true;
+        return buffers;
+    }
+
+    public float[] floats(final int length) {
+        return floats.borrow(length);
+    }
+
+    public int[] ints(final int length) {
+        return ints.borrow(length);
+    }
+
+    @Override
+    public void close() {
+        floats.reset();
+        ints.reset();
+        inUse = false;
+    }
+
+    public static void recordAllocation(final long bytes) {
+        ALLOCATED_BYTES.add(bytes);
+    }
+
+    public static void recordReuse(final long bytes) {
+        REUSED_BYTES.add(bytes);
+    }
+
+    public static Stats stats() {
+        return new Stats(ALLOCATED_BYTES.sum(), REUSED_BYTES.sum());
+    }
+
+    // Totals since startup of scratch space that had to be freshly allocated, and that was served by reusing a buffer
+    public record Stats(long allocatedBytes, long reusedBytes) {
+    }
+
+    private static class Slots<T> {
+        private final IntFunction<T> factory;
+        private final ToIntFunction<T> length;
+        private final int bytesPerElement;
+        private final T empty;
+
+        private final List<T> arrays = new ArrayList<>();
+        private int next;
+
+        private Slots(final IntFunction<T> factory, final ToIntFunction<T> length, final int bytesPerElement) {
+            this.factory = factory;
+            this.length = length;
+            this.bytesPerElement = bytesPerElement;
+            empty = factory.apply(0);
+        }
+
+        public T borrow(final int length) {
+            final int index = next++;
+            final long bytes = (long) length * bytesPerElement;
+            if (index < arrays.size()) {
+                final T array = arrays.get(index);
+                if (this.length.applyAsInt(array) >= length) {
+                    recordReuse(bytes);
+                    return array;
+                }
+            } else {
+                arrays.add(empty);
+            }
+
+            final T array = factory.apply(length);
+            recordAllocation(bytes);
+            if (bytes <= MAX_RETAINED_BYTES) {
+                arrays.set(index, array);
+            }
+            return array;
+        }
+
+        public void reset() {
+            next = 0;
+        }
+    }
+}
@@ -40,6 +40,10 @@ public class Util {
         return a + (b - a) * x;
     }
 
+    public static float cubic(final float a, final float b, final float c, final float d, final float x) {
+        return b + 0.5f * x * (c - a + x * (2.0f * a - 5.0f * b + 4.0f * c - d + x * (3.0f * (b - c) + d - a)));
+    }
+
     public static float inverseLerp(final float a, final float b, final float x) {
         return (x - a) / (b - a);
     }
@@ -0,0 +1,262 @@
+package dev.gegy.terrarium.backend;
+
+import dev.gegy.terrarium.backend.earth.EarthAttachments;
+import dev.gegy.terrarium.backend.earth.climate.RainfallRaster;
+import dev.gegy.terrarium.backend.earth.climate.TemperatureRaster;
+import dev.gegy.terrarium.backend.earth.cover.Cover;
+import dev.gegy.terrarium.backend.earth.soil.SoilSuborder;
+import dev.gegy.terrarium.backend.raster.EnumRaster;
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+
+// Measures saving a region's worth of proto chunks the way region files store them, with and without their GeoChunk:
+// each chunk is written out and deflated on its own. Minecraft isn't available to the backend, so the rest of the chunk
+// is stood in for by sections laid out like those in saved chunk data: a palette of block and biome names, and the packed
+// indices into it. Sizes are reported through the counters, so storedBytes / chunks gives the size of each chunk.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 10, time = 10)
+@Fork(2)
+public class GeoChunkStorageBench {
+    private static final int CHUNKS_PER_REGION = 32 * 32;
+    private static final RasterShape CHUNK_SHAPE = new RasterShape(16, 16);
+
+    private static final int SECTION_COUNT = 24;
+    private static final int MIN_Y = -64;
+    private static final int SEA_LEVEL = 63;
+    private static final int HEIGHTMAP_COUNT = 4;
+    private static final int HEIGHTMAP_BITS = 9;
+
+    @State(Scope.Thread)
+    public static class Region {
+        @Param({"false", "true"})
+        public boolean withGeoChunk;
+
+        public StoredChunk[] chunks;
+        public ByteArrayOutputStream output;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final Random random = new Random(0);
+            chunks = new StoredChunk[CHUNKS_PER_REGION];
+            for (int i = 0; i < chunks.length; i++) {
+                final GeoChunk geoChunk = createChunk(random);
+                final int[] surfaceYs = surfaceYs(geoChunk.getOrThrow(EarthAttachments.ELEVATION));
+                chunks[i] = new StoredChunk(createSections(surfaceYs), createHeightmaps(surfaceYs), geoChunk);
+            }
+            output = new ByteArrayOutputStream(64 * 1024);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes {
+        public long storedBytes;
+        public long chunks;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            storedBytes = 0;
+            chunks = 0;
+        }
+    }
+
+    private record Section(String[] blockPalette, long[] blockData, String[] biomePalette, long[] biomeData) {
+        void write(final DataOutputStream output) throws IOException {
+            writePalette(output, blockPalette);
+            writeLongs(output, blockData);
+            writePalette(output, biomePalette);
+            writeLongs(output, biomeData);
+        }
+    }
+
+    private record StoredChunk(Section[] sections, long[][] heightmaps, GeoChunk geoChunk) {
+        void write(final DataOutputStream output, final boolean withGeoChunk) throws IOException {
+            output.writeInt(sections.length);
+            for (final Section section : sections) {
+                section.write(output);
+            }
+            for (final long[] heightmap : heightmaps) {
+                writeLongs(output, heightmap);
+            }
+            if (withGeoChunk) {
+                final byte[] geoData = geoChunk.toBytes();
+                output.writeInt(geoData.length);
+                output.write(geoData);
+            }
+        }
+    }
+
+    private static int[] surfaceYs(final ShortRaster elevation) {
+        final int[] surfaceYs = new int[CHUNK_SHAPE.size()];
+        for (int i = 0; i < surfaceYs.length; i++) {
+            surfaceYs[i] = SEA_LEVEL - 20 + elevation.buffer()[i] / 16;
+        }
+        return surfaceYs;
+    }
+
+    // Layered like generated terrain once carved: stone, then dirt and grass at the surface, and water up to sea level
+    private static Section[] createSections(final int[] surfaceYs) {
+        final Section[] sections = new Section[SECTION_COUNT];
+        final String[] blocks = new String[16 * 16 * 16];
+        for (int sectionIndex = 0; sectionIndex < sections.length; sectionIndex++) {
+            final int minY = MIN_Y + sectionIndex * 16;
+            for (int y = 0; y < 16; y++) {
+                for (int column = 0; column < surfaceYs.length; column++) {
+                    blocks[y * surfaceYs.length + column] = block(minY + y, surfaceYs[column]);
+                }
+            }
+            sections[sectionIndex] = createSection(blocks);
+        }
+        return sections;
+    }
+
+    private static String block(final int y, final int surfaceY) {
+        if (y < surfaceY - 3) {
+            return "minecraft:stone";
+        } else if (y < surfaceY) {
+            return "minecraft:dirt";
+        } else if (y == surfaceY) {
+            return y < SEA_LEVEL ? "minecraft:sand" : "minecraft:grass_block";
+        } else if (y <= SEA_LEVEL) {
+            return "minecraft:water";
+        }
+        return "minecraft:air";
+    }
+
+    private static Section createSection(final String[] blocks) {
+        final String[] blockPalette = Arrays.stream(blocks).distinct().toArray(String[]::new);
+        final List<String> paletteList = Arrays.asList(blockPalette);
+        final int[] indices = new int[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            indices[i] = paletteList.indexOf(blocks[i]);
+        }
+        return new Section(blockPalette, pack(indices, Math.max(4, bitsFor(blockPalette.length))), new String[]{"minecraft:plains"}, new long[0]);
+    }
+
+    // The heightmaps mostly agree once the surface is built, so all of them are taken from the top of the surface or water
+    private static long[][] createHeightmaps(final int[] surfaceYs) {
+        final int[] heights = new int[surfaceYs.length];
+        for (int i = 0; i < heights.length; i++) {
+            heights[i] = Math.max(surfaceYs[i], SEA_LEVEL) + 1 - MIN_Y;
+        }
+        final long[][] heightmaps = new long[HEIGHTMAP_COUNT][];
+        Arrays.fill(heightmaps, pack(heights, HEIGHTMAP_BITS));
+        return heightmaps;
+    }
+
+    private static int bitsFor(final int paletteSize) {
+        return paletteSize <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(paletteSize - 1);
+    }
+
+    // Values don't span across longs, as with packed block states
+    private static long[] pack(final int[] values, final int bits) {
+        if (bits == 0) {
+            return new long[0];
+        }
+        final int valuesPerLong = 64 / bits;
+        final long[] packed = new long[(values.length + valuesPerLong - 1) / valuesPerLong];
+        for (int i = 0; i < values.length; i++) {
+            packed[i / valuesPerLong] |= (long) values[i] << (i % valuesPerLong * bits);
+        }
+        return packed;
+    }
+
+    private static void writePalette(final DataOutputStream output, final String[] palette) throws IOException {
+        output.writeInt(palette.length);
+        for (final String value : palette) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static void writeLongs(final DataOutputStream output, final long[] values) throws IOException {
+        output.writeInt(values.length);
+        for (final long value : values) {
+            output.writeLong(value);
+        }
+    }
+
+    private static GeoChunk createChunk(final Random random) {
+        final ShortRaster elevation = ShortRaster.create(CHUNK_SHAPE);
+        final int baseElevation = random.nextInt(2000);
+        for (int y = 0; y < CHUNK_SHAPE.height(); y++) {
+            for (int x = 0; x < CHUNK_SHAPE.width(); x++) {
+                elevation.putShort(x, y, (short) (baseElevation + x * 3 + y * 2 + random.nextInt(5)));
+            }
+        }
+        final EnumRaster<Cover> landCover = EnumRaster.type(Cover.NONE, Cover.CODEC).create(CHUNK_SHAPE);
+        final EnumRaster<SoilSuborder> soilSuborder = EnumRaster.type(SoilSuborder.NONE, SoilSuborder.CODEC).create(CHUNK_SHAPE);
+        for (int y = 0; y < CHUNK_SHAPE.height(); y++) {
+            for (int x = 0; x < CHUNK_SHAPE.width(); x++) {
+                landCover.put(x, y, x + y < 12 ? Cover.RAINFED_CROPLAND : Cover.BROADLEAF_EVERGREEN);
+                soilSuborder.put(x, y, SoilSuborder.values()[1 + (x / 8)]);
+            }
+        }
+        return new GeoChunk.Builder()
+                .put(EarthAttachments.ELEVATION, completed(elevation))
+                .put(EarthAttachments.LAND_COVER, completed(landCover))
+                .put(EarthAttachments.CATION_EXCHANGE_CAPACITY, completed(noise(UnsignedByteRaster.create(CHUNK_SHAPE), random)))
+                .put(EarthAttachments.ORGANIC_CARBON_CONTENT, completed(noise(ShortRaster.create(CHUNK_SHAPE), random)))
+                .put(EarthAttachments.SOIL_PH, completed(noise(UnsignedByteRaster.create(CHUNK_SHAPE), random)))
+                .put(EarthAttachments.CLAY_CONTENT, completed(noise(UnsignedByteRaster.create(CHUNK_SHAPE), random)))
+                .put(EarthAttachments.SILT_CONTENT, completed(noise(UnsignedByteRaster.create(CHUNK_SHAPE), random)))
+                .put(EarthAttachments.SAND_CONTENT, completed(noise(UnsignedByteRaster.create(CHUNK_SHAPE), random)))
+                .put(EarthAttachments.SOIL_SUBORDER, completed(soilSuborder))
+                .put(EarthAttachments.MEAN_TEMPERATURE, completed(noise(TemperatureRaster.create(CHUNK_SHAPE), random)))
+                .put(EarthAttachments.MIN_TEMPERATURE, completed(noise(TemperatureRaster.create(CHUNK_SHAPE), random)))
+                .put(EarthAttachments.ANNUAL_RAINFALL, completed(noise(RainfallRaster.create(CHUNK_SHAPE), random)))
+                .build().join().orElseThrow();
+    }
+
+    // Soil and climate are interpolated from coarse data, so only vary a little across a chunk
+    private static <T extends IntLikeRaster> T noise(final T raster, final Random random) {
+        final int base = random.nextInt(200);
+        for (int y = 0; y < CHUNK_SHAPE.height(); y++) {
+            for (int x = 0; x < CHUNK_SHAPE.width(); x++) {
+                raster.putInt(x, y, base + (x + y) / 4);
+            }
+        }
+        return raster;
+    }
+
+    private static <T> CompletableFuture<Optional<T>> completed(final T value) {
+        return CompletableFuture.completedFuture(Optional.of(value));
+    }
+
+    @Benchmark
+    public long save(final Region region, final Sizes sizes) throws IOException {
+        long storedBytes = 0;
+        for (final StoredChunk chunk : region.chunks) {
+            region.output.reset();
+            // Buffered ahead of the deflater, as region files do, so that small writes aren't each deflated on their own
+            try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(region.output)))) {
+                chunk.write(output, region.withGeoChunk);
+            }
+            storedBytes += region.output.size();
+        }
+        sizes.storedBytes += storedBytes;
+        sizes.chunks += region.chunks.length;
+        return storedBytes;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        Main.main(args);
+    }
+}
@@ -0,0 +1,93 @@
+package dev.gegy.terrarium.backend;
+
+import dev.gegy.terrarium.backend.earth.EarthAttachments;
+import dev.gegy.terrarium.backend.earth.climate.TemperatureRaster;
+import dev.gegy.terrarium.backend.earth.cover.Cover;
+import dev.gegy.terrarium.backend.raster.EnumRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeoChunkTest {
+    private static final RasterShape SHAPE = new RasterShape(16, 16);
+
+    private static GeoChunk createChunk() {
+        final ShortRaster elevation = ShortRaster.create(SHAPE);
+        final EnumRaster<Cover> landCover = EnumRaster.type(Cover.NONE, Cover.CODEC).create(SHAPE);
+        final TemperatureRaster temperature = TemperatureRaster.create(SHAPE);
+        for (int y = 0; y < SHAPE.height(); y++) {
+            for (int x = 0; x < SHAPE.width(); x++) {
+                // Include jumps across the whole range, which don't fit in a single varint byte
+                elevation.putShort(x, y, (short) ((x + y) % 5 == 0 ? Short.MIN_VALUE + x : x * 40 - y * 3));
+                landCover.put(x, y, x < 8 ? Cover.WATER : Cover.RAINFED_CROPLAND);
+                temperature.putByte(x, y, x * y);
+            }
+        }
+        return new GeoChunk.Builder()
+                .put(EarthAttachments.ELEVATION, CompletableFuture.completedFuture(Optional.of(elevation)))
+                .put(EarthAttachments.LAND_COVER, CompletableFuture.completedFuture(Optional.of(landCover)))
+                .put(EarthAttachments.MEAN_TEMPERATURE, CompletableFuture.completedFuture(Optional.of(temperature)))
+                .build().join().orElseThrow();
+    }
+
+    @Test
+    public void roundTripsThroughBytes() throws IOException {
+        final GeoChunk chunk = createChunk();
+        final GeoChunk decoded = GeoChunk.fromBytes(chunk.toBytes());
+
+        assertArrayEquals(chunk.getOrThrow(EarthAttachments.ELEVATION).buffer(), decoded.getOrThrow(EarthAttachments.ELEVATION).buffer());
+        assertArrayEquals(chunk.getOrThrow(EarthAttachments.LAND_COVER).buffer(), decoded.getOrThrow(EarthAttachments.LAND_COVER).buffer());
+        final TemperatureRaster temperature = decoded.getOrThrow(EarthAttachments.MEAN_TEMPERATURE);
+        assertEquals(TemperatureRaster.class, temperature.getClass());
+        assertArrayEquals(chunk.getOrThrow(EarthAttachments.MEAN_TEMPERATURE).buffer(), temperature.buffer());
+        assertNull(decoded.get(EarthAttachments.SOIL_PH));
+    }
+
+    @Test
+    public void uniformEnumRastersStoreNoBuffer() throws IOException {
+        final EnumRaster<Cover> landCover = EnumRaster.type(Cover.NONE, Cover.CODEC).create(SHAPE);
+        final GeoChunk chunk = new GeoChunk.Builder()
+                .put(EarthAttachments.LAND_COVER, CompletableFuture.completedFuture(Optional.of(landCover)))
+                .build().join().orElseThrow();
+
+        final byte[] bytes = chunk.toBytes();
+        assertTrue(bytes.length < SHAPE.size(), "Expected no per-pixel data, but got " + bytes.length + " bytes");
+        assertArrayEquals(landCover.buffer(), GeoChunk.fromBytes(bytes).getOrThrow(EarthAttachments.LAND_COVER).buffer());
+    }
+
+    @Test
+    public void enumRastersAreStoredByCodecKey() throws IOException {
+        final byte[] bytes = createChunk().toBytes();
+
+        // Stored through the same keys as the value codec, rather than the names of the constants
+        final String text = new String(bytes, StandardCharsets.ISO_8859_1);
+        assertTrue(text.contains(Cover.RAINFED_CROPLAND.getName()));
+        assertFalse(text.contains(Cover.RAINFED_CROPLAND.name()));
+        assertArrayEquals(createChunk().getOrThrow(EarthAttachments.LAND_COVER).buffer(), GeoChunk.fromBytes(bytes).getOrThrow(EarthAttachments.LAND_COVER).buffer());
+    }
+
+    @Test
+    public void rejectsUnknownVersionsAndTruncatedData() {
+        final byte[] bytes = createChunk().toBytes();
+
+        final byte[] futureVersion = bytes.clone();
+        futureVersion[0]++;
+        assertThrows(IOException.class, () -> GeoChunk.fromBytes(futureVersion));
+
+        final byte[] truncated = new byte[bytes.length - 10];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        assertThrows(IOException.class, () -> GeoChunk.fromBytes(truncated));
+    }
+}
@@ -0,0 +1,50 @@
+package dev.gegy.terrarium.backend;
+
+import dev.gegy.terrarium.backend.earth.EarthAttachments;
+import dev.gegy.terrarium.backend.earth.climate.TemperatureRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PendingGeoChunkTest {
+    private static final RasterShape SHAPE = new RasterShape(16, 16);
+    private static final GeoAttachmentSet ELEVATION_SET = GeoAttachmentSet.of(EarthAttachments.ELEVATION);
+
+    @Test
+    public void requireDoesNotWaitOnOtherAttachments() {
+        final ShortRaster elevation = ShortRaster.create(SHAPE);
+        final CompletableFuture<Optional<TemperatureRaster>> temperature = new CompletableFuture<>();
+        final PendingGeoChunk pendingChunk = new GeoChunk.Builder()
+                .put(EarthAttachments.ELEVATION, CompletableFuture.completedFuture(Optional.of(elevation)))
+                .put(EarthAttachments.MEAN_TEMPERATURE, temperature)
+                .buildPending();
+
+        final CompletableFuture<GeoChunk> elevationChunk = pendingChunk.require(ELEVATION_SET);
+        assertTrue(elevationChunk.isDone());
+        assertSame(elevation, elevationChunk.join().get(EarthAttachments.ELEVATION));
+        assertNull(elevationChunk.join().get(EarthAttachments.MEAN_TEMPERATURE));
+
+        final CompletableFuture<GeoChunk> allChunk = pendingChunk.all();
+        assertFalse(allChunk.isDone());
+        temperature.complete(Optional.of(TemperatureRaster.create(SHAPE)));
+        assertNotNull(allChunk.join().get(EarthAttachments.MEAN_TEMPERATURE));
+        assertNotNull(pendingChunk.require(ELEVATION_SET).join().get(EarthAttachments.MEAN_TEMPERATURE));
+    }
+
+    @Test
+    public void requireCompletesForMissingAttachments() {
+        final PendingGeoChunk pendingChunk = new GeoChunk.Builder().buildPending();
+        final GeoChunk geoChunk = pendingChunk.require(ELEVATION_SET).join();
+        assertTrue(geoChunk.isEmpty());
+        assertFalse(geoChunk.hasAll(ELEVATION_SET));
+    }
+}
@@ -0,0 +1,160 @@
+package dev.gegy.terrarium.backend.earth;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.gegy.terrarium.backend.loader.ConcurrencyLimiter;
+import dev.gegy.terrarium.backend.raster.reader.RasterFormat;
+import dev.gegy.terrarium.backend.tile.TileKey;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EarthTilesTest {
+    @Test
+    public void enumeratesTilesInBox() {
+        // Level 1 is 6 tiles across and 3 down, each covering 60 degrees
+        assertEquals(
+                List.of(new TileKey(2, 1), new TileKey(3, 1)),
+                EarthTiles.tilesInBounds(1, new GeoCoords(-10.0, -10.0), new GeoCoords(10.0, 10.0))
+        );
+        assertEquals(
+                List.of(new TileKey(2, 0), new TileKey(3, 0), new TileKey(2, 1), new TileKey(3, 1)),
+                EarthTiles.tilesInBounds(1, new GeoCoords(-10.0, -10.0), new GeoCoords(70.0, 10.0))
+        );
+    }
+
+    @Test
+    public void latitudesMayBeGivenInEitherOrder() {
+        assertEquals(
+                EarthTiles.tilesInBounds(2, new GeoCoords(-45.0, 0.0), new GeoCoords(45.0, 90.0)),
+                EarthTiles.tilesInBounds(2, new GeoCoords(45.0, 0.0), new GeoCoords(-45.0, 90.0))
+        );
+    }
+
+    @Test
+    public void clampsToEdgesOfWorld() {
+        final List<TileKey> keys = EarthTiles.tilesInBounds(0, new GeoCoords(90.0, -180.0), new GeoCoords(-90.0, 180.0));
+        assertEquals(List.of(new TileKey(0, 0), new TileKey(1, 0)), keys);
+    }
+
+    @Test
+    public void splitsBoxAcrossAntimeridian() {
+        // Level 2 is 18 tiles across, each covering 20 degrees, so this box only touches the first and last columns
+        assertEquals(
+                List.of(new TileKey(17, 4), new TileKey(0, 4)),
+                EarthTiles.tilesInBounds(2, new GeoCoords(0.0, 170.0), new GeoCoords(10.0, -170.0))
+        );
+        assertEquals(
+                List.of(new TileKey(16, 4), new TileKey(17, 4), new TileKey(0, 4), new TileKey(1, 4)),
+                EarthTiles.tilesInBounds(2, new GeoCoords(0.0, 150.0), new GeoCoords(10.0, -150.0))
+        );
+    }
+
+    @Test
+    public void wrapsWholeWorldWhenBothEndsShareTile() {
+        final List<TileKey> keys = EarthTiles.tilesInBounds(1, new GeoCoords(0.0, 10.0), new GeoCoords(0.0, 5.0));
+        assertEquals(
+                List.of(new TileKey(0, 1), new TileKey(1, 1), new TileKey(2, 1), new TileKey(3, 1), new TileKey(4, 1), new TileKey(5, 1)),
+                keys
+        );
+    }
+
+    @Test
+    public void fetchesEachTileOnceWithFilePerTile(@TempDir final Path root) throws IOException {
+        assertFetchesOnce(root, EarthTiles.CacheLayout.FILE_PER_TILE);
+    }
+
+    @Test
+    public void fetchesEachTileOnceWhenPacked(@TempDir final Path root) throws IOException {
+        assertFetchesOnce(root, EarthTiles.CacheLayout.PACKED);
+    }
+
+    private static void assertFetchesOnce(final Path root, final EarthTiles.CacheLayout cacheLayout) throws IOException {
+        final byte[] tile = encodeTile();
+        final AtomicInteger requestCount = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requestCount.incrementAndGet();
+            exchange.sendResponseHeaders(200, tile.length);
+            try (final OutputStream output = exchange.getResponseBody()) {
+                output.write(tile);
+            }
+        });
+        server.start();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final EarthTiles.Config config = new EarthTiles.Config(
+                    HttpClient.newHttpClient(),
+                    new ConcurrencyLimiter(4),
+                    "http://127.0.0.1:" + server.getAddress().getPort(),
+                    root,
+                    cacheLayout,
+                    false,
+                    executor,
+                    executor
+            );
+            final List<TileKey> keys = EarthTiles.tilesInBounds(1, new GeoCoords(80.0, -180.0), new GeoCoords(-80.0, 180.0));
+
+            final EarthTiles.BulkFetchResult fetched = config.fetchTiles(EarthTiles.TileSource.ELEVATION, 1, keys).join();
+            assertEquals(keys.size(), fetched.fetchedCount());
+            assertEquals(0, fetched.failedCount());
+
+            final EarthTiles.BulkFetchResult cached = config.fetchTiles(EarthTiles.TileSource.ELEVATION, 1, keys).join();
+            assertEquals(keys.size(), cached.cachedCount());
+            assertEquals(0, cached.fetchedCount());
+            assertEquals(keys.size(), requestCount.get());
+        } finally {
+            executor.shutdown();
+            server.stop(0);
+        }
+    }
+
+    // A tiny elevation tile in a single unfiltered chunk
+    private static byte[] encodeTile() throws IOException {
+        final int width = 4;
+        final int height = 3;
+
+        final ByteArrayOutputStream values = new ByteArrayOutputStream();
+        try (final DataOutputStream output = new DataOutputStream(new XZOutputStream(values, new LZMA2Options()))) {
+            for (int i = 0; i < width * height; i++) {
+                output.writeShort(i * 10);
+            }
+        }
+
+        final ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+        final DataOutputStream chunkOutput = new DataOutputStream(chunk);
+        chunkOutput.writeInt(0);
+        chunkOutput.writeInt(0);
+        chunkOutput.writeInt(width);
+        chunkOutput.writeInt(height);
+        chunkOutput.writeByte(0);
+        chunkOutput.write(values.toByteArray());
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.write("TERRARIUM/RASTER".getBytes(StandardCharsets.UTF_8));
+        output.writeByte(0);
+        output.writeInt(width);
+        output.writeInt(height);
+        output.writeByte(RasterFormat.SHORT.id());
+        output.writeInt(chunk.size());
+        output.write(chunk.toByteArray());
+        return bytes.toByteArray();
+    }
+}
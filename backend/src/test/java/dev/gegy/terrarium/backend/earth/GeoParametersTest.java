@@ -0,0 +1,47 @@
+package dev.gegy.terrarium.backend.earth;
+
+import dev.gegy.terrarium.backend.GeoAttachmentSet;
+import dev.gegy.terrarium.backend.earth.cover.Cover;
+import dev.gegy.terrarium.backend.expr.classifier.ClassifierNode;
+import org.junit.jupiter.api.Test;
+
+import static dev.gegy.terrarium.backend.expr.classifier.Classifiers.leaf;
+import static dev.gegy.terrarium.backend.expr.classifier.Classifiers.threshold;
+import static dev.gegy.terrarium.backend.expr.predictor.Predictors.add;
+import static dev.gegy.terrarium.backend.expr.predictor.Predictors.constant;
+import static dev.gegy.terrarium.backend.expr.predictor.Predictors.opaque;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeoParametersTest {
+    @Test
+    public void requiresOnlyReferencedAttachments() {
+        final ClassifierNode<GeoParameters, String> classifier = threshold(
+                add(opaque(GeoParameters.ELEVATION), opaque(GeoParameters.MEAN_TEMPERATURE)), constant(10.0f),
+                leaf("warm"),
+                threshold(opaque(GeoParameters.IS_COVER.get(Cover.WATER)), constant(0.5f), leaf("water"), leaf("cold"))
+        );
+        final GeoAttachmentSet attachments = GeoParameters.requiredAttachments(classifier);
+
+        assertTrue(attachments.contains(EarthAttachments.ELEVATION));
+        assertTrue(attachments.contains(EarthAttachments.MEAN_TEMPERATURE));
+        assertTrue(attachments.contains(EarthAttachments.LAND_COVER));
+        assertFalse(attachments.contains(EarthAttachments.SOIL_PH));
+        assertFalse(attachments.contains(EarthAttachments.SOIL_SUBORDER));
+    }
+
+    @Test
+    public void requiresEverythingForUnknownParameters() {
+        final ClassifierNode<GeoParameters, String> classifier = threshold(
+                opaque(GeoParameters::elevation), constant(0.0f),
+                leaf("high"), leaf("low")
+        );
+        assertSame(EarthAttachments.REQUIRED_SET, GeoParameters.requiredAttachments(classifier));
+    }
+
+    @Test
+    public void constantClassifierRequiresNothing() {
+        assertTrue(GeoParameters.requiredAttachments(leaf("always")).isEmpty());
+    }
+}
@@ -0,0 +1,116 @@
+package dev.gegy.terrarium.backend.earth.climate;
+
+import dev.gegy.terrarium.backend.loader.Loader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClimateRastersTest {
+    private static final int SIZE = ClimateRasters.WIDTH * ClimateRasters.HEIGHT;
+
+    private static byte[] plane(final int seed) {
+        final byte[] values = new byte[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = (byte) (i * 31 + seed);
+        }
+        return values;
+    }
+
+    private static void writeSource(final Path path, final int seed) throws IOException {
+        try (final OutputStream output = new XZOutputStream(Files.newOutputStream(path), new LZMA2Options(0))) {
+            output.write(plane(seed));
+            output.write(plane(seed + 1));
+            output.write(plane(seed + 2));
+        }
+    }
+
+    private static ClimateRasters load(final Path sourcePath, final Path rawPath) {
+        final Loader<Path, ClimateRasters> loader = ClimateRasters.fileLoader(Runnable::run, rawPath);
+        final Optional<ClimateRasters> rasters = loader.load(sourcePath).join();
+        assertTrue(rasters.isPresent());
+        return rasters.get();
+    }
+
+    private static void assertDecodedFrom(final ClimateRasters rasters, final int seed) {
+        assertArrayEquals(plane(seed), rasters.meanTemperature().buffer());
+        assertArrayEquals(plane(seed + 1), rasters.minTemperature().buffer());
+        assertArrayEquals(plane(seed + 2), rasters.annualRainfall().buffer());
+    }
+
+    private static void overwriteByte(final Path path, final long position, final byte value) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{value}), position);
+        }
+    }
+
+    @Test
+    public void roundTripsThroughRawCache(@TempDir final Path root) throws IOException {
+        final Path sourcePath = root.resolve("climate.xz");
+        final Path rawPath = root.resolve("decoded/climate.raw");
+        writeSource(sourcePath, 0);
+
+        assertDecodedFrom(load(sourcePath, rawPath), 0);
+        assertTrue(Files.exists(rawPath));
+
+        // Only a read from the raw cache could see this change
+        final byte changedValue = (byte) (plane(2)[SIZE - 1] + 1);
+        overwriteByte(rawPath, Files.size(rawPath) - 1, changedValue);
+        assertEquals(changedValue, load(sourcePath, rawPath).annualRainfall().buffer()[SIZE - 1]);
+    }
+
+    @Test
+    public void fallsBackOnBadHeader(@TempDir final Path root) throws IOException {
+        final Path sourcePath = root.resolve("climate.xz");
+        final Path rawPath = root.resolve("climate.raw");
+        writeSource(sourcePath, 0);
+        load(sourcePath, rawPath);
+
+        overwriteByte(rawPath, 0, (byte) 0);
+        assertDecodedFrom(load(sourcePath, rawPath), 0);
+
+        // The raw cache was written again, so reads from it see the right values
+        overwriteByte(rawPath, Files.size(rawPath) - 1, (byte) 0);
+        assertEquals(0, load(sourcePath, rawPath).annualRainfall().buffer()[SIZE - 1]);
+    }
+
+    @Test
+    public void fallsBackOnBadSize(@TempDir final Path root) throws IOException {
+        final Path sourcePath = root.resolve("climate.xz");
+        final Path rawPath = root.resolve("climate.raw");
+        writeSource(sourcePath, 0);
+        load(sourcePath, rawPath);
+
+        try (final FileChannel channel = FileChannel.open(rawPath, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        assertDecodedFrom(load(sourcePath, rawPath), 0);
+    }
+
+    @Test
+    public void decodesAgainWhenSourceChanges(@TempDir final Path root) throws IOException {
+        final Path sourcePath = root.resolve("climate.xz");
+        final Path rawPath = root.resolve("climate.raw");
+        writeSource(sourcePath, 0);
+        load(sourcePath, rawPath);
+
+        writeSource(sourcePath, 5);
+        Files.setLastModifiedTime(sourcePath, FileTime.from(Instant.now().plusSeconds(3600)));
+        assertDecodedFrom(load(sourcePath, rawPath), 5);
+    }
+}
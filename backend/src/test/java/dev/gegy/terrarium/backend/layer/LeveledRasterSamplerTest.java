@@ -0,0 +1,71 @@
+package dev.gegy.terrarium.backend.layer;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LeveledRasterSamplerTest {
+    // Level 1 is the ideal level at this resolution, level 2 is finer but still acceptable, and level 0 is coarser
+    private static final double BLOCKS_PER_DEGREE = 6.0;
+    private static final GeoView VIEW = new GeoView(0, 0, 15, 15);
+
+    @Test
+    public void residentOnlyFallsBackToCoarserLevels() {
+        final Level[] levels = levels(true, false, false);
+        final LeveledRasterSampler<ShortRaster> sampler = new LeveledRasterSampler<>(List.of(levels));
+        assertEquals(Optional.of(levels[0]), sampler.chooseResident(BLOCKS_PER_DEGREE, BLOCKS_PER_DEGREE, level -> VIEW));
+    }
+
+    @Test
+    public void residentOnlyGivesNothingWhenNothingIsResident() {
+        final Level[] levels = levels(false, false, false);
+        final LeveledRasterSampler<ShortRaster> sampler = new LeveledRasterSampler<>(List.of(levels));
+        assertEquals(Optional.empty(), sampler.chooseResident(BLOCKS_PER_DEGREE, BLOCKS_PER_DEGREE, level -> VIEW));
+    }
+
+    private static Level[] levels(final boolean... resident) {
+        final Level[] levels = new Level[resident.length];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = new Level(1024 << i, 512 << i, resident[i]);
+        }
+        return levels;
+    }
+
+    private static final class Level implements RasterSampler<ShortRaster> {
+        private final int width;
+        private final int height;
+        private final boolean resident;
+
+        private Level(final int width, final int height, final boolean resident) {
+            this.width = width;
+            this.height = height;
+            this.resident = resident;
+        }
+
+        @Override
+        public CompletableFuture<Optional<ShortRaster>> get(final GeoView view) {
+            return CompletableFuture.completedFuture(Optional.of(ShortRaster.create(view.shape())));
+        }
+
+        @Override
+        public boolean isResident(final GeoView view) {
+            return resident;
+        }
+
+        @Override
+        public int width() {
+            return width;
+        }
+
+        @Override
+        public int height() {
+            return height;
+        }
+    }
+}
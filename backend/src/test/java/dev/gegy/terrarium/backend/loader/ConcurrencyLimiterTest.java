@@ -0,0 +1,75 @@
+package dev.gegy.terrarium.backend.loader;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrencyLimiterTest {
+    @Test
+    public void runsMostUrgentTasksFirst() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        final CompletableFuture<Void> blocker = new CompletableFuture<>();
+        limiter.submit(() -> blocker);
+
+        final List<String> order = new ArrayList<>();
+        limiter.submit(ConcurrencyLimiter.Priority.of(ConcurrencyLimiter.Purpose.SPECULATIVE), () -> record(order, "speculative"));
+        limiter.submit(ConcurrencyLimiter.Priority.of(ConcurrencyLimiter.Purpose.LOD), () -> record(order, "lod"));
+        limiter.submit(new ConcurrencyLimiter.Priority(ConcurrencyLimiter.Purpose.GENERATION, 10.0), () -> record(order, "far"));
+        limiter.submit(new ConcurrencyLimiter.Priority(ConcurrencyLimiter.Purpose.GENERATION, 1.0), () -> record(order, "near"));
+        assertEquals(4, limiter.metrics().queueDepth());
+
+        blocker.complete(null);
+        assertEquals(List.of("near", "far", "lod", "speculative"), order);
+        assertEquals(0, limiter.metrics().queueDepth());
+        assertEquals(5, limiter.metrics().startedCount());
+    }
+
+    @Test
+    public void dropsAbandonedTasksFromQueue() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        final CompletableFuture<Void> blocker = new CompletableFuture<>();
+        limiter.submit(() -> blocker);
+
+        final List<String> order = new ArrayList<>();
+        final CompletableFuture<String> cancelled = limiter.submit(() -> record(order, "cancelled"));
+        limiter.submit(() -> record(order, "kept"));
+        cancelled.cancel(false);
+
+        final ConcurrencyLimiter.Metrics metrics = limiter.metrics();
+        assertEquals(1, metrics.queueDepth());
+        assertEquals(1, metrics.droppedCount());
+
+        blocker.complete(null);
+        assertEquals(List.of("kept"), order);
+    }
+
+    @Test
+    public void failsTasksPastDeadline() throws InterruptedException {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        final CompletableFuture<Void> blocker = new CompletableFuture<>();
+        limiter.submit(() -> blocker);
+
+        final CompletableFuture<String> future = limiter.submit(ConcurrencyLimiter.Priority.DEFAULT, Duration.ofMillis(10), () -> CompletableFuture.completedFuture("late"));
+        try {
+            future.get();
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(future.isCompletedExceptionally());
+        assertEquals(0, limiter.metrics().queueDepth());
+        assertEquals(1, limiter.metrics().droppedCount());
+    }
+
+    private static CompletableFuture<String> record(final List<String> order, final String name) {
+        order.add(name);
+        return CompletableFuture.completedFuture(name);
+    }
+}
@@ -0,0 +1,176 @@
+package dev.gegy.terrarium.backend.loader;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpDownloaderTest {
+    private static final byte[] CONTENT = "the quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+
+    // Stands in for the tile server, and honours simple "bytes=<start>-" range requests unless told not to
+    private static HttpServer startServer(final boolean supportRanges, final List<String> ranges) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/file", exchange -> {
+            final String range = exchange.getRequestHeaders().getFirst("Range");
+            ranges.add(range == null ? "" : range);
+            if (supportRanges && range != null) {
+                final int start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+                if (start >= CONTENT.length) {
+                    exchange.getResponseHeaders().add("Content-Range", "bytes */" + CONTENT.length);
+                    respond(exchange, 416, new byte[0]);
+                } else {
+                    exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + (CONTENT.length - 1) + "/" + CONTENT.length);
+                    respond(exchange, 206, Arrays.copyOfRange(CONTENT, start, CONTENT.length));
+                }
+            } else {
+                respond(exchange, 200, CONTENT);
+            }
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, new byte[0]));
+        server.start();
+        return server;
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (final OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static HttpDownloader downloader() {
+        return new HttpDownloader(HttpClient.newHttpClient(), Duration.ofSeconds(10));
+    }
+
+    private static URI uri(final HttpServer server, final String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    @Test
+    public void downloadsToFile(@TempDir final Path root) throws IOException {
+        final HttpServer server = startServer(true, new CopyOnWriteArrayList<>());
+        try {
+            final Path path = root.resolve("a/b/file");
+            final HttpDownloader.Result result = downloader().download(uri(server, "/file"), path).join();
+            assertEquals(HttpDownloader.Status.DOWNLOADED, result.status());
+            assertEquals(CONTENT.length, result.bytes());
+            assertArrayEquals(CONTENT, Files.readAllBytes(path));
+
+            assertEquals(HttpDownloader.Status.CACHED, downloader().download(uri(server, "/file"), path).join().status());
+
+            final Path missingPath = root.resolve("missing");
+            assertEquals(HttpDownloader.Status.FAILED, downloader().download(uri(server, "/missing"), missingPath).join().status());
+            assertFalse(Files.exists(missingPath));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void resumesPartialDownload(@TempDir final Path root) throws IOException {
+        final List<String> ranges = new CopyOnWriteArrayList<>();
+        final HttpServer server = startServer(true, ranges);
+        try {
+            final Path path = root.resolve("file");
+            Files.write(root.resolve("file.part"), Arrays.copyOf(CONTENT, 10));
+
+            final HttpDownloader.Result result = downloader().downloadResumable(uri(server, "/file"), path).join();
+            assertTrue(result.isPresent());
+            assertEquals(List.of("bytes=10-"), ranges);
+            assertArrayEquals(CONTENT, Files.readAllBytes(path));
+            assertFalse(Files.exists(root.resolve("file.part")));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void restartsWhenRangeIsIgnored(@TempDir final Path root) throws IOException {
+        final HttpServer server = startServer(false, new CopyOnWriteArrayList<>());
+        try {
+            final Path path = root.resolve("file");
+            Files.write(root.resolve("file.part"), Arrays.copyOf(CONTENT, 10));
+
+            assertTrue(downloader().downloadResumable(uri(server, "/file"), path).join().isPresent());
+            assertArrayEquals(CONTENT, Files.readAllBytes(path));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void completesWhenPartialIsAlreadyWhole(@TempDir final Path root) throws IOException {
+        final HttpServer server = startServer(true, new CopyOnWriteArrayList<>());
+        try {
+            final Path path = root.resolve("file");
+            Files.write(root.resolve("file.part"), CONTENT);
+
+            assertTrue(downloader().downloadResumable(uri(server, "/file"), path).join().isPresent());
+            assertArrayEquals(CONTENT, Files.readAllBytes(path));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void restartsWhenPartialDoesNotMatch(@TempDir final Path root) throws IOException {
+        final List<String> ranges = new CopyOnWriteArrayList<>();
+        final HttpServer server = startServer(true, ranges);
+        try {
+            final Path path = root.resolve("file");
+            // Longer than the file on the server, as if it had been replaced by a smaller one since
+            final byte[] stalePartial = new byte[CONTENT.length + 10];
+            Files.write(root.resolve("file.part"), stalePartial);
+
+            assertTrue(downloader().downloadResumable(uri(server, "/file"), path).join().isPresent());
+            assertEquals(List.of("bytes=" + stalePartial.length + "-", ""), ranges);
+            assertArrayEquals(CONTENT, Files.readAllBytes(path));
+            assertFalse(Files.exists(root.resolve("file.part")));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void concurrentDownloadsUseSeparateTemporaryFiles(@TempDir final Path root) throws IOException {
+        final HttpServer server = startServer(true, new CopyOnWriteArrayList<>());
+        try {
+            final Path path = root.resolve("file");
+            final List<CompletableFuture<HttpDownloader.Result>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(downloader().download(uri(server, "/file"), path));
+            }
+            for (final CompletableFuture<HttpDownloader.Result> future : futures) {
+                assertTrue(future.join().isPresent());
+            }
+            assertArrayEquals(CONTENT, Files.readAllBytes(path));
+            try (final Stream<Path> files = Files.list(root)) {
+                assertEquals(List.of(path), files.toList());
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.layer.LeveledRasterSampler;
+import dev.gegy.terrarium.backend.layer.RasterSampler;
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ExactRowResamplingTest {
+    private static final Executor EXECUTOR = Runnable::run;
+    private static final RasterShape MAP_SHAPE = new RasterShape(4320, 2160);
+
+    // A large view far north, where Mercator rows are very unevenly spaced in latitude
+    private static final GeoView VIEW = new GeoView(0, -12000, 4095, -7905);
+    private static final RasterShape OUTPUT_SHAPE = new RasterShape(256, 256);
+
+    @Test
+    public void largeMercatorViewsSampleEveryRowExactly() {
+        final Mercator projection = new Mercator(1000.0);
+        final LeveledRasterSampler<ShortRaster> sampler = new LeveledRasterSampler<>(new RowSampler());
+
+        final IntLikeRaster single = projection.createInterpolatedLayer(sampler, EXECUTOR).get(VIEW, OUTPUT_SHAPE).join().orElseThrow();
+        final IntLikeRaster fused = projection.createInterpolatedLayers(List.of(sampler), EXECUTOR).get(VIEW, OUTPUT_SHAPE).join().orElseThrow()
+                .getFirst().orElseThrow();
+
+        final double blocksPerRow = (VIEW.z1() + 0.5 - VIEW.z0()) / OUTPUT_SHAPE.height();
+        for (int row = 0; row < OUTPUT_SHAPE.height(); row++) {
+            final double lat = projection.lat(VIEW.z0() + row * blocksPerRow);
+            final double expectedMapRow = (90.0 - lat) / 180.0 * MAP_SHAPE.height();
+            assertEquals(expectedMapRow, single.getInt(0, row), 1.0, "row " + row);
+            assertEquals(expectedMapRow, fused.getInt(0, row), 1.0, "fused row " + row);
+        }
+    }
+
+    // Every value is the row it came from in the map, so that we can tell where each output row was sampled from
+    private record RowSampler() implements RasterSampler<ShortRaster> {
+        @Override
+        public CompletableFuture<Optional<ShortRaster>> get(final GeoView view) {
+            final ShortRaster raster = ShortRaster.create(view.shape());
+            for (int z = 0; z < view.height(); z++) {
+                for (int x = 0; x < view.width(); x++) {
+                    raster.putInt(x, z, view.z0() + z);
+                }
+            }
+            return CompletableFuture.completedFuture(Optional.of(raster));
+        }
+
+        @Override
+        public int width() {
+            return MAP_SHAPE.width();
+        }
+
+        @Override
+        public int height() {
+            return MAP_SHAPE.height();
+        }
+    }
+}
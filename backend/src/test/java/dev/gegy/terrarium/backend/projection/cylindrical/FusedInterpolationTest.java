@@ -0,0 +1,101 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.layer.GeoLayer;
+import dev.gegy.terrarium.backend.layer.LeveledRasterSampler;
+import dev.gegy.terrarium.backend.layer.RasterSampler;
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FusedInterpolationTest {
+    private static final Executor EXECUTOR = Runnable::run;
+
+    @Test
+    public void fusedLayersMatchIndividualLayers() {
+        final CylindricalProjection projection = new Equirectangular(2000.0);
+        final List<LeveledRasterSampler<? extends IntLikeRaster>> samplers = List.of(
+                new LeveledRasterSampler<>(
+                        new GeneratedSampler<>(360, 180, ShortRaster::create, 1),
+                        new GeneratedSampler<>(4320, 2160, ShortRaster::create, 2)
+                ),
+                new LeveledRasterSampler<>(new GeneratedSampler<>(4320, 2160, UnsignedByteRaster::create, 3)),
+                new LeveledRasterSampler<>(new GeneratedSampler<>(720, 360, ShortRaster::create, 4))
+        );
+        final GeoLayer<List<Optional<IntLikeRaster>>> fused = projection.createInterpolatedLayers(samplers, EXECUTOR);
+
+        for (final GeoView view : new GeoView[]{new GeoView(100, 200, 115, 215), new GeoView(-3000, -1000, -2937, -937)}) {
+            for (final RasterShape outputShape : new RasterShape[]{view.shape(), new RasterShape(4, 4)}) {
+                final List<Optional<IntLikeRaster>> fusedRasters = fused.get(view, outputShape).join().orElseThrow();
+                assertEquals(samplers.size(), fusedRasters.size());
+                for (int i = 0; i < samplers.size(); i++) {
+                    final IntLikeRaster expected = projection.createInterpolatedLayer(samplers.get(i), EXECUTOR).get(view, outputShape).join().orElseThrow();
+                    final IntLikeRaster actual = fusedRasters.get(i).orElseThrow();
+                    assertRastersEqual(expected, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void missingLayersStayMissing() {
+        final CylindricalProjection projection = new Equirectangular(2000.0);
+        final List<LeveledRasterSampler<? extends IntLikeRaster>> samplers = List.of(
+                new LeveledRasterSampler<>(new GeneratedSampler<>(4320, 2160, ShortRaster::create, 1)),
+                new LeveledRasterSampler<ShortRaster>(new MissingSampler(4320, 2160))
+        );
+        final List<Optional<IntLikeRaster>> rasters = projection.createInterpolatedLayers(samplers, EXECUTOR)
+                .getExact(new GeoView(0, 0, 15, 15))
+                .join().orElseThrow();
+        assertTrue(rasters.get(0).isPresent());
+        assertFalse(rasters.get(1).isPresent());
+    }
+
+    private static void assertRastersEqual(final IntLikeRaster expected, final IntLikeRaster actual) {
+        assertEquals(expected.shape(), actual.shape());
+        for (int y = 0; y < expected.height(); y++) {
+            for (int x = 0; x < expected.width(); x++) {
+                assertEquals(expected.getInt(x, y), actual.getInt(x, y), "at " + x + ", " + y);
+            }
+        }
+    }
+
+    private record GeneratedSampler<V extends IntLikeRaster>(int width, int height, Function<RasterShape, V> factory, int seed) implements RasterSampler<V> {
+        @Override
+        public CompletableFuture<Optional<V>> get(final GeoView view) {
+            final V raster = factory.apply(view.shape());
+            for (int z = 0; z < view.height(); z++) {
+                for (int x = 0; x < view.width(); x++) {
+                    raster.putInt(x, z, hash(view.x0() + x, view.z0() + z) & 0xff);
+                }
+            }
+            return CompletableFuture.completedFuture(Optional.of(raster));
+        }
+
+        private int hash(final int x, final int z) {
+            int hash = seed;
+            hash = hash * 31 + x;
+            hash = hash * 31 + z;
+            return (hash * 0x9e3779b9) >>> 16;
+        }
+    }
+
+    private record MissingSampler(int width, int height) implements RasterSampler<ShortRaster> {
+        @Override
+        public CompletableFuture<Optional<ShortRaster>> get(final GeoView view) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.RasterType;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 10, time = 10)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class InterpolationBench {
+    private static final float SCALE = 0.3f;
+    private static final float OFFSET = 1.37f;
+
+    @State(Scope.Thread)
+    public static class Rasters {
+        @Param({"LINEAR", "COSINE", "CUBIC"})
+        public String mode;
+        @Param({"16", "256"})
+        public int size;
+
+        public InterpolationMode interpolation;
+        public ShortRaster source;
+        public ShortRaster target;
+        public IntLikeRaster genericSource;
+        public IntLikeRaster genericTarget;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            interpolation = switch (mode) {
+                case "LINEAR" -> InterpolationMode.LINEAR;
+                case "COSINE" -> InterpolationMode.COSINE;
+                default -> InterpolationMode.CUBIC;
+            };
+
+            final int extent = (int) Math.floor((size - 1) * SCALE + OFFSET) + 3;
+            source = ShortRaster.create(new RasterShape(extent, extent));
+            final Random random = new Random(0);
+            for (int i = 0; i < source.buffer().length; i++) {
+                source.buffer()[i] = (short) random.nextInt(8000);
+            }
+            target = ShortRaster.create(new RasterShape(size, size));
+            genericSource = new GenericRaster(source);
+            genericTarget = new GenericRaster(target);
+        }
+    }
+
+    @Benchmark
+    public IntLikeRaster generic(final Rasters rasters) {
+        rasters.interpolation.resample(rasters.genericSource, rasters.genericTarget, SCALE, SCALE, OFFSET, OFFSET, 0, 0);
+        return rasters.genericTarget;
+    }
+
+    @Benchmark
+    public ShortRaster scalar(final Rasters rasters) {
+        resampleArray(rasters, false);
+        return rasters.target;
+    }
+
+    @Benchmark
+    public ShortRaster vector(final Rasters rasters) {
+        resampleArray(rasters, true);
+        return rasters.target;
+    }
+
+    private static void resampleArray(final Rasters rasters, final boolean vectorize) {
+        final SamplingTable table = rasters.interpolation.createTable(rasters.target.shape(), SCALE, SCALE, OFFSET, OFFSET);
+        if (rasters.interpolation instanceof InterpolationMode.TwoPoint) {
+            ArrayInterpolation.resampleTwoPoint(rasters.source, rasters.target, table, vectorize);
+        } else {
+            ArrayInterpolation.resampleCubic(rasters.source, rasters.target, table, vectorize);
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        Main.main(args);
+    }
+
+    // Hides the backing array, so that resampling has to go through getInt/putInt like it did before
+    private record GenericRaster(IntLikeRaster inner) implements IntLikeRaster {
+        @Override
+        public RasterType<? extends IntLikeRaster> type() {
+            return inner.type();
+        }
+
+        @Override
+        public RasterShape shape() {
+            return inner.shape();
+        }
+
+        @Override
+        public long byteSize() {
+            return inner.byteSize();
+        }
+
+        @Override
+        public void putInt(final int x, final int y, final int value) {
+            inner.putInt(x, y, value);
+        }
+
+        @Override
+        public int getInt(final int x, final int y) {
+            return inner.getInt(x, y);
+        }
+    }
+}
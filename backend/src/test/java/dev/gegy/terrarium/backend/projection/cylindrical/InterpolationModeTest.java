@@ -0,0 +1,126 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.RasterType;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class InterpolationModeTest {
+    private static final float SCALE = 0.3f;
+    private static final float OFFSET = 1.37f;
+
+    @Test
+    public void arrayPathsMatchGenericForShorts() {
+        for (final int size : new int[]{16, 37}) {
+            final ShortRaster source = randomShorts(sourceShape(size));
+            assertAllPathsMatch(source, size, ShortRaster::create, InterpolationModeTest::shorts);
+        }
+    }
+
+    @Test
+    public void arrayPathsMatchGenericForUnsignedBytes() {
+        for (final int size : new int[]{16, 37}) {
+            final UnsignedByteRaster source = randomBytes(sourceShape(size));
+            assertAllPathsMatch(source, size, UnsignedByteRaster::create, InterpolationModeTest::bytes);
+        }
+    }
+
+    private static <V extends IntLikeRaster> void assertAllPathsMatch(final V source, final int size, final Function<RasterShape, V> factory, final Function<V, int[]> values) {
+        final RasterShape targetShape = new RasterShape(size, size);
+        for (final InterpolationMode mode : new InterpolationMode[]{InterpolationMode.LINEAR, InterpolationMode.COSINE, InterpolationMode.CUBIC}) {
+            final V generic = factory.apply(targetShape);
+            mode.resample(new GenericRaster(source), new GenericRaster(generic), SCALE, SCALE, OFFSET, OFFSET, 0, 0);
+
+            final V scalar = factory.apply(targetShape);
+            resampleArray(mode, source, scalar, false);
+            assertArrayEquals(values.apply(generic), values.apply(scalar), "scalar " + size);
+
+            if (ArrayInterpolation.VECTORIZE) {
+                final V vector = factory.apply(targetShape);
+                resampleArray(mode, source, vector, true);
+                assertArrayEquals(values.apply(generic), values.apply(vector), "vector " + size);
+            }
+        }
+    }
+
+    private static void resampleArray(final InterpolationMode mode, final IntLikeRaster source, final IntLikeRaster target, final boolean vectorize) {
+        final SamplingTable table = mode.createTable(target.shape(), SCALE, SCALE, OFFSET, OFFSET);
+        if (mode instanceof InterpolationMode.TwoPoint) {
+            ArrayInterpolation.resampleTwoPoint(source, target, table, vectorize);
+        } else {
+            ArrayInterpolation.resampleCubic(source, target, table, vectorize);
+        }
+    }
+
+    private static RasterShape sourceShape(final int size) {
+        final int extent = (int) Math.floor((size - 1) * SCALE + OFFSET) + 3;
+        return new RasterShape(extent, extent);
+    }
+
+    private static ShortRaster randomShorts(final RasterShape shape) {
+        final Random random = new Random(0);
+        final ShortRaster raster = ShortRaster.create(shape);
+        for (int i = 0; i < shape.size(); i++) {
+            raster.buffer()[i] = (short) (random.nextInt(8000) - 500);
+        }
+        return raster;
+    }
+
+    private static UnsignedByteRaster randomBytes(final RasterShape shape) {
+        final Random random = new Random(0);
+        final UnsignedByteRaster raster = UnsignedByteRaster.create(shape);
+        random.nextBytes(raster.buffer());
+        return raster;
+    }
+
+    private static int[] shorts(final ShortRaster raster) {
+        final int[] values = new int[raster.buffer().length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = raster.buffer()[i];
+        }
+        return values;
+    }
+
+    private static int[] bytes(final UnsignedByteRaster raster) {
+        final int[] values = new int[raster.buffer().length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = raster.buffer()[i] & 0xff;
+        }
+        return values;
+    }
+
+    // Hides the backing array, so that resampling has to go through the generic path
+    private record GenericRaster(IntLikeRaster inner) implements IntLikeRaster {
+        @Override
+        public RasterType<? extends IntLikeRaster> type() {
+            return inner.type();
+        }
+
+        @Override
+        public RasterShape shape() {
+            return inner.shape();
+        }
+
+        @Override
+        public long byteSize() {
+            return inner.byteSize();
+        }
+
+        @Override
+        public void putInt(final int x, final int y, final int value) {
+            inner.putInt(x, y, value);
+        }
+
+        @Override
+        public int getInt(final int x, final int y) {
+            return inner.getInt(x, y);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+
+// Measures working out the bounds of a chunk, which every chunk needs once for the interpolated layers and once for
+// each Voronoi layer. Chunks are visited row by row, like generation around a player roughly does.
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 10, time = 10)
+@Fork(2)
+public class ProjectionBench {
+    private static final int CHUNKS_PER_ROW = 32;
+    private static final int ROWS = 32;
+    private static final RasterShape CHUNK_SHAPE = new RasterShape(16, 16);
+
+    @State(Scope.Thread)
+    public static class Chunks {
+        public Mercator projection;
+        public GeoView[] views;
+        public int index;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            projection = new Mercator(10.0);
+            views = new GeoView[CHUNKS_PER_ROW * ROWS];
+            for (int row = 0; row < ROWS; row++) {
+                for (int column = 0; column < CHUNKS_PER_ROW; column++) {
+                    final int x0 = column * 16;
+                    final int z0 = -200_000 + row * 16;
+                    views[column + row * CHUNKS_PER_ROW] = new GeoView(x0, z0, x0 + 15, z0 + 15);
+                }
+            }
+        }
+
+        public GeoView next() {
+            final GeoView view = views[index];
+            index = (index + 1) % views.length;
+            return view;
+        }
+    }
+
+    @Benchmark
+    public ViewBounds uncached(final Chunks chunks) {
+        final GeoView view = chunks.next();
+        final RowLatitudes latitudes = RowLatitudes.compute(chunks.projection, view, CHUNK_SHAPE.height());
+        return new ViewBounds(
+                chunks.projection.lon(view.x0()),
+                latitudes.south(),
+                chunks.projection.lon(view.x1() + 0.5),
+                latitudes.north(),
+                latitudes.rows()
+        );
+    }
+
+    @Benchmark
+    public ViewBounds cached(final Chunks chunks) {
+        return ViewBounds.of(chunks.projection, chunks.next(), CHUNK_SHAPE);
+    }
+
+    public static void main(final String[] args) throws IOException {
+        Main.main(args);
+    }
+}
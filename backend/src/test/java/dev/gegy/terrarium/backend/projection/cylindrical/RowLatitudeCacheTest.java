@@ -0,0 +1,35 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.GeoView;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RowLatitudeCacheTest {
+    @Test
+    public void chunksInTheSameRowShareLatitudes() {
+        final Mercator projection = new Mercator(10.0);
+        final RowLatitudeCache cache = new RowLatitudeCache(projection);
+
+        final RowLatitudes first = cache.get(new GeoView(0, -4096, 15, -4081), 16);
+        final RowLatitudes second = cache.get(new GeoView(1600, -4096, 1615, -4081), 16);
+        assertSame(first, second);
+
+        final RowLatitudes expected = RowLatitudes.compute(projection, new GeoView(0, -4096, 15, -4081), 16);
+        assertEquals(expected.north(), first.north());
+        assertEquals(expected.south(), first.south());
+        assertArrayEquals(expected.rows(), first.rows());
+    }
+
+    @Test
+    public void differentRowsOrResolutionsAreNotShared() {
+        final RowLatitudeCache cache = new RowLatitudeCache(new Mercator(10.0));
+        final RowLatitudes latitudes = cache.get(new GeoView(0, 0, 15, 15), 16);
+        assertNotSame(latitudes, cache.get(new GeoView(0, 16, 15, 31), 16));
+        assertNotSame(latitudes, cache.get(new GeoView(0, 0, 15, 15), 4));
+        assertNotSame(latitudes, cache.get(new GeoView(0, 0, 31, 31), 16));
+    }
+}
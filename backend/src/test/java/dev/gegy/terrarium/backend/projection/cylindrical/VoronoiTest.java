@@ -0,0 +1,134 @@
+package dev.gegy.terrarium.backend.projection.cylindrical;
+
+import dev.gegy.terrarium.backend.earth.cover.Cover;
+import dev.gegy.terrarium.backend.raster.EnumRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.RasterType;
+import dev.gegy.terrarium.backend.util.Util;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class VoronoiTest {
+    private static final RasterType<EnumRaster<Cover>> TYPE = EnumRaster.type(Cover.NONE, Cover.CODEC);
+    private static final float JITTER_RADIUS = 0.45f;
+    private static final long SEED = 21;
+
+    private static EnumRaster<Cover> randomSource(final Random random, final RasterShape shape) {
+        final Cover[] values = Cover.values();
+        final EnumRaster<Cover> raster = TYPE.create(shape);
+        for (int y = 0; y < shape.height(); y++) {
+            for (int x = 0; x < shape.width(); x++) {
+                raster.put(x, y, values[random.nextInt(values.length)]);
+            }
+        }
+        return raster;
+    }
+
+    @Test
+    public void matchesReference() {
+        final Voronoi voronoi = new Voronoi(JITTER_RADIUS, SEED);
+        final ReferenceVoronoi reference = new ReferenceVoronoi(JITTER_RADIUS, SEED);
+        final Random random = new Random(0);
+        for (int i = 0; i < 200; i++) {
+            final RasterShape sourceShape = new RasterShape(8 + random.nextInt(40), 8 + random.nextInt(40));
+            final EnumRaster<Cover> source = randomSource(random, sourceShape);
+            // Upsampling goes through the jittered cells, while downsampling takes the nearest
+            final float scaleX = i % 4 == 0 ? 1.0f + random.nextFloat() : 0.05f + random.nextFloat() * 0.9f;
+            final float scaleY = i % 4 == 0 ? 1.0f + random.nextFloat() : 0.05f + random.nextFloat() * 0.9f;
+            final float offsetX = 1.0f + random.nextFloat();
+            final float offsetY = 1.0f + random.nextFloat();
+            // Keep every sample, along with its neighbours, within the source
+            final int targetWidth = Math.max(1, Util.floorInt((sourceShape.width() - 2 - offsetX) / scaleX));
+            final int targetHeight = Math.max(1, Util.floorInt((sourceShape.height() - 2 - offsetY) / scaleY));
+            final RasterShape targetShape = new RasterShape(targetWidth, targetHeight);
+            final int seedX = random.nextInt();
+            final int seedY = random.nextInt();
+
+            final EnumRaster<Cover> expected = TYPE.create(targetShape);
+            reference.resample(source, expected, scaleX, scaleY, offsetX, offsetY, seedX, seedY);
+
+            final EnumRaster<Cover> actual = TYPE.create(targetShape);
+            voronoi.resample(source, actual, scaleX, scaleY, offsetX, offsetY, seedX, seedY);
+            assertArrayEquals(expected.buffer(), actual.buffer());
+
+            final EnumRaster<Cover> actualRows = TYPE.create(targetShape);
+            voronoi.resampleRows(source, actualRows, scaleX, offsetX, SamplingTable.positions(targetHeight, scaleY, offsetY), seedX, seedY);
+            assertArrayEquals(expected.buffer(), actualRows.buffer());
+
+            final float[] sourceXs = new float[targetShape.size()];
+            final float[] sourceYs = new float[targetShape.size()];
+            for (int y = 0; y < targetHeight; y++) {
+                for (int x = 0; x < targetWidth; x++) {
+                    sourceXs[targetShape.index(x, y)] = x * scaleX + offsetX;
+                    sourceYs[targetShape.index(x, y)] = y * scaleY + offsetY;
+                }
+            }
+            final EnumRaster<Cover> actualPoints = TYPE.create(targetShape);
+            voronoi.resamplePoints(source, actualPoints, sourceXs, sourceYs, seedX, seedY);
+            assertArrayEquals(expected.buffer(), actualPoints.buffer());
+        }
+    }
+
+    // Voronoi as it was before resampling moved onto the ordinal buffers, going through the enum values instead
+    private static final class ReferenceVoronoi {
+        private static final int JITTER_SIZE = 32;
+        private static final int JITTER_MASK = JITTER_SIZE - 1;
+
+        private final float[] jitterTable;
+
+        private ReferenceVoronoi(final float jitterRadius, final long seed) {
+            final Random random = new Random(seed);
+            jitterTable = new float[JITTER_SIZE * JITTER_SIZE * 2];
+            for (int y = 0; y < JITTER_SIZE; y++) {
+                for (int x = 0; x < JITTER_SIZE; x++) {
+                    final int idx = (x + y * JITTER_SIZE) * 2;
+                    jitterTable[idx] = random.nextFloat() * 2.0f * jitterRadius;
+                    jitterTable[idx + 1] = random.nextFloat() * 2.0f * jitterRadius;
+                }
+            }
+        }
+
+        private <T extends Enum<T>> void resample(final EnumRaster<T> source, final EnumRaster<T> target, final float scaleX, final float scaleY, final float offsetX, final float offsetY, final int seedX, final int seedY) {
+            final boolean nearest = target.width() <= source.width() && target.height() <= source.height();
+            for (int targetY = 0; targetY < target.height(); targetY++) {
+                for (int targetX = 0; targetX < target.width(); targetX++) {
+                    final float sourceX = targetX * scaleX + offsetX;
+                    final float sourceY = targetY * scaleY + offsetY;
+                    if (nearest) {
+                        target.put(targetX, targetY, source.get(Util.floorInt(sourceX), Util.floorInt(sourceY)));
+                    } else {
+                        target.put(targetX, targetY, sample(source, sourceX, sourceY, seedX, seedY));
+                    }
+                }
+            }
+        }
+
+        private <T extends Enum<T>> T sample(final EnumRaster<T> raster, final float x, final float y, final int seedX, final int seedY) {
+            final int originX = Util.floorInt(x);
+            final int originY = Util.floorInt(y);
+
+            int pickedX = originX;
+            int pickedY = originY;
+            float pickedDistance = Float.MAX_VALUE;
+
+            for (int cellY = originY - 1; cellY <= originY + 1; cellY++) {
+                for (int cellX = originX - 1; cellX <= originX + 1; cellX++) {
+                    final int jitterIdx = (cellX + seedX & JITTER_MASK) + (cellY + seedY & JITTER_MASK) * JITTER_SIZE;
+                    final float deltaX = cellX + jitterTable[jitterIdx] - x;
+                    final float deltaY = cellY + jitterTable[jitterIdx + 1] - y;
+                    final float distance = deltaX * deltaX + deltaY * deltaY;
+                    if (distance < pickedDistance) {
+                        pickedDistance = distance;
+                        pickedX = cellX;
+                        pickedY = cellY;
+                    }
+                }
+            }
+
+            return raster.get(pickedX, pickedY);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package dev.gegy.terrarium.backend.projection.transverse;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.layer.LeveledRasterSampler;
+import dev.gegy.terrarium.backend.layer.RasterSampler;
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransverseMercatorTest {
+    private static final Executor EXECUTOR = Runnable::run;
+    private static final RasterShape MAP_SHAPE = new RasterShape(4320, 2160);
+
+    @Test
+    public void blocksRoundTripThroughLatLon() {
+        final TransverseMercator projection = new TransverseMercator(100.0, 64.0, -20.0);
+        for (int z = -20000; z <= 20000; z += 4000) {
+            for (int x = -20000; x <= 20000; x += 4000) {
+                final double lat = projection.lat(x, z);
+                final double lon = projection.lon(x, z);
+                assertEquals(x, projection.blockX(lat, lon), 1.0e-6);
+                assertEquals(z, projection.blockZ(lat, lon), 1.0e-6);
+            }
+        }
+        assertEquals(64.0, projection.lat(0.0, 0.0), 1.0e-9);
+        assertEquals(-20.0, projection.lon(0.0, 0.0), 1.0e-9);
+    }
+
+    @Test
+    public void everyPixelIsSampledFromItsOwnLocation() {
+        // Far north, where a view is noticeably rotated relative to the map grid
+        final TransverseMercator projection = new TransverseMercator(1000.0, 70.0, 30.0);
+        final GeoView view = new GeoView(-2048, -2048, 2047, 2047);
+        final RasterShape outputShape = new RasterShape(64, 64);
+
+        final IntLikeRaster rows = projection.createInterpolatedLayer(new LeveledRasterSampler<>(new GradientSampler(false)), EXECUTOR)
+                .get(view, outputShape).join().orElseThrow();
+        final IntLikeRaster columns = projection.createInterpolatedLayer(new LeveledRasterSampler<>(new GradientSampler(true)), EXECUTOR)
+                .get(view, outputShape).join().orElseThrow();
+
+        final double blocksPerPixel = (view.x1() + 0.5 - view.x0()) / outputShape.width();
+        for (int y = 0; y < outputShape.height(); y++) {
+            for (int x = 0; x < outputShape.width(); x++) {
+                final double blockX = view.x0() + x * blocksPerPixel;
+                final double blockZ = view.z0() + y * blocksPerPixel;
+                final double expectedRow = (90.0 - projection.lat(blockX, blockZ)) / 180.0 * MAP_SHAPE.height();
+                final double expectedColumn = (projection.lon(blockX, blockZ) + 180.0) / 360.0 * MAP_SHAPE.width();
+                assertEquals(expectedRow, rows.getInt(x, y), 1.0, "row at " + x + ", " + y);
+                assertEquals(expectedColumn, columns.getInt(x, y), 1.0, "column at " + x + ", " + y);
+            }
+        }
+    }
+
+    @Test
+    public void quarterTurnFromOriginStaysFinite() {
+        final TransverseMercator projection = new TransverseMercator(100.0, 0.0, 0.0);
+        assertTrue(Double.isFinite(projection.blockX(0.0, 90.0)));
+        assertTrue(Double.isFinite(projection.blockX(0.0, -90.0)));
+        assertTrue(projection.blockX(0.0, 90.0) > projection.blockX(0.0, 89.0));
+    }
+
+    @Test
+    public void viewsAcrossAntimeridianSampleBothSidesAtFullDetail() {
+        final TransverseMercator projection = new TransverseMercator(100.0, 65.0, 180.0);
+        final GeoView view = new GeoView(-1024, -1024, 1023, 1023);
+        final RasterShape outputShape = new RasterShape(64, 64);
+
+        final IntLikeRaster columns = projection.createInterpolatedLayer(leveled(true), EXECUTOR)
+                .get(view, outputShape).join().orElseThrow();
+
+        final double blocksPerPixel = (view.x1() + 0.5 - view.x0()) / outputShape.width();
+        for (int y = 0; y < outputShape.height(); y++) {
+            for (int x = 0; x < outputShape.width(); x++) {
+                final double lon = projection.lon(view.x0() + x * blocksPerPixel, view.z0() + y * blocksPerPixel);
+                final double expectedColumn = Math.floorMod((long) Math.floor((lon + 180.0) * 1.0e6), 360_000_000L) / 1.0e6 / 360.0 * MAP_SHAPE.width();
+                // Interpolating right across the seam mixes the last and first columns of the map
+                if (expectedColumn < 4.0 || expectedColumn > MAP_SHAPE.width() - 4.0) {
+                    continue;
+                }
+                assertEquals(expectedColumn, columns.getInt(x, y), 1.0, "column at " + x + ", " + y);
+            }
+        }
+    }
+
+    @Test
+    public void viewsAroundPoleSampleAtFullDetail() {
+        final TransverseMercator projection = new TransverseMercator(100.0, 89.5, 0.0);
+        final GeoView view = new GeoView(-1024, -1024, 1023, 1023);
+        final RasterShape outputShape = new RasterShape(64, 64);
+
+        final IntLikeRaster rows = projection.createInterpolatedLayer(leveled(false), EXECUTOR)
+                .get(view, outputShape).join().orElseThrow();
+
+        final double blocksPerPixel = (view.x1() + 0.5 - view.x0()) / outputShape.width();
+        for (int y = 0; y < outputShape.height(); y++) {
+            for (int x = 0; x < outputShape.width(); x++) {
+                final double lat = projection.lat(view.x0() + x * blocksPerPixel, view.z0() + y * blocksPerPixel);
+                final double expectedRow = (90.0 - lat) / 180.0 * MAP_SHAPE.height();
+                assertEquals(expectedRow, rows.getInt(x, y), 1.0, "row at " + x + ", " + y);
+            }
+        }
+    }
+
+    private static LeveledRasterSampler<ShortRaster> leveled(final boolean columns) {
+        return new LeveledRasterSampler<>(
+                new GradientSampler(columns, new RasterShape(360, 180)),
+                new GradientSampler(columns, MAP_SHAPE)
+        );
+    }
+
+    // Every value is either the row or the column it came from in the map
+    private record GradientSampler(boolean columns, RasterShape shape) implements RasterSampler<ShortRaster> {
+        GradientSampler(final boolean columns) {
+            this(columns, MAP_SHAPE);
+        }
+
+        @Override
+        public CompletableFuture<Optional<ShortRaster>> get(final GeoView view) {
+            assertTrue(view.x0() >= 0 && view.z0() >= 0 && view.x1() < shape.width() && view.z1() < shape.height(), "View out of map: " + view);
+            final ShortRaster raster = ShortRaster.create(view.shape());
+            for (int z = 0; z < view.height(); z++) {
+                for (int x = 0; x < view.width(); x++) {
+                    raster.putInt(x, z, columns ? view.x0() + x : view.z0() + z);
+                }
+            }
+            return CompletableFuture.completedFuture(Optional.of(raster));
+        }
+
+        @Override
+        public int width() {
+            return shape.width();
+        }
+
+        @Override
+        public int height() {
+            return shape.height();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package dev.gegy.terrarium.backend.raster.reader;
+
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 10, time = 10)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class RasterFilterBench {
+    private static final RasterShape SHAPE = new RasterShape(1000, 1000);
+
+    @State(Scope.Thread)
+    public static class Rasters {
+        @Param({"LEFT", "UP", "AVERAGE", "PAETH"})
+        public RasterFilter filter;
+
+        public short[] shortValues;
+        public byte[] byteValues;
+        public ShortRaster shortRaster;
+        public UnsignedByteRaster byteRaster;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final Random random = new Random(0);
+            shortValues = new short[SHAPE.size()];
+            byteValues = new byte[SHAPE.size()];
+            for (int i = 0; i < SHAPE.size(); i++) {
+                shortValues[i] = (short) random.nextInt();
+                byteValues[i] = (byte) random.nextInt();
+            }
+            shortRaster = ShortRaster.create(SHAPE);
+            byteRaster = UnsignedByteRaster.create(SHAPE);
+        }
+
+        // Filtering is destructive, so every invocation needs to start from the same unfiltered values
+        @Setup(Level.Invocation)
+        public void reset() {
+            System.arraycopy(shortValues, 0, shortRaster.buffer(), 0, shortValues.length);
+            System.arraycopy(byteValues, 0, byteRaster.buffer(), 0, byteValues.length);
+        }
+    }
+
+    @Benchmark
+    public ShortRaster genericShort(final Rasters rasters) {
+        rasters.filter.evaluateInPlaceGeneric(rasters.shortRaster, 0, 0, SHAPE);
+        return rasters.shortRaster;
+    }
+
+    @Benchmark
+    public ShortRaster arrayShort(final Rasters rasters) {
+        rasters.filter.evaluateInPlace(rasters.shortRaster);
+        return rasters.shortRaster;
+    }
+
+    @Benchmark
+    public UnsignedByteRaster genericUnsignedByte(final Rasters rasters) {
+        rasters.filter.evaluateInPlaceGeneric(rasters.byteRaster, 0, 0, SHAPE);
+        return rasters.byteRaster;
+    }
+
+    @Benchmark
+    public UnsignedByteRaster arrayUnsignedByte(final Rasters rasters) {
+        rasters.filter.evaluateInPlace(rasters.byteRaster);
+        return rasters.byteRaster;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        Main.main(args);
+    }
+}
@@ -0,0 +1,99 @@
+package dev.gegy.terrarium.backend.raster.reader;
+
+import dev.gegy.terrarium.backend.raster.ByteRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class RasterFilterTest {
+    private static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    // Wide enough to cover a few whole vectors at any preferred species size, plus every length of scalar tail
+    private static final int MAX_WIDTH = 140;
+    private static final int HEIGHT = 4;
+
+    private static boolean[] vectorizeModes() {
+        return VECTOR_AVAILABLE ? new boolean[]{false, true} : new boolean[]{false};
+    }
+
+    @Test
+    public void shortsMatchGeneric() {
+        final Random random = new Random(0);
+        for (final RasterFilter filter : RasterFilter.values()) {
+            for (final boolean vectorize : vectorizeModes()) {
+                for (int width = 1; width <= MAX_WIDTH; width++) {
+                    // Filter a region within a larger raster, so that neighbours outside the region must be ignored
+                    final RasterShape shape = new RasterShape(width + 3, HEIGHT + 2);
+                    final RasterShape region = new RasterShape(width, HEIGHT);
+                    final short[] values = new short[shape.size()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = (short) random.nextInt();
+                    }
+
+                    final ShortRaster expected = ShortRaster.wrap(shape, values.clone());
+                    filter.evaluateInPlaceGeneric(expected, 2, 1, region);
+                    final short[] actual = values.clone();
+                    ArrayRasterFilters.evaluateShorts(filter, actual, shape.width(), 2, 1, region, vectorize);
+
+                    assertArrayEquals(expected.buffer(), actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void bytesMatchGeneric() {
+        final Random random = new Random(0);
+        for (final RasterFilter filter : RasterFilter.values()) {
+            for (final boolean vectorize : vectorizeModes()) {
+                for (final boolean unsigned : new boolean[]{false, true}) {
+                    for (int width = 1; width <= MAX_WIDTH; width++) {
+                        final RasterShape shape = new RasterShape(width + 3, HEIGHT + 2);
+                        final RasterShape region = new RasterShape(width, HEIGHT);
+                        final byte[] values = new byte[shape.size()];
+                        random.nextBytes(values);
+
+                        final byte[] expected = values.clone();
+                        if (unsigned) {
+                            filter.evaluateInPlaceGeneric(UnsignedByteRaster.wrap(shape, expected), 2, 1, region);
+                        } else {
+                            filter.evaluateInPlaceGeneric(ByteRaster.wrap(shape, expected), 2, 1, region);
+                        }
+                        final byte[] actual = values.clone();
+                        ArrayRasterFilters.evaluateBytes(filter, actual, unsigned, shape.width(), 2, 1, region, vectorize);
+
+                        assertArrayEquals(expected, actual);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void evaluateInPlaceMatchesGeneric() {
+        final Random random = new Random(0);
+        final RasterShape shape = new RasterShape(67, 9);
+        for (final RasterFilter filter : RasterFilter.values()) {
+            final ShortRaster expectedShorts = ShortRaster.create(shape);
+            final UnsignedByteRaster expectedBytes = UnsignedByteRaster.create(shape);
+            for (int i = 0; i < shape.size(); i++) {
+                expectedShorts.buffer()[i] = (short) random.nextInt();
+                expectedBytes.buffer()[i] = (byte) random.nextInt();
+            }
+            final ShortRaster actualShorts = ShortRaster.wrap(shape, expectedShorts.buffer().clone());
+            final UnsignedByteRaster actualBytes = UnsignedByteRaster.wrap(shape, expectedBytes.buffer().clone());
+
+            filter.evaluateInPlaceGeneric(expectedShorts, 0, 0, shape);
+            filter.evaluateInPlaceGeneric(expectedBytes, 0, 0, shape);
+            filter.evaluateInPlace(actualShorts);
+            filter.evaluateInPlace(actualBytes);
+
+            assertArrayEquals(expectedShorts.buffer(), actualShorts.buffer());
+            assertArrayEquals(expectedBytes.buffer(), actualBytes.buffer());
+        }
+    }
+}
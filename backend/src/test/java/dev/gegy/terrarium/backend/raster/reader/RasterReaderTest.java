@@ -0,0 +1,104 @@
+package dev.gegy.terrarium.backend.raster.reader;
+
+import dev.gegy.terrarium.backend.raster.IntLikeRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import org.junit.jupiter.api.Test;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RasterReaderTest {
+    private static final RasterShape SHAPE = new RasterShape(50, 37);
+    // Uneven splits, so that chunks of different sizes sit directly above and beside each other
+    private static final int[] CHUNK_COLUMNS = {0, 17, 50};
+    private static final int[] CHUNK_ROWS = {0, 12, 25, 37};
+    private static final int ITERATIONS = 20;
+
+    @Test
+    public void parallelDecodeMatchesSequential() throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Random random = new Random(0);
+            for (final RasterFormat<?> format : List.of(RasterFormat.SHORT, RasterFormat.UNSIGNED_BYTE)) {
+                for (final RasterFilter filter : RasterFilter.values()) {
+                    assertParallelMatchesSequential(format, filter, random, executor);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static <T extends IntLikeRaster> void assertParallelMatchesSequential(final RasterFormat<T> format, final RasterFilter filter, final Random random, final ExecutorService executor) throws IOException {
+        final byte[] bytes = encode(format, filter, random);
+        final int[] expected = values(RasterReader.read(bytes, format));
+        for (int i = 0; i < ITERATIONS; i++) {
+            final Optional<T> actual = RasterReader.loader(format, executor).load(ByteBuffer.wrap(bytes)).join();
+            assertTrue(actual.isPresent());
+            assertArrayEquals(expected, values(actual.get()), format + " with " + filter);
+        }
+    }
+
+    private static byte[] encode(final RasterFormat<?> format, final RasterFilter filter, final Random random) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.write("TERRARIUM/RASTER".getBytes(StandardCharsets.UTF_8));
+        output.writeByte(0);
+        output.writeInt(SHAPE.width());
+        output.writeInt(SHAPE.height());
+        output.writeByte(format.id());
+
+        for (int row = 0; row < CHUNK_ROWS.length - 1; row++) {
+            for (int column = 0; column < CHUNK_COLUMNS.length - 1; column++) {
+                final int x = CHUNK_COLUMNS[column];
+                final int y = CHUNK_ROWS[row];
+                final int width = CHUNK_COLUMNS[column + 1] - x;
+                final int height = CHUNK_ROWS[row + 1] - y;
+                final byte[] chunk = encodeChunk(x, y, width, height, filter, width * height * format.bytesPerValue(), random);
+                output.writeInt(chunk.length);
+                output.write(chunk);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeChunk(final int x, final int y, final int width, final int height, final RasterFilter filter, final int length, final Random random) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(x);
+        output.writeInt(y);
+        output.writeInt(width);
+        output.writeInt(height);
+        output.writeByte(filter.ordinal());
+
+        final byte[] values = new byte[length];
+        random.nextBytes(values);
+        try (final XZOutputStream xz = new XZOutputStream(output, new LZMA2Options())) {
+            xz.write(values);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int[] values(final IntLikeRaster raster) {
+        final int[] values = new int[SHAPE.size()];
+        for (int y = 0; y < SHAPE.height(); y++) {
+            for (int x = 0; x < SHAPE.width(); x++) {
+                values[x + y * SHAPE.width()] = raster.getInt(x, y);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,105 @@
+package dev.gegy.terrarium.backend.tile;
+
+import dev.gegy.terrarium.backend.loader.Cacher;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import dev.gegy.terrarium.backend.raster.reader.RasterFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DecodedTileCacherTest {
+    private static final RasterShape SHAPE = new RasterShape(7, 5);
+    private static final TileKey KEY = new TileKey(2, 3);
+
+    private static ShortRaster createRaster() {
+        final ShortRaster raster = ShortRaster.create(SHAPE);
+        for (int y = 0; y < SHAPE.height(); y++) {
+            for (int x = 0; x < SHAPE.width(); x++) {
+                raster.putShort(x, y, (short) (x * 1000 - y * 37));
+            }
+        }
+        return raster;
+    }
+
+    private static Supplier<CompletableFuture<Optional<ShortRaster>>> countingLoader(final AtomicInteger loadCount) {
+        return () -> {
+            loadCount.incrementAndGet();
+            return CompletableFuture.completedFuture(Optional.of(createRaster()));
+        };
+    }
+
+    private static Supplier<CompletableFuture<Optional<ShortRaster>>> failingLoader() {
+        return () -> CompletableFuture.failedFuture(new IOException("Should have been served from the store"));
+    }
+
+    @Test
+    public void roundTripsThroughStore() {
+        final MemoryStore store = new MemoryStore();
+        final DecodedTileCacher<ShortRaster> cacher = new DecodedTileCacher<>(store, RasterFormat.SHORT);
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        cacher.getOrLoad(KEY, countingLoader(loadCount)).join();
+        assertTrue(store.contains(KEY));
+
+        final Optional<ShortRaster> result = cacher.getOrLoad(KEY, failingLoader()).join();
+        assertTrue(result.isPresent());
+        assertEquals(SHAPE, result.get().shape());
+        assertArrayEquals(createRaster().buffer(), result.get().buffer());
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void repairsCorruptEntry() {
+        final MemoryStore store = new MemoryStore();
+        store.values.put(KEY, ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6}));
+        final DecodedTileCacher<ShortRaster> cacher = new DecodedTileCacher<>(store, RasterFormat.SHORT);
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        final Optional<ShortRaster> fallback = cacher.getOrLoad(KEY, countingLoader(loadCount)).join();
+        assertTrue(fallback.isPresent());
+        assertArrayEquals(createRaster().buffer(), fallback.get().buffer());
+        assertEquals(1, loadCount.get());
+
+        final Optional<ShortRaster> repaired = cacher.getOrLoad(KEY, failingLoader()).join();
+        assertTrue(repaired.isPresent());
+        assertArrayEquals(createRaster().buffer(), repaired.get().buffer());
+    }
+
+    private static class MemoryStore implements Cacher<TileKey, ByteBuffer> {
+        private final Map<TileKey, ByteBuffer> values = new ConcurrentHashMap<>();
+
+        @Override
+        public CompletableFuture<Optional<ByteBuffer>> getOrLoad(final TileKey key, final Supplier<CompletableFuture<Optional<ByteBuffer>>> loader) {
+            final ByteBuffer value = values.get(key);
+            if (value != null) {
+                return CompletableFuture.completedFuture(Optional.of(value));
+            }
+            return loader.get().thenApply(result -> {
+                result.ifPresent(v -> values.put(key, v));
+                return result;
+            });
+        }
+
+        @Override
+        public boolean contains(final TileKey key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public void remove(final TileKey key) {
+            values.remove(key);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package dev.gegy.terrarium.backend.tile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PackedTileCacherTest {
+    private static ByteBuffer bytes(final String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String string(final Optional<ByteBuffer> buffer) {
+        assertTrue(buffer.isPresent());
+        return StandardCharsets.UTF_8.decode(buffer.get().duplicate()).toString();
+    }
+
+    private static String getOrLoad(final PackedTileCacher cacher, final TileKey key, final String value) {
+        return string(cacher.getOrLoad(key, () -> CompletableFuture.completedFuture(Optional.of(bytes(value)))).join());
+    }
+
+    private static void awaitWrites(final ExecutorService executor) throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void loadsOnceAndServesFromStore(@TempDir final Path root) throws InterruptedException {
+        final AtomicInteger loadCount = new AtomicInteger();
+        final TileKey key = new TileKey(3, 40);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (final PackedTileCacher cacher = new PackedTileCacher(root, executor)) {
+            cacher.getOrLoad(key, () -> {
+                loadCount.incrementAndGet();
+                return CompletableFuture.completedFuture(Optional.of(bytes("tile")));
+            }).join();
+            awaitWrites(executor);
+        }
+
+        final ExecutorService reopenExecutor = Executors.newSingleThreadExecutor();
+        try (final PackedTileCacher cacher = new PackedTileCacher(root, reopenExecutor)) {
+            for (int i = 0; i < 3; i++) {
+                assertEquals("tile", string(cacher.getOrLoad(key, () -> {
+                    loadCount.incrementAndGet();
+                    return CompletableFuture.completedFuture(Optional.empty());
+                }).join()));
+            }
+            awaitWrites(reopenExecutor);
+        }
+
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void persistsAcrossRegions(@TempDir final Path root) throws InterruptedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (final PackedTileCacher cacher = new PackedTileCacher(root, executor)) {
+            assertEquals("a", getOrLoad(cacher, new TileKey(0, 0), "a"));
+            assertEquals("bb", getOrLoad(cacher, new TileKey(31, 31), "bb"));
+            assertEquals("ccc", getOrLoad(cacher, new TileKey(32, 0), "ccc"));
+            awaitWrites(executor);
+        }
+
+        final ExecutorService reopenExecutor = Executors.newSingleThreadExecutor();
+        try (final PackedTileCacher cacher = new PackedTileCacher(root, reopenExecutor)) {
+            assertEquals("a", getOrLoad(cacher, new TileKey(0, 0), "missing"));
+            assertEquals("bb", getOrLoad(cacher, new TileKey(31, 31), "missing"));
+            assertEquals("ccc", getOrLoad(cacher, new TileKey(32, 0), "missing"));
+            awaitWrites(reopenExecutor);
+        }
+    }
+
+    @Test
+    public void removedTilesAreLoadedAgain(@TempDir final Path root) throws InterruptedException {
+        final TileKey key = new TileKey(5, 7);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (final PackedTileCacher cacher = new PackedTileCacher(root, executor)) {
+            assertEquals("corrupt", getOrLoad(cacher, key, "corrupt"));
+            awaitWrites(executor);
+            assertTrue(cacher.contains(key));
+            cacher.remove(key);
+            assertFalse(cacher.contains(key));
+        }
+
+        final ExecutorService reopenExecutor = Executors.newSingleThreadExecutor();
+        try (final PackedTileCacher cacher = new PackedTileCacher(root, reopenExecutor)) {
+            assertFalse(cacher.isStored(key));
+            assertEquals("tile", getOrLoad(cacher, key, "tile"));
+            awaitWrites(reopenExecutor);
+        }
+    }
+
+    @Test
+    public void containsOnlyLooksAtOpenRegions(@TempDir final Path root) throws InterruptedException {
+        final TileKey key = new TileKey(5, 7);
+        final TileKey neighbour = new TileKey(6, 7);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (final PackedTileCacher cacher = new PackedTileCacher(root, executor)) {
+            assertEquals("tile", getOrLoad(cacher, key, "tile"));
+            awaitWrites(executor);
+        }
+
+        final ExecutorService reopenExecutor = Executors.newSingleThreadExecutor();
+        try (final PackedTileCacher cacher = new PackedTileCacher(root, reopenExecutor)) {
+            // Nothing has opened the region yet, so it isn't known to be resident without going to the disk
+            assertFalse(cacher.contains(key));
+            assertTrue(cacher.isStored(key));
+            assertTrue(cacher.contains(key));
+            assertFalse(cacher.contains(neighbour));
+            assertFalse(cacher.isStored(new TileKey(100, 100)));
+            awaitWrites(reopenExecutor);
+        }
+    }
+}
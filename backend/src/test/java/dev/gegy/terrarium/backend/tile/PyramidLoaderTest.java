@@ -0,0 +1,116 @@
+package dev.gegy.terrarium.backend.tile;
+
+import dev.gegy.terrarium.backend.earth.cover.Cover;
+import dev.gegy.terrarium.backend.loader.Loader;
+import dev.gegy.terrarium.backend.raster.Downsampler;
+import dev.gegy.terrarium.backend.raster.EnumRaster;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.RasterType;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PyramidLoaderTest {
+    // Doesn't divide by the factor, so blocks straddle tiles
+    private static final RasterShape TILE_SHAPE = new RasterShape(4, 4);
+
+    private static Loader<TileKey, ShortRaster> finerLoader(final Set<TileKey> cached) {
+        return new Loader<>() {
+            @Override
+            public CompletableFuture<Optional<ShortRaster>> load(final TileKey key) {
+                final ShortRaster raster = ShortRaster.create(TILE_SHAPE);
+                for (int y = 0; y < TILE_SHAPE.height(); y++) {
+                    for (int x = 0; x < TILE_SHAPE.width(); x++) {
+                        raster.putShort(x, y, (short) (key.x() * TILE_SHAPE.width() + x + (key.y() * TILE_SHAPE.height() + y) * 100));
+                    }
+                }
+                return CompletableFuture.completedFuture(Optional.of(raster));
+            }
+
+            @Override
+            public boolean isCached(final TileKey key) {
+                return cached.contains(key);
+            }
+        };
+    }
+
+    private static Loader<TileKey, ShortRaster> countingLoader(final AtomicInteger loadCount) {
+        return key -> {
+            loadCount.incrementAndGet();
+            return CompletableFuture.completedFuture(Optional.of(ShortRaster.create(TILE_SHAPE)));
+        };
+    }
+
+    private static Set<TileKey> allChildren() {
+        final List<TileKey> keys = new ArrayList<>();
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 3; x++) {
+                keys.add(new TileKey(x, y));
+            }
+        }
+        return Set.copyOf(keys);
+    }
+
+    @Test
+    public void derivesFromCachedFinerTiles() {
+        final AtomicInteger loadCount = new AtomicInteger();
+        final TileMap<ShortRaster> finer = new TileMap<>(3, 3, TILE_SHAPE, finerLoader(allChildren()));
+        final PyramidLoader<ShortRaster> loader = new PyramidLoader<>(countingLoader(loadCount), finer, 3, ShortRaster.TYPE, Downsampler.average(), Runnable::run);
+
+        assertTrue(loader.isCached(new TileKey(0, 0)));
+        final ShortRaster raster = loader.load(new TileKey(0, 0)).join().orElseThrow();
+        assertEquals(0, loadCount.get());
+
+        // The source value at (x, y) is x + y * 100 across the whole finer level, so the mean of a 3x3 block is its centre
+        for (int y = 0; y < TILE_SHAPE.height(); y++) {
+            for (int x = 0; x < TILE_SHAPE.width(); x++) {
+                assertEquals((x * 3 + 1) + (y * 3 + 1) * 100, raster.getShort(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void fetchesWhenFinerTilesAreMissing() {
+        final AtomicInteger loadCount = new AtomicInteger();
+        final Set<TileKey> cached = new HashSet<>(allChildren());
+        cached.remove(new TileKey(2, 1));
+        final TileMap<ShortRaster> finer = new TileMap<>(3, 3, TILE_SHAPE, finerLoader(cached));
+        final PyramidLoader<ShortRaster> loader = new PyramidLoader<>(countingLoader(loadCount), finer, 3, ShortRaster.TYPE, Downsampler.average(), Runnable::run);
+
+        assertFalse(loader.isCached(new TileKey(0, 0)));
+        loader.load(new TileKey(0, 0)).join();
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void majorityPicksMostCommonValue() {
+        final RasterType<EnumRaster<Cover>> type = EnumRaster.type(Cover.NONE, Cover.CODEC);
+        final RasterShape shape = new RasterShape(1, 1);
+        final List<EnumRaster<Cover>> sources = new ArrayList<>();
+        final Cover[] values = {
+                Cover.WATER, Cover.RAINFED_CROPLAND, Cover.WATER,
+                Cover.RAINFED_CROPLAND, Cover.BROADLEAF_EVERGREEN, Cover.RAINFED_CROPLAND,
+                Cover.WATER, Cover.BROADLEAF_EVERGREEN, Cover.WATER,
+        };
+        for (final Cover value : values) {
+            final EnumRaster<Cover> source = type.create(shape);
+            source.put(0, 0, value);
+            sources.add(source);
+        }
+
+        final EnumRaster<Cover> output = type.create(shape);
+        Downsampler.<Cover>majority().downsample(sources, 3, output);
+        assertEquals(Cover.WATER, output.get(0, 0));
+    }
+}
@@ -0,0 +1,91 @@
+package dev.gegy.terrarium.backend.tile;
+
+import dev.gegy.terrarium.backend.GeoView;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.ShortRaster;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TiledRasterSamplerTest {
+    private static final Executor EXECUTOR = Runnable::run;
+    private static final RasterShape TILE_SHAPE = new RasterShape(64, 64);
+
+    private static TileMap<ShortRaster> createMap(final Map<TileKey, AtomicInteger> loadCounts) {
+        return new TileMap<>(8, 8, TILE_SHAPE, key -> {
+            loadCounts.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            final ShortRaster raster = ShortRaster.create(TILE_SHAPE);
+            for (int y = 0; y < TILE_SHAPE.height(); y++) {
+                for (int x = 0; x < TILE_SHAPE.width(); x++) {
+                    raster.putShort(x, y, (short) (key.x() * 1000 + key.y() * 100 + x + y));
+                }
+            }
+            return CompletableFuture.completedFuture(Optional.of(raster));
+        });
+    }
+
+    private static GeoView view(final int x, final int z) {
+        return new GeoView(x, z, x + 15, z + 15);
+    }
+
+    @Test
+    public void batchLoadsSharedTilesOnce() {
+        final Map<TileKey, AtomicInteger> loadCounts = new ConcurrentHashMap<>();
+        final TiledRasterSampler<ShortRaster> sampler = new TiledRasterSampler<>(
+                createMap(loadCounts), ShortRaster.TYPE, EXECUTOR,
+                new TiledRasterSampler.Batching(Duration.ofMillis(200), 0)
+        );
+        final TiledRasterSampler<ShortRaster> unbatched = new TiledRasterSampler<>(createMap(new ConcurrentHashMap<>()), ShortRaster.TYPE, EXECUTOR);
+
+        // All within tile (1, 1), apart from the last which straddles into (2, 1)
+        final List<GeoView> views = List.of(view(64, 64), view(80, 64), view(64, 80), view(120, 64));
+        final List<CompletableFuture<Optional<ShortRaster>>> futures = views.stream().map(sampler::get).toList();
+        for (int i = 0; i < views.size(); i++) {
+            final ShortRaster expected = unbatched.get(views.get(i)).join().orElseThrow();
+            final ShortRaster actual = futures.get(i).join().orElseThrow();
+            for (int y = 0; y < 16; y++) {
+                for (int x = 0; x < 16; x++) {
+                    assertEquals(expected.getShort(x, y), actual.getShort(x, y));
+                }
+            }
+        }
+
+        assertEquals(Set.of(new TileKey(1, 1), new TileKey(2, 1)), loadCounts.keySet());
+        assertEquals(1, loadCounts.get(new TileKey(1, 1)).get());
+        assertEquals(1, loadCounts.get(new TileKey(2, 1)).get());
+    }
+
+    @Test
+    public void prefetchesOnlyOnceMovingPastThreshold() {
+        final Map<TileKey, AtomicInteger> loadCounts = new ConcurrentHashMap<>();
+        final TiledRasterSampler<ShortRaster> sampler = new TiledRasterSampler<>(
+                createMap(loadCounts), ShortRaster.TYPE, EXECUTOR,
+                new TiledRasterSampler.Batching(Duration.ofMillis(1), 1)
+        );
+
+        // Jittering back and forth by a pixel stays well below 1/64th of a tile per batch
+        for (int i = 0; i < 8; i++) {
+            sampler.get(view(128 + (i % 2), 128)).join();
+        }
+        assertEquals(Set.of(new TileKey(2, 2)), loadCounts.keySet());
+
+        // Each step is a third of a tile, which the smoothed movement passes on the first batch
+        sampler.get(view(150, 128)).join();
+        assertTrue(loadCounts.containsKey(new TileKey(3, 2)), "Expected the tile ahead to be prefetched");
+        assertFalse(loadCounts.containsKey(new TileKey(1, 2)));
+        assertFalse(loadCounts.containsKey(new TileKey(2, 1)));
+        assertFalse(loadCounts.containsKey(new TileKey(2, 3)));
+    }
+}
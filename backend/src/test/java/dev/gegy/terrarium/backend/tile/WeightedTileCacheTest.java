@@ -0,0 +1,91 @@
+package dev.gegy.terrarium.backend.tile;
+
+import dev.gegy.terrarium.backend.loader.Cacher;
+import dev.gegy.terrarium.backend.loader.Loader;
+import dev.gegy.terrarium.backend.raster.RasterShape;
+import dev.gegy.terrarium.backend.raster.UnsignedByteRaster;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WeightedTileCacheTest {
+    private static final RasterShape TILE_SHAPE = new RasterShape(10, 10);
+
+    private static <V> Cacher<TileKey, V> createCacher(final WeightedTileCache cache) {
+        final Loader<TileKey, V> loader = key -> CompletableFuture.completedFuture(Optional.empty());
+        return cache.createCacher(new TileMap<>(64, 64, TILE_SHAPE, loader));
+    }
+
+    @Test
+    public void evictsByRasterSize() {
+        final WeightedTileCache cache = new WeightedTileCache(Duration.ofMinutes(1), 1000);
+        final Cacher<TileKey, UnsignedByteRaster> cacher = createCacher(cache);
+
+        for (int i = 0; i < 40; i++) {
+            cacher.getOrLoad(new TileKey(i, 0), () -> CompletableFuture.completedFuture(Optional.of(UnsignedByteRaster.create(TILE_SHAPE)))).join();
+        }
+
+        final WeightedTileCache.Stats stats = cache.stats();
+        assertTrue(stats.evictionCount() > 0, "Expected evictions past the byte budget");
+        assertTrue(stats.residentBytes() > 0 && stats.residentBytes() <= 1000, "Resident bytes out of budget: " + stats.residentBytes());
+        assertEquals(stats.residentTiles() * TILE_SHAPE.size(), stats.residentBytes());
+    }
+
+    @Test
+    public void retriesFailedLoads() {
+        final WeightedTileCache cache = new WeightedTileCache(Duration.ofMinutes(1), 1000);
+        final Cacher<TileKey, UnsignedByteRaster> cacher = createCacher(cache);
+        final TileKey key = new TileKey(0, 0);
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        final CompletableFuture<Optional<UnsignedByteRaster>> failed = cacher.getOrLoad(key, () -> {
+            loadCount.incrementAndGet();
+            return CompletableFuture.failedFuture(new IOException("Failed to load"));
+        });
+        assertThrows(CompletionException.class, failed::join);
+        assertFalse(cacher.contains(key));
+
+        final Optional<UnsignedByteRaster> result = cacher.getOrLoad(key, () -> {
+            loadCount.incrementAndGet();
+            return CompletableFuture.completedFuture(Optional.of(UnsignedByteRaster.create(TILE_SHAPE)));
+        }).join();
+        assertTrue(result.isPresent());
+        assertTrue(cacher.contains(key));
+        assertEquals(2, loadCount.get());
+        assertEquals((long) TILE_SHAPE.size(), cache.stats().residentBytes());
+    }
+
+    @Test
+    public void containsDoesNotCountAsAccess() {
+        final WeightedTileCache cache = new WeightedTileCache(Duration.ofMinutes(1), 1000);
+        final Cacher<TileKey, UnsignedByteRaster> cacher = createCacher(cache);
+
+        for (int i = 0; i < 40; i++) {
+            cacher.getOrLoad(new TileKey(i, 0), () -> CompletableFuture.completedFuture(Optional.of(UnsignedByteRaster.create(TILE_SHAPE)))).join();
+        }
+        final WeightedTileCache.Stats before = cache.stats();
+
+        int containedCount = 0;
+        for (int i = 0; i < 40; i++) {
+            if (cacher.contains(new TileKey(i, 0))) {
+                containedCount++;
+            }
+        }
+
+        final WeightedTileCache.Stats after = cache.stats();
+        assertEquals(before.hitCount(), after.hitCount());
+        assertEquals(before.missCount(), after.missCount());
+        assertEquals(after.residentTiles(), containedCount);
+        assertFalse(cacher.contains(new TileKey(0, 0)), "Evicted tiles should not be reported as resident");
+    }
+}
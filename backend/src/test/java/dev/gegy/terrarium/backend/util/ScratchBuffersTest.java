@@ -0,0 +1,47 @@
+package dev.gegy.terrarium.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScratchBuffersTest {
+    @Test
+    public void reusesBuffersAcrossScopes() {
+        final float[] first;
+        try (final ScratchBuffers scratch = ScratchBuffers.acquire()) {
+            first = scratch.floats(64);
+        }
+        try (final ScratchBuffers scratch = ScratchBuffers.acquire()) {
+            assertSame(first, scratch.floats(32));
+        }
+    }
+
+    @Test
+    public void growsBuffersThatAreTooSmall() {
+        try (final ScratchBuffers scratch = ScratchBuffers.acquire()) {
+            scratch.ints(16);
+        }
+        try (final ScratchBuffers scratch = ScratchBuffers.acquire()) {
+            assertTrue(scratch.ints(1024).length >= 1024);
+        }
+    }
+
+    @Test
+    public void handsOutDistinctBuffersWithinScope() {
+        try (final ScratchBuffers scratch = ScratchBuffers.acquire()) {
+            assertNotSame(scratch.floats(16), scratch.floats(16));
+        }
+    }
+
+    @Test
+    public void nestedScopesDoNotShareBuffers() {
+        try (final ScratchBuffers outer = ScratchBuffers.acquire()) {
+            final float[] outerBuffer = outer.floats(16);
+            try (final ScratchBuffers inner = ScratchBuffers.acquire()) {
+                assertNotSame(outerBuffer, inner.floats(16));
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@ import dev.gegy.terrarium.backend.expr.predictor.Predictor;
 import dev.gegy.terrarium.backend.expr.predictor.PredictorNode;
 import dev.gegy.terrarium.backend.loader.ConcurrencyLimiter;
 import dev.gegy.terrarium.backend.tile.TileCache;
+import dev.gegy.terrarium.backend.tile.TiledRasterSampler;
 import dev.gegy.terrarium.command.GeoTeleportCommand;
 import dev.gegy.terrarium.integration.distant_horizons.DistantHorizonsIntegration;
 import dev.gegy.terrarium.registry.HolderClassifierNode;
@@ -114,8 +115,16 @@ public class Terrarium {
     }
 
     public static EarthTiles createTiles(final TileCache cache) {
+        return createTiles(cache, TiledRasterSampler.Batching.DISABLED);
+    }
+
+    public static EarthTiles createTiles(final TileCache cache, final TiledRasterSampler.Batching batching) {
+        return createTiles(cache, batching, ConcurrencyLimiter.Purpose.GENERATION);
+    }
+
+    public static EarthTiles createTiles(final TileCache cache, final TiledRasterSampler.Batching batching, final ConcurrencyLimiter.Purpose purpose) {
         final EarthTiles.Config tiles = Objects.requireNonNull(Terrarium.tiles, "Terrarium was not bootstrapped");
-        return tiles.create(cache);
+        return tiles.create(cache, batching, purpose);
     }
 
     public static Codec<PredictorNode<GeoParameters>> predictorCodec() {
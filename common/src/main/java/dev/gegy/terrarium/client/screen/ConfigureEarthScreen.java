@@ -2,11 +2,15 @@ package dev.gegy.terrarium.client.screen;
 
 import com.mojang.logging.LogUtils;
 import dev.gegy.terrarium.backend.earth.EarthConfiguration;
+import dev.gegy.terrarium.backend.earth.GeoChunkRetention;
+import dev.gegy.terrarium.backend.projection.Projection;
 import dev.gegy.terrarium.backend.projection.cylindrical.Mercator;
+import dev.gegy.terrarium.backend.projection.transverse.TransverseMercator;
 import dev.gegy.terrarium.backend.util.LogarithmicSliderMapper;
 import dev.gegy.terrarium.world.generator.chunk.EarthChunkGenerator;
 import net.minecraft.client.gui.components.AbstractSliderButton;
 import net.minecraft.client.gui.components.Button;
+import net.minecraft.client.gui.components.CycleButton;
 import net.minecraft.client.gui.components.StringWidget;
 import net.minecraft.client.gui.layouts.HeaderAndFooterLayout;
 import net.minecraft.client.gui.layouts.LinearLayout;
@@ -96,6 +100,12 @@ public class ConfigureEarthScreen extends Screen {
             }
         });
 
+        contents.addChild(CycleButton.onOffBuilder(configurationState.geoChunkRetention == GeoChunkRetention.KEEP).create(
+                0, 0, Button.DEFAULT_WIDTH, Button.DEFAULT_HEIGHT,
+                Component.literal("Save Geo Data"),
+                (button, keep) -> configurationState.geoChunkRetention = keep ? GeoChunkRetention.KEEP : GeoChunkRetention.UNTIL_GENERATED
+        ));
+
         final LinearLayout footer = layout.addToFooter(LinearLayout.horizontal()).spacing(CONTENT_SPACING);
 
         footer.addChild(Button.builder(CommonComponents.GUI_DONE, b -> {
@@ -119,23 +129,35 @@ public class ConfigureEarthScreen extends Screen {
     }
 
     private static class ConfigurationState {
+        private final Projection projection;
         private int scale;
         private float heightScale;
         private int heightOffset;
+        private GeoChunkRetention geoChunkRetention;
 
         public ConfigurationState(final EarthConfiguration configuration) {
-            scale = Mth.floor(configuration.projection().idealMetersPerBlock());
+            projection = configuration.projection();
+            scale = Mth.floor(projection.idealMetersPerBlock());
             heightScale = configuration.heightScale();
             heightOffset = configuration.heightOffset();
+            geoChunkRetention = configuration.geoChunkRetention();
         }
 
         public EarthConfiguration buildConfiguration() {
             return new EarthConfiguration(
-                    new Mercator(scale),
+                    buildProjection(),
                     heightScale,
-                    heightOffset
+                    heightOffset,
+                    geoChunkRetention
             );
         }
+
+        private Projection buildProjection() {
+            if (projection instanceof final TransverseMercator transverseMercator) {
+                return transverseMercator.withMetersPerBlock(scale);
+            }
+            return new Mercator(scale);
+        }
     }
 
     private static abstract class SliderWidget extends AbstractSliderButton {
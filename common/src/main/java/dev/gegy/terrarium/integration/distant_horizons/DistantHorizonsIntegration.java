@@ -44,10 +44,11 @@ public class DistantHorizonsIntegration {
         if (levelWrapper.getWrappedMcObject() instanceof final ServerLevel level
                 && level.getChunkSource().getGenerator() instanceof final GeoChunkGenerator geoGenerator
         ) {
-            final GeoProvider geoProvider = GeoProviderHolder.get(level);
-            if (geoProvider == null) {
+            if (GeoProviderHolder.get(level) == null) {
                 return;
             }
+            // LODs load through their own provider, so that their tile downloads queue behind chunk generation
+            final GeoProvider geoProvider = geoGenerator.createLodGeoProvider();
             final GeoLodGenerator lodGenerator = new GeoLodGenerator(levelWrapper, geoProvider, geoGenerator);
             final DhApiResult<Void> result = DhApi.worldGenOverrides.registerWorldGeneratorOverride(levelWrapper, lodGenerator);
             if (!result.success) {
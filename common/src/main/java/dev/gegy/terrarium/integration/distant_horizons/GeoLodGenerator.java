@@ -35,7 +35,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 public final class GeoLodGenerator implements IDhApiWorldGenerator {
@@ -78,10 +80,22 @@ public final class GeoLodGenerator implements IDhApiWorldGenerator {
 
         final RasterShape outputShape = new RasterShape(lodSizePoints, lodSizePoints);
 
-        return geoProvider.load(blockSampleView, outputShape).thenAcceptAsync(
-                geoChunk -> {
-                    buildLod(pooledFullDataSource, geoChunk);
+        // The data source is pooled and may still be in use by Distant Horizons once handed over, so it is only ever
+        // filled and delivered once. A rough preview from data that was already at hand is kept in case the full load
+        // fails, since that still beats leaving a hole.
+        final AtomicReference<GeoChunk> preview = new AtomicReference<>();
+        return geoProvider.loadProgressive(blockSampleView, outputShape, preview::set).<Void>handleAsync(
+                (geoChunk, throwable) -> {
+                    final GeoChunk result = throwable == null ? geoChunk : preview.get();
+                    if (result == null) {
+                        throw new CompletionException(throwable);
+                    }
+                    if (throwable != null) {
+                        LOGGER.warn("Failed to load LOD at {}, {}; falling back to preview", chunkPosMinX, chunkPosMinZ, throwable);
+                    }
+                    buildLod(pooledFullDataSource, result);
                     resultConsumer.accept(pooledFullDataSource);
+                    return null;
                 },
                 worldGeneratorThreadPool
         );
@@ -1,17 +1,22 @@
 package dev.gegy.terrarium.mixin.geo_chunk;
 
 import dev.gegy.terrarium.backend.GeoChunk;
+import dev.gegy.terrarium.backend.PendingGeoChunk;
 import dev.gegy.terrarium.world.chunk.GeoChunkHolder;
+import dev.gegy.terrarium.world.chunk.PendingGeoChunkHolder;
 import net.minecraft.world.level.chunk.ProtoChunk;
 import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
 
 @Mixin(ProtoChunk.class)
-public class ProtoChunkMixin implements GeoChunkHolder {
+public class ProtoChunkMixin implements GeoChunkHolder, PendingGeoChunkHolder {
     @Unique
     @Nullable
     private GeoChunk terrarium$geoChunk;
+    @Unique
+    @Nullable
+    private PendingGeoChunk terrarium$pendingGeoChunk;
 
     @Override
     public void terrarium$putGeoChunk(final GeoChunk geoChunk) {
@@ -23,4 +28,15 @@ public class ProtoChunkMixin implements GeoChunkHolder {
     public GeoChunk terrarium$getGeoChunk() {
         return terrarium$geoChunk;
     }
+
+    @Override
+    public void terrarium$putPendingGeoChunk(final PendingGeoChunk pendingChunk) {
+        terrarium$pendingGeoChunk = pendingChunk;
+    }
+
+    @Override
+    @Nullable
+    public PendingGeoChunk terrarium$getPendingGeoChunk() {
+        return terrarium$pendingGeoChunk;
+    }
 }
@@ -1,8 +1,10 @@
 package dev.gegy.terrarium.mixin.geo_chunk;
 
+import com.mojang.logging.LogUtils;
 import dev.gegy.terrarium.Terrarium;
 import dev.gegy.terrarium.backend.GeoChunk;
 import dev.gegy.terrarium.world.chunk.GeoChunkHolder;
+import dev.gegy.terrarium.world.generator.chunk.GeoChunkGenerator;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerLevel;
@@ -15,16 +17,26 @@ import net.minecraft.world.level.chunk.ProtoChunk;
 import net.minecraft.world.level.chunk.storage.RegionStorageInfo;
 import net.minecraft.world.level.chunk.storage.SerializableChunkData;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
+import java.io.IOException;
+import java.util.Optional;
+
 @Mixin(SerializableChunkData.class)
 public class SerializableChunkDataMixin implements GeoChunkHolder {
     @Unique
-    private static final String GEO_TAG_KEY = "geo";
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    // Chunks saved before GeoChunks had a binary form store them through the codec under this key instead
+    @Unique
+    private static final String LEGACY_GEO_TAG_KEY = "geo";
+    @Unique
+    private static final String GEO_DATA_KEY = "geo_data";
 
     @Unique
     private GeoChunk terrarium$geoChunk = GeoChunk.EMPTY;
@@ -32,6 +44,9 @@ public class SerializableChunkDataMixin implements GeoChunkHolder {
     @Inject(method = "copyOf", at = @At("RETURN"))
     private static void copyOf(final ServerLevel level, final ChunkAccess chunk, final CallbackInfoReturnable<SerializableChunkData> ci) {
         final SerializableChunkData data = ci.getReturnValue();
+        if (level.getChunkSource().getGenerator() instanceof final GeoChunkGenerator generator && !generator.shouldSaveGeoChunk(chunk.getPersistedStatus())) {
+            return;
+        }
         GeoChunkHolder.put(data, GeoChunkHolder.get(chunk));
     }
 
@@ -39,16 +54,31 @@ public class SerializableChunkDataMixin implements GeoChunkHolder {
     private static void parse(final LevelHeightAccessor levelHeight, final RegistryAccess registries, final CompoundTag rootTag, final CallbackInfoReturnable<SerializableChunkData> ci) {
         final SerializableChunkData data = ci.getReturnValue();
         rootTag.getCompound(Terrarium.ID)
-                .flatMap(terrariumRoot -> terrariumRoot.read(GEO_TAG_KEY, GeoChunk.CODEC))
+                .flatMap(terrariumRoot -> terrarium$readGeoChunk(terrariumRoot))
                 .ifPresent(geoChunk -> GeoChunkHolder.put(data, geoChunk));
     }
 
+    @Unique
+    private static Optional<GeoChunk> terrarium$readGeoChunk(final CompoundTag terrariumRoot) {
+        final Optional<byte[]> data = terrariumRoot.getByteArray(GEO_DATA_KEY);
+        if (data.isEmpty()) {
+            return terrariumRoot.read(LEGACY_GEO_TAG_KEY, GeoChunk.CODEC);
+        }
+        try {
+            return Optional.of(GeoChunk.fromBytes(data.get()));
+        } catch (final IOException e) {
+            // Same as if the codec had failed to parse it: the chunk is treated as having nothing stored
+            LOGGER.warn("Failed to read stored GeoChunk", e);
+            return Optional.empty();
+        }
+    }
+
     @Inject(method = "write", at = @At("RETURN"))
     private void write(final CallbackInfoReturnable<CompoundTag> ci) {
         final CompoundTag rootTag = ci.getReturnValue();
         if (!terrarium$geoChunk.isEmpty()) {
             final CompoundTag terrariumRoot = new CompoundTag();
-            terrariumRoot.store(GEO_TAG_KEY, GeoChunk.CODEC, terrarium$geoChunk);
+            terrariumRoot.putByteArray(GEO_DATA_KEY, terrarium$geoChunk.toBytes());
             rootTag.put(Terrarium.ID, terrariumRoot);
         }
     }
@@ -2,6 +2,7 @@ package dev.gegy.terrarium.registry;
 
 import dev.gegy.terrarium.backend.expr.ExprCaptures;
 import dev.gegy.terrarium.backend.expr.classifier.ClassifierNode;
+import dev.gegy.terrarium.backend.expr.predictor.Predictor;
 import net.minecraft.core.Holder;
 import org.objectweb.asm.MethodVisitor;
 
@@ -18,6 +19,11 @@ public record HolderClassifierNode<T, R>(Holder<ClassifierNode<T, R>> holder) im
         holder.value().forEachPossibleValue(consumer);
     }
 
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+        holder.value().forEachParameter(consumer);
+    }
+
     @Override
     public ClassifierType type() {
         return ClassifierType.OPAQUE;
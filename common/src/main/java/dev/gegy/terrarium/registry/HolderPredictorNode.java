@@ -1,10 +1,13 @@
 package dev.gegy.terrarium.registry;
 
 import dev.gegy.terrarium.backend.expr.ExprCaptures;
+import dev.gegy.terrarium.backend.expr.predictor.Predictor;
 import dev.gegy.terrarium.backend.expr.predictor.PredictorNode;
 import net.minecraft.core.Holder;
 import org.objectweb.asm.MethodVisitor;
 
+import java.util.function.Consumer;
+
 public record HolderPredictorNode<T>(Holder<PredictorNode<T>> holder) implements PredictorNode<T> {
     @Override
     public void compile(final MethodVisitor method, final ExprCaptures captures) {
@@ -15,4 +18,9 @@ public record HolderPredictorNode<T>(Holder<PredictorNode<T>> holder) implements
     public PredictorType type() {
         return PredictorType.OPAQUE;
     }
+
+    @Override
+    public void forEachParameter(final Consumer<Predictor<T>> consumer) {
+        holder.value().forEachParameter(consumer);
+    }
 }
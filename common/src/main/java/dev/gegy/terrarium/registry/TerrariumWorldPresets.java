@@ -2,6 +2,7 @@ package dev.gegy.terrarium.registry;
 
 import dev.gegy.terrarium.Terrarium;
 import dev.gegy.terrarium.backend.earth.EarthConfiguration;
+import dev.gegy.terrarium.backend.earth.GeoChunkRetention;
 import dev.gegy.terrarium.backend.projection.cylindrical.Mercator;
 import dev.gegy.terrarium.world.generator.biome.EarthBiomeSource;
 import dev.gegy.terrarium.world.generator.chunk.EarthChunkGenerator;
@@ -53,7 +54,8 @@ public class TerrariumWorldPresets {
                 new EarthConfiguration(
                         new Mercator(50000.0),
                         100.0f,
-                        63
+                        63,
+                        GeoChunkRetention.UNTIL_GENERATED
                 )
         );
     }
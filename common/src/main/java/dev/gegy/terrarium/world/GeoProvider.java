@@ -1,32 +1,48 @@
 package dev.gegy.terrarium.world;
 
+import dev.gegy.terrarium.backend.GeoAttachmentSet;
 import dev.gegy.terrarium.backend.GeoChunk;
 import dev.gegy.terrarium.backend.GeoView;
-import dev.gegy.terrarium.backend.layer.GeoLayer;
+import dev.gegy.terrarium.backend.PendingGeoChunk;
+import dev.gegy.terrarium.backend.layer.GeoChunkLayer;
 import dev.gegy.terrarium.backend.raster.RasterShape;
 import dev.gegy.terrarium.world.generator.GeoChunkCache;
 import net.minecraft.world.level.ChunkPos;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class GeoProvider {
-    private final GeoLayer<GeoChunk> layer;
+    private final GeoChunkLayer layer;
     private final GeoChunkCache cachedLayer;
 
-    public GeoProvider(final GeoLayer<GeoChunk> layer) {
+    public GeoProvider(final GeoChunkLayer layer) {
         this.layer = layer;
         cachedLayer = new GeoChunkCache(layer);
     }
 
-    public CompletableFuture<GeoChunk> getOrLoad(final ChunkPos pos) {
+    public PendingGeoChunk getOrLoad(final ChunkPos pos) {
         return cachedLayer.getOrLoad(pos);
     }
 
+    public CompletableFuture<GeoChunk> getOrLoad(final ChunkPos pos, final GeoAttachmentSet attachments) {
+        return getOrLoad(pos).require(attachments);
+    }
+
     public GeoChunk getOrLoadSync(final ChunkPos pos) {
-        return getOrLoad(pos).join();
+        return getOrLoad(pos).all().join();
+    }
+
+    public GeoChunk getOrLoadSync(final ChunkPos pos, final GeoAttachmentSet attachments) {
+        return getOrLoad(pos, attachments).join();
     }
 
     public CompletableFuture<GeoChunk> load(final GeoView sourceView, final RasterShape outputShape) {
         return layer.get(sourceView, outputShape).thenApply(chunk -> chunk.orElse(GeoChunk.EMPTY));
     }
+
+    // Only for consumers that don't need to match the world exactly, as the preview may come from coarser data
+    public CompletableFuture<GeoChunk> loadProgressive(final GeoView sourceView, final RasterShape outputShape, final Consumer<GeoChunk> preview) {
+        return layer.getProgressive(sourceView, outputShape, preview).thenApply(chunk -> chunk.orElse(GeoChunk.EMPTY));
+    }
 }
@@ -16,6 +16,10 @@ public class ChunkStatusDecorator {
         if (status == ChunkStatus.STRUCTURE_STARTS) {
             return GeoChunkLoader::loadGeoChunk;
         }
+        // Each of the statuses that read the GeoChunk wait on just the attachments that the generator says it needs
+        if (status == ChunkStatus.BIOMES || status == ChunkStatus.NOISE || status == ChunkStatus.SURFACE) {
+            return (context, chunkCache, chunk) -> GeoChunkLoader.awaitAttachments(context, chunk, status);
+        }
         return null;
     }
 
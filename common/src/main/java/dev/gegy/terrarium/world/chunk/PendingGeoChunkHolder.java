@@ -0,0 +1,27 @@
+package dev.gegy.terrarium.world.chunk;
+
+import dev.gegy.terrarium.backend.PendingGeoChunk;
+import org.jetbrains.annotations.Nullable;
+
+// Holds the GeoChunk of a chunk that is still being generated while its attachments load, so that each status can wait
+// on only what it reads before putting it on the GeoChunkHolder
+public interface PendingGeoChunkHolder {
+    static void put(final Object holder, final PendingGeoChunk pendingChunk) {
+        if (holder instanceof final PendingGeoChunkHolder h) {
+            h.terrarium$putPendingGeoChunk(pendingChunk);
+        }
+    }
+
+    @Nullable
+    static PendingGeoChunk get(final Object holder) {
+        if (holder instanceof final PendingGeoChunkHolder h) {
+            return h.terrarium$getPendingGeoChunk();
+        }
+        return null;
+    }
+
+    void terrarium$putPendingGeoChunk(PendingGeoChunk pendingChunk);
+
+    @Nullable
+    PendingGeoChunk terrarium$getPendingGeoChunk();
+}
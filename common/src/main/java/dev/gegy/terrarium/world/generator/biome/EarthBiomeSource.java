@@ -4,6 +4,7 @@ import com.google.common.base.Suppliers;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.gegy.terrarium.backend.GeoAttachmentSet;
 import dev.gegy.terrarium.backend.GeoChunk;
 import dev.gegy.terrarium.backend.earth.EarthAttachments;
 import dev.gegy.terrarium.backend.earth.GeoParameters;
@@ -27,11 +28,13 @@ public class EarthBiomeSource extends GeoBiomeSource {
 
     private final Holder<ClassifierNode<GeoParameters, Holder<Biome>>> biomeClassifierNode;
     private final Supplier<Classifier<GeoParameters, Holder<Biome>>> biomeClassifier;
+    private final Supplier<GeoAttachmentSet> requiredAttachments;
     private final Holder<Biome> fallbackBiome;
 
     public EarthBiomeSource(final Holder<ClassifierNode<GeoParameters, Holder<Biome>>> biomeClassifierNode, final Holder<Biome> fallbackBiome) {
         this.biomeClassifierNode = biomeClassifierNode;
         biomeClassifier = Suppliers.memoize(() -> ClassifierNode.compile(biomeClassifierNode.value()));
+        requiredAttachments = Suppliers.memoize(() -> GeoParameters.requiredAttachments(biomeClassifierNode.value()));
         this.fallbackBiome = fallbackBiome;
     }
 
@@ -50,7 +53,7 @@ public class EarthBiomeSource extends GeoBiomeSource {
 
     @Override
     public FlatChunkResolver chunkResolver(final GeoChunk geoChunk) {
-        final EarthAttachments attachments = EarthAttachments.from(geoChunk).orElse(null);
+        final EarthAttachments attachments = EarthAttachments.from(geoChunk, requiredAttachments.get()).orElse(null);
         if (attachments == null) {
             return (x, z) -> fallbackBiome;
         }
@@ -58,4 +61,9 @@ public class EarthBiomeSource extends GeoBiomeSource {
         final Classifier<GeoParameters, Holder<Biome>> biomeClassifier = this.biomeClassifier.get();
         return (x, z) -> biomeClassifier.evaluate(parameters.set(attachments, x, z));
     }
+
+    @Override
+    public GeoAttachmentSet requiredAttachments() {
+        return requiredAttachments.get();
+    }
 }
@@ -2,6 +2,7 @@ package dev.gegy.terrarium.world.generator.biome;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
+import dev.gegy.terrarium.backend.GeoAttachmentSet;
 import dev.gegy.terrarium.backend.GeoChunk;
 import dev.gegy.terrarium.world.GeoProvider;
 import dev.gegy.terrarium.world.GeoProviderHolder;
@@ -44,6 +45,9 @@ public abstract class GeoBiomeSource extends BiomeSource {
 
     public abstract FlatChunkResolver chunkResolver(GeoChunk geoChunk);
 
+    // What chunkResolver reads from the GeoChunk
+    public abstract GeoAttachmentSet requiredAttachments();
+
     public interface FlatChunkResolver {
         int CHUNK_SIZE = SectionPos.SECTION_SIZE >> QuartPos.BITS;
 
@@ -91,7 +95,7 @@ public abstract class GeoBiomeSource extends BiomeSource {
             final GeoProvider geoProvider = GeoProviderHolder.get(sampler);
             final GeoChunk geoChunk;
             if (geoProvider != null) {
-                geoChunk = geoProvider.getOrLoadSync(new ChunkPos(chunkX, chunkZ));
+                geoChunk = geoProvider.getOrLoadSync(new ChunkPos(chunkX, chunkZ), requiredAttachments());
             } else {
                 geoChunk = GeoChunk.EMPTY;
             }
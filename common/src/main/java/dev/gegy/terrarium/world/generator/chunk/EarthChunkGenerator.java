@@ -4,12 +4,17 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import dev.gegy.terrarium.Terrarium;
+import dev.gegy.terrarium.backend.GeoAttachmentSet;
 import dev.gegy.terrarium.backend.GeoChunk;
 import dev.gegy.terrarium.backend.earth.EarthAttachments;
 import dev.gegy.terrarium.backend.earth.EarthConfiguration;
+import dev.gegy.terrarium.backend.earth.GeoChunkRetention;
 import dev.gegy.terrarium.backend.earth.EarthLayers;
+import dev.gegy.terrarium.backend.loader.ConcurrencyLimiter;
 import dev.gegy.terrarium.backend.raster.ShortRaster;
-import dev.gegy.terrarium.backend.tile.GuavaTileCache;
+import dev.gegy.terrarium.backend.tile.TiledRasterSampler;
+import dev.gegy.terrarium.backend.tile.WeightedTileCache;
+import dev.gegy.terrarium.backend.util.AllocationMonitor;
 import dev.gegy.terrarium.world.GeoProvider;
 import dev.gegy.terrarium.world.GeoProviderHolder;
 import dev.gegy.terrarium.world.generator.biome.GeoBiomeSource;
@@ -32,12 +37,15 @@ import net.minecraft.world.level.NoiseColumn;
 import net.minecraft.world.level.StructureManager;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.BiomeManager;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.chunk.ChunkGenerator;
 import net.minecraft.world.level.chunk.ChunkGeneratorStructureState;
 import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
 import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.levelgen.NoiseChunk;
 import net.minecraft.world.level.levelgen.RandomState;
@@ -70,6 +78,17 @@ public class EarthChunkGenerator extends GeoChunkGenerator {
 
     private static final SurfaceRules.RuleSource SURFACE_RULE = SurfaceRuleData.overworld();
 
+    private static final GeoAttachmentSet ELEVATION_SET = GeoAttachmentSet.of(EarthAttachments.ELEVATION);
+
+    private static final Duration TILE_CACHE_EXPIRY_TIME = Duration.ofSeconds(30);
+    private static final long TILE_CACHE_MAXIMUM_BYTES = 512L * 1024 * 1024;
+    private static final long LOD_TILE_CACHE_MAXIMUM_BYTES = 256L * 1024 * 1024;
+    // Chunks are generated in bursts around the player, so their tile requests are worth gathering up for a moment
+    private static final TiledRasterSampler.Batching TILE_BATCHING = new TiledRasterSampler.Batching(Duration.ofMillis(2), 1);
+
+    private static final AllocationMonitor ALLOCATION_MONITOR = new AllocationMonitor();
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
     private final int minY;
     private final int height;
     private final int maxY;
@@ -100,13 +119,38 @@ public class EarthChunkGenerator extends GeoChunkGenerator {
 
     @Override
     public GeoProvider createGeoProvider() {
+        return createGeoProvider(ConcurrencyLimiter.Purpose.GENERATION, TILE_CACHE_MAXIMUM_BYTES);
+    }
+
+    @Override
+    public GeoProvider createLodGeoProvider() {
+        return createGeoProvider(ConcurrencyLimiter.Purpose.LOD, LOD_TILE_CACHE_MAXIMUM_BYTES);
+    }
+
+    private GeoProvider createGeoProvider(final ConcurrencyLimiter.Purpose purpose, final long tileCacheMaximumBytes) {
+        // Nothing but the biomes reads anything other than elevation, so there's no need to fetch what they don't use
         return new GeoProvider(EarthLayers.create(
-                Terrarium.createTiles(new GuavaTileCache(Duration.ofSeconds(30), 256)),
+                Terrarium.createTiles(new WeightedTileCache(TILE_CACHE_EXPIRY_TIME, tileCacheMaximumBytes), TILE_BATCHING, purpose),
                 configuration.projection(),
+                getBiomeSource().requiredAttachments().union(ELEVATION_SET),
                 Util.backgroundExecutor()
         ));
     }
 
+    @Override
+    public boolean shouldSaveGeoChunk(final ChunkStatus status) {
+        return configuration.geoChunkRetention() == GeoChunkRetention.KEEP || isGeoChunkNeeded(status);
+    }
+
+    @Override
+    public GeoAttachmentSet getRequiredAttachments(final ChunkStatus status) {
+        // The surface rule only needs the terrain height, and takes everything else from the biomes
+        if (status == ChunkStatus.NOISE || status == ChunkStatus.SURFACE) {
+            return ELEVATION_SET;
+        }
+        return super.getRequiredAttachments(status);
+    }
+
     @Override
     protected MapCodec<? extends ChunkGenerator> codec() {
         return CODEC;
@@ -121,7 +165,7 @@ public class EarthChunkGenerator extends GeoChunkGenerator {
 
     @Override
     public void buildSurface(final WorldGenRegion region, final StructureManager structures, final RandomState randomState, final ChunkAccess chunk) {
-        final GeoChunk geoChunk = getGeoChunk(chunk);
+        final GeoChunk geoChunk = getGeoChunk(randomState, chunk, ChunkStatus.SURFACE);
 
         final WorldGenerationContext context = new WorldGenerationContext(this, region);
         final BiomeManager biomeManager = region.getBiomeManager();
@@ -160,7 +204,7 @@ public class EarthChunkGenerator extends GeoChunkGenerator {
 
     @Override
     public CompletableFuture<ChunkAccess> fillFromNoise(final Blender blender, final RandomState randomState, final StructureManager structures, final ChunkAccess chunk) {
-        final ShortRaster elevation = getGeoChunk(chunk).get(EarthAttachments.ELEVATION);
+        final ShortRaster elevation = getGeoChunk(randomState, chunk, ChunkStatus.NOISE).get(EarthAttachments.ELEVATION);
         if (elevation != null) {
             fillSurface(chunk, elevation, fillBlock, fluidBlock, getSeaLevel());
         }
@@ -172,25 +216,38 @@ public class EarthChunkGenerator extends GeoChunkGenerator {
         final Heightmap worldSurfaceHeightmap = chunk.getOrCreateHeightmapUnprimed(Heightmap.Types.WORLD_SURFACE_WG);
 
         final int[] surfaceMap = new int[SectionPos.SECTION_SIZE * SectionPos.SECTION_SIZE];
-        int maxY = seaLevel;
+        int minSurfaceY = Integer.MAX_VALUE;
+        int maxSurfaceY = Integer.MIN_VALUE;
         for (int z = 0; z < SectionPos.SECTION_SIZE; z++) {
             for (int x = 0; x < SectionPos.SECTION_SIZE; x++) {
                 final int surfaceY = transformElevationToY(elevationRaster.getInt(x, z));
                 surfaceMap[x + z * SectionPos.SECTION_SIZE] = surfaceY;
                 oceanFloorHeightmap.update(x, surfaceY, z, fillBlock);
                 worldSurfaceHeightmap.update(x, Math.max(surfaceY, seaLevel), z, fluidBlock);
-                if (surfaceY > maxY) {
-                    maxY = surfaceY;
-                }
+                minSurfaceY = Math.min(minSurfaceY, surfaceY);
+                maxSurfaceY = Math.max(maxSurfaceY, surfaceY);
             }
         }
 
-        final int maxSectionY = SectionPos.blockToSectionCoord(maxY);
+        final LevelChunkSection[] sections = chunk.getSections();
+        final int maxSectionY = SectionPos.blockToSectionCoord(Math.max(maxSurfaceY, seaLevel));
         final int minSectionY = chunk.getMinSectionY();
         for (int sectionY = maxSectionY; sectionY >= minSectionY; sectionY--) {
             final int sectionBottomY = SectionPos.sectionToBlockCoord(sectionY);
             final int sectionTopY = SectionPos.sectionToBlockCoord(sectionY, SectionPos.SECTION_MAX_INDEX);
-            final LevelChunkSection section = chunk.getSection(chunk.getSectionIndexFromSectionY(sectionY));
+            final int sectionIndex = chunk.getSectionIndexFromSectionY(sectionY);
+
+            // Sections that are all below the surface, or all under water, hold just one block throughout, so can be
+            // replaced whole rather than set block by block
+            if (sectionTopY <= minSurfaceY) {
+                sections[sectionIndex] = createFilledSection(sections[sectionIndex], fillBlock);
+                continue;
+            } else if (sectionBottomY > maxSurfaceY && sectionTopY <= seaLevel) {
+                sections[sectionIndex] = createFilledSection(sections[sectionIndex], fluidBlock);
+                continue;
+            }
+
+            final LevelChunkSection section = sections[sectionIndex];
             for (int z = 0; z < SectionPos.SECTION_SIZE; z++) {
                 for (int x = 0; x < SectionPos.SECTION_SIZE; x++) {
                     final int surfaceY = surfaceMap[x + z * SectionPos.SECTION_SIZE];
@@ -204,6 +261,12 @@ public class EarthChunkGenerator extends GeoChunkGenerator {
         }
     }
 
+    // Biomes have already been filled in by this point, so they're carried over to the new section
+    private static LevelChunkSection createFilledSection(final LevelChunkSection section, final BlockState block) {
+        final PalettedContainer<BlockState> states = new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, block, PalettedContainer.Strategy.SECTION_STATES);
+        return new LevelChunkSection(states, section.getBiomes());
+    }
+
     private int transformElevationToY(final int elevation) {
         final int y = Mth.floor((elevation * heightScale) + configuration.heightOffset());
         return Mth.clamp(y, minY, maxY);
@@ -245,7 +308,7 @@ public class EarthChunkGenerator extends GeoChunkGenerator {
         final GeoProvider geoProvider = GeoProviderHolder.get(randomState);
         if (geoProvider != null) {
             final ChunkPos chunkPos = new ChunkPos(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z));
-            final ShortRaster elevation = geoProvider.getOrLoadSync(chunkPos).get(EarthAttachments.ELEVATION);
+            final ShortRaster elevation = geoProvider.getOrLoadSync(chunkPos, ELEVATION_SET).get(EarthAttachments.ELEVATION);
             if (elevation != null) {
                 return transformElevationToY(elevation.getInt(SectionPos.sectionRelative(x), SectionPos.sectionRelative(z)));
             }
@@ -258,6 +321,13 @@ public class EarthChunkGenerator extends GeoChunkGenerator {
         final double lat = configuration.projection().lat(pos.getX(), pos.getZ());
         final double lon = configuration.projection().lon(pos.getX(), pos.getZ());
         lines.add(String.format(Locale.ROOT, "Lat/Lon: %.3f / %.3f", lat, lon));
+
+        final AllocationMonitor.Rate allocation = ALLOCATION_MONITOR.sample();
+        lines.add(String.format(Locale.ROOT, "Alloc: %.1f MB/s, scratch %.1f MB/s (%.0f%% reused)",
+                allocation.heapBytesPerSecond() / BYTES_PER_MEGABYTE,
+                allocation.scratchAllocatedBytesPerSecond() / BYTES_PER_MEGABYTE,
+                allocation.scratchReuseRatio() * 100.0
+        ));
     }
 
     @Override
@@ -293,12 +363,11 @@ public class EarthChunkGenerator extends GeoChunkGenerator {
 
     @Override
     public void buildLod(final LodOutput output, final GeoChunk geoChunk, final GeoBiomeSource.FlatChunkResolver biomeResolver) {
-        final Optional<EarthAttachments> earth = EarthAttachments.from(geoChunk);
-        if (earth.isEmpty()) {
+        final ShortRaster elevation = geoChunk.get(EarthAttachments.ELEVATION);
+        if (elevation == null) {
             return;
         }
 
-        final ShortRaster elevation = earth.get().elevation();
         final int seaLevel = getSeaLevel();
 
         for (int z = 0; z < elevation.height(); z++) {
@@ -1,7 +1,9 @@
 package dev.gegy.terrarium.world.generator.chunk;
 
+import dev.gegy.terrarium.backend.GeoAttachmentSet;
 import dev.gegy.terrarium.backend.GeoChunk;
 import dev.gegy.terrarium.world.GeoProvider;
+import dev.gegy.terrarium.world.GeoProviderHolder;
 import dev.gegy.terrarium.world.chunk.GeoChunkHolder;
 import dev.gegy.terrarium.world.generator.biome.GeoBiomeSource;
 import net.minecraft.Util;
@@ -12,6 +14,7 @@ import net.minecraft.world.level.biome.BiomeResolver;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
 import net.minecraft.world.level.levelgen.RandomState;
 import net.minecraft.world.level.levelgen.blending.Blender;
 
@@ -29,15 +32,49 @@ public abstract class GeoChunkGenerator extends ChunkGenerator {
 
     public abstract GeoProvider createGeoProvider();
 
-    protected final GeoChunk getGeoChunk(final ChunkAccess chunk) {
-        return GeoChunkHolder.get(chunk);
+    // LODs don't need to match the world exactly, so they may be given a provider that loads more loosely and doesn't
+    // compete with chunk generation for tiles
+    public GeoProvider createLodGeoProvider() {
+        return createGeoProvider();
+    }
+
+    // Generation only reads the GeoChunk up until the surface is built, so anything after that is free to drop it
+    public static boolean isGeoChunkNeeded(final ChunkStatus status) {
+        return !status.isOrAfter(ChunkStatus.SURFACE);
+    }
+
+    public boolean shouldSaveGeoChunk(final ChunkStatus status) {
+        return true;
+    }
+
+    // What generating up to the given status reads from the GeoChunk. The chunk waits on only these before the status
+    // runs, while the rest keep loading.
+    public GeoAttachmentSet getRequiredAttachments(final ChunkStatus status) {
+        if (status == ChunkStatus.BIOMES) {
+            return getBiomeSource().requiredAttachments();
+        }
+        return GeoAttachmentSet.EMPTY;
+    }
+
+    // Chunks may come without what they need on their GeoChunk if it was dropped on save or couldn't be read back, in
+    // which case we sample it again
+    protected final GeoChunk getGeoChunk(final RandomState randomState, final ChunkAccess chunk, final ChunkStatus status) {
+        final GeoChunk geoChunk = GeoChunkHolder.get(chunk);
+        final GeoAttachmentSet attachments = getRequiredAttachments(status);
+        final GeoProvider geoProvider = GeoProviderHolder.get(randomState);
+        if (geoChunk.hasAll(attachments) || geoProvider == null) {
+            return geoChunk;
+        }
+        final GeoChunk regeneratedChunk = geoChunk.with(geoProvider.getOrLoadSync(chunk.getPos(), attachments));
+        GeoChunkHolder.put(chunk, regeneratedChunk);
+        return regeneratedChunk;
     }
 
     @Override
     public CompletableFuture<ChunkAccess> createBiomes(final RandomState randomState, final Blender blender, final StructureManager structureManager, final ChunkAccess chunkAccess) {
         if (biomeSource instanceof final GeoBiomeSource geoBiomeSource) {
-            final GeoChunk geoChunk = getGeoChunk(chunkAccess);
             return CompletableFuture.supplyAsync(() -> {
+                final GeoChunk geoChunk = getGeoChunk(randomState, chunkAccess, ChunkStatus.BIOMES);
                 final BiomeResolver resolver = geoBiomeSource.chunkResolver(geoChunk).toFullBiomeResolver();
                 chunkAccess.fillBiomesFromNoise(resolver, randomState.sampler());
                 return chunkAccess;
@@ -1,24 +1,58 @@
 package dev.gegy.terrarium.world.generator.chunk.data;
 
+import dev.gegy.terrarium.backend.GeoAttachmentSet;
+import dev.gegy.terrarium.backend.PendingGeoChunk;
 import dev.gegy.terrarium.world.GeoProvider;
 import dev.gegy.terrarium.world.GeoProviderHolder;
 import dev.gegy.terrarium.world.chunk.GeoChunkHolder;
+import dev.gegy.terrarium.world.chunk.PendingGeoChunkHolder;
+import dev.gegy.terrarium.world.generator.chunk.GeoChunkGenerator;
 import net.minecraft.server.level.GenerationChunkHolder;
 import net.minecraft.util.StaticCache2D;
 import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
 import net.minecraft.world.level.chunk.status.WorldGenContext;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.CompletableFuture;
 
 public class GeoChunkLoader {
     private static final CompletableFuture<?> DISABLED = CompletableFuture.completedFuture(null);
 
+    // Only starts loading, so that the chunk can carry on through the statuses that don't need anything from it
     public static CompletableFuture<?> loadGeoChunk(final WorldGenContext context, final StaticCache2D<GenerationChunkHolder> chunkCache, final ChunkAccess chunk) {
+        getOrStartLoading(context, chunk);
+        return DISABLED;
+    }
+
+    public static CompletableFuture<?> awaitAttachments(final WorldGenContext context, final ChunkAccess chunk, final ChunkStatus status) {
+        if (!(context.generator() instanceof final GeoChunkGenerator generator)) {
+            return DISABLED;
+        }
+        final GeoAttachmentSet attachments = generator.getRequiredAttachments(status);
+        if (GeoChunkHolder.get(chunk).hasAll(attachments)) {
+            return DISABLED;
+        }
+        final PendingGeoChunk pendingChunk = getOrStartLoading(context, chunk);
+        if (pendingChunk == null) {
+            return DISABLED;
+        }
+        return pendingChunk.require(attachments).thenAccept(geoChunk -> GeoChunkHolder.put(chunk, GeoChunkHolder.get(chunk).with(geoChunk)));
+    }
+
+    // Chunks that were loaded from disk part way through generation won't have started loading anything yet
+    @Nullable
+    private static PendingGeoChunk getOrStartLoading(final WorldGenContext context, final ChunkAccess chunk) {
+        final PendingGeoChunk pendingChunk = PendingGeoChunkHolder.get(chunk);
+        if (pendingChunk != null) {
+            return pendingChunk;
+        }
         final GeoProvider geoProvider = GeoProviderHolder.get(context.level());
-        if (geoProvider != null) {
-            return geoProvider.getOrLoad(chunk.getPos())
-                    .thenAccept(geoChunk -> GeoChunkHolder.put(chunk, geoChunk));
+        if (geoProvider == null) {
+            return null;
         }
-        return DISABLED;
+        final PendingGeoChunk loadingChunk = geoProvider.getOrLoad(chunk.getPos());
+        PendingGeoChunkHolder.put(chunk, loadingChunk);
+        return loadingChunk;
     }
 }
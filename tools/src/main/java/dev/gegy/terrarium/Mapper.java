@@ -4,6 +4,7 @@ import dev.gegy.terrarium.backend.earth.EarthLayers;
 import dev.gegy.terrarium.backend.earth.EarthTiles;
 import dev.gegy.terrarium.backend.loader.ConcurrencyLimiter;
 import dev.gegy.terrarium.backend.tile.GuavaTileCache;
+import dev.gegy.terrarium.backend.tile.TiledRasterSampler;
 import dev.gegy.terrarium.map.MapController;
 import dev.gegy.terrarium.map.MapPanel;
 import dev.gegy.terrarium.map.feature.LandCoverFeature;
@@ -33,7 +34,7 @@ public class Mapper {
             .build();
 
     public static final EarthTiles TILES = new EarthTiles.Config(HTTP_CLIENT, new ConcurrencyLimiter(16), CACHE_ROOT, EXECUTOR, EXECUTOR)
-            .create(new GuavaTileCache(Duration.ofMinutes(1), 1024));
+            .create(new GuavaTileCache(Duration.ofMinutes(1), 1024), TiledRasterSampler.Batching.DISABLED, ConcurrencyLimiter.Purpose.INTERACTIVE);
 
     public static void main(final String[] args) {
         try {
@@ -0,0 +1,184 @@
+package dev.gegy.terrarium;
+
+import com.mojang.logging.LogUtils;
+import dev.gegy.terrarium.backend.earth.EarthTiles;
+import dev.gegy.terrarium.backend.earth.GeoCoords;
+import dev.gegy.terrarium.backend.loader.ConcurrencyLimiter;
+import dev.gegy.terrarium.backend.loader.HttpDownloader;
+import dev.gegy.terrarium.backend.tile.TileKey;
+import org.slf4j.Logger;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Populates a tile cache for a region ahead of time, for machines that can't reach the tile server while running.
+// Tiles that are already cached are skipped, so an interrupted run can simply be started again.
+//
+// Usage: Seeder <lat,lon> <lat,lon> <levels, e.g. 0-4 or 2,5> [parallelism] [cache root] [packed]
+// The region runs east from the first longitude to the second, so e.g. 170 to -170 crosses the antimeridian.
+public class Seeder {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final int DEFAULT_PARALLELISM = 16;
+    private static final Path DEFAULT_CACHE_ROOT = Path.of("cache2");
+    // Bounds how many tile futures we keep around at once, so that seeding large regions doesn't hold millions of them
+    private static final int BATCH_SIZE_PER_REQUEST = 8;
+
+    private final EarthTiles.Config tiles;
+    private final int batchSize;
+
+    public Seeder(final EarthTiles.Config tiles, final int parallelism) {
+        this.tiles = tiles;
+        batchSize = parallelism * BATCH_SIZE_PER_REQUEST;
+    }
+
+    public static void main(final String[] args) {
+        if (args.length < 3) {
+            LOGGER.error("Usage: Seeder <lat,lon> <lat,lon> <levels> [parallelism] [cache root] [packed]");
+            System.exit(1);
+        }
+
+        final GeoCoords from = parseCoords(args[0]);
+        final GeoCoords to = parseCoords(args[1]);
+        final int[] levels = parseLevels(args[2]);
+        final int parallelism = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_PARALLELISM;
+        final Path cacheRoot = args.length > 4 ? Path.of(args[4]) : DEFAULT_CACHE_ROOT;
+        final EarthTiles.CacheLayout cacheLayout = args.length > 5 && args[5].equals("packed") ? EarthTiles.CacheLayout.PACKED : EarthTiles.CacheLayout.FILE_PER_TILE;
+
+        final ForkJoinPool executor = ForkJoinPool.commonPool();
+        final HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .version(HttpClient.Version.HTTP_2)
+                .executor(executor)
+                .build();
+        final EarthTiles.Config tiles = new EarthTiles.Config(
+                httpClient,
+                new ConcurrencyLimiter(parallelism),
+                EarthTiles.DEFAULT_ENDPOINT,
+                cacheRoot,
+                cacheLayout,
+                false,
+                executor,
+                executor
+        );
+
+        final boolean complete = new Seeder(tiles, parallelism).seed(from, to, levels);
+        System.exit(complete ? 0 : 1);
+    }
+
+    public boolean seed(final GeoCoords from, final GeoCoords to, final int[] levels) {
+        final List<Job> jobs = new ArrayList<>();
+        for (final EarthTiles.TileSource source : EarthTiles.TileSource.ALL) {
+            for (final int level : levels) {
+                if (source.hasLevel(level)) {
+                    jobs.add(new Job(source, level, EarthTiles.tilesInBounds(level, from, to)));
+                }
+            }
+        }
+
+        final long totalTiles = jobs.stream().mapToLong(job -> job.keys().size()).sum();
+        LOGGER.info("Seeding {} tiles across {} layers and levels between {} and {}", totalTiles, jobs.size(), from, to);
+
+        final Progress progress = new Progress(totalTiles);
+
+        final HttpDownloader.Result climate = tiles.fetchClimate().join();
+        if (!climate.isPresent()) {
+            LOGGER.error("Failed to fetch climate data");
+        }
+
+        for (final Job job : jobs) {
+            final List<TileKey> keys = job.keys();
+            for (int start = 0; start < keys.size(); start += batchSize) {
+                final List<TileKey> batch = keys.subList(start, Math.min(start + batchSize, keys.size()));
+                progress.add(tiles.fetchTiles(job.source(), job.level(), batch).join());
+                progress.report(job);
+            }
+        }
+
+        progress.reportFinal();
+        return climate.isPresent() && progress.result.failedCount() == 0;
+    }
+
+    private static GeoCoords parseCoords(final String value) {
+        final String[] parts = value.split(",");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected coordinates as <lat,lon>, got: " + value);
+        }
+        return new GeoCoords(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+    }
+
+    private static int[] parseLevels(final String value) {
+        final int rangeIndex = value.indexOf('-');
+        if (rangeIndex != -1) {
+            final int min = Integer.parseInt(value.substring(0, rangeIndex).trim());
+            final int max = Integer.parseInt(value.substring(rangeIndex + 1).trim());
+            return IntStream.rangeClosed(min, max).toArray();
+        }
+        final String[] parts = value.split(",");
+        final int[] levels = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            levels[i] = Integer.parseInt(parts[i].trim());
+        }
+        return levels;
+    }
+
+    private record Job(EarthTiles.TileSource source, int level, List<TileKey> keys) {
+    }
+
+    private static class Progress {
+        private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+        private final long totalTiles;
+        private final long startTime = System.nanoTime();
+
+        private EarthTiles.BulkFetchResult result = EarthTiles.BulkFetchResult.EMPTY;
+
+        private Progress(final long totalTiles) {
+            this.totalTiles = totalTiles;
+        }
+
+        public void add(final EarthTiles.BulkFetchResult result) {
+            this.result = this.result.add(result);
+        }
+
+        public void report(final Job job) {
+            final double seconds = elapsedSeconds();
+            final long processed = processedTiles();
+            LOGGER.info(
+                    "[{}/{}] {} level {}: {} fetched, {} already cached, {} failed ({} tiles/s, {} MB/s)",
+                    processed, totalTiles,
+                    job.source().route(), job.level(),
+                    result.fetchedCount(), result.cachedCount(), result.failedCount(),
+                    format(processed / seconds), format(result.bytes() / BYTES_PER_MEGABYTE / seconds)
+            );
+        }
+
+        public void reportFinal() {
+            final double seconds = elapsedSeconds();
+            LOGGER.info(
+                    "Finished in {}s: {} fetched, {} already cached, {} failed, {} MB downloaded ({} tiles/s, {} MB/s)",
+                    format(seconds),
+                    result.fetchedCount(), result.cachedCount(), result.failedCount(),
+                    format(result.bytes() / BYTES_PER_MEGABYTE),
+                    format(processedTiles() / seconds), format(result.bytes() / BYTES_PER_MEGABYTE / seconds)
+            );
+        }
+
+        private long processedTiles() {
+            return (long) result.fetchedCount() + result.cachedCount() + result.failedCount();
+        }
+
+        private double elapsedSeconds() {
+            return Math.max((System.nanoTime() - startTime) / 1.0e9, 1.0e-3);
+        }
+
+        private static String format(final double value) {
+            return String.format("%.2f", value);
+        }
+    }
+}
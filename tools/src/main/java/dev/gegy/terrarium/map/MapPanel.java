@@ -204,13 +204,16 @@ public class MapPanel extends JPanel implements ComponentListener, MouseListener
         final int tileCount = tileEdgeCount(zoomLevel);
         final int halfTileCount = tileCount / 2;
 
-        final RenderedTileMap tileMap = new RenderedTileMap(TILE_SIZE, (tileX, tileY) -> {
+        final RenderedTileMap tileMap = new RenderedTileMap(TILE_SIZE, (tileX, tileY, preview) -> {
             if (tileY < 0 || tileY >= tileCount) {
                 return CompletableFuture.completedFuture(Optional.empty());
             }
             final int wrappedTileX = Math.floorMod(tileX, tileCount);
             final int x0 = (wrappedTileX - halfTileCount) * TILE_SIZE;
             final int y0 = (tileY - halfTileCount) * TILE_SIZE;
+            if (preview) {
+                return feature.renderPreview(layers, wrappedTileX, tileY, zoomLevel, x0, y0, x0 + TILE_SIZE - 1, y0 + TILE_SIZE - 1);
+            }
             return feature.render(layers, wrappedTileX, tileY, zoomLevel, x0, y0, x0 + TILE_SIZE - 1, y0 + TILE_SIZE - 1);
         });
         tileMap.setRepaintListener(this::repaint);
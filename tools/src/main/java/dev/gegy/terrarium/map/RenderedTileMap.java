@@ -78,9 +78,14 @@ public class RenderedTileMap {
     }
 
     private Tile loadTile(final int x, final int y) {
-        final CompletableFuture<Optional<BufferedImage>> future = renderer.render(x, y);
+        final CompletableFuture<Optional<BufferedImage>> future = renderer.render(x, y, false);
         future.thenRun(repaintListener);
-        return new Tile(future);
+        if (future.isDone()) {
+            return new Tile(future, future);
+        }
+        final CompletableFuture<Optional<BufferedImage>> preview = renderer.render(x, y, true);
+        preview.thenRun(repaintListener);
+        return new Tile(future, preview);
     }
 
     public boolean isReady() {
@@ -116,15 +121,20 @@ public class RenderedTileMap {
         }
     }
 
-    private record Tile(CompletableFuture<Optional<BufferedImage>> image) {
+    // The preview is only shown until the full image is ready
+    private record Tile(CompletableFuture<Optional<BufferedImage>> image, CompletableFuture<Optional<BufferedImage>> preview) {
         @Nullable
         public BufferedImage getImage() {
-            return image.getNow(Optional.empty()).orElse(null);
+            if (image.isDone()) {
+                return image.getNow(Optional.empty()).orElse(null);
+            }
+            return preview.getNow(Optional.empty()).orElse(null);
         }
     }
 
     @FunctionalInterface
     public interface Renderer {
-        CompletableFuture<Optional<BufferedImage>> render(int tileX, int tileY);
+        // A preview is a rough render from whatever is already at hand, which is shown until the full render completes
+        CompletableFuture<Optional<BufferedImage>> render(int tileX, int tileY, boolean preview);
     }
 }
@@ -18,6 +18,13 @@ public interface DerivedFeature extends MapFeature {
                 .thenApplyAsync(result -> render(result.orElse(GeoChunk.EMPTY)), Mapper.EXECUTOR);
     }
 
+    @Override
+    default CompletableFuture<Optional<BufferedImage>> renderPreview(final EarthLayers layers, final int tileX, final int tileY, final int zoomLevel, final int x0, final int y0, final int x1, final int y1) {
+        final GeoView view = new GeoView(x0, y0, x1, y1);
+        return layers.getResident(view, view.shape())
+                .thenApplyAsync(result -> render(result.orElse(GeoChunk.EMPTY)), Mapper.EXECUTOR);
+    }
+
     private Optional<BufferedImage> render(final GeoChunk chunk) {
         return EarthAttachments.from(chunk).map(attachments -> {
             final int width = attachments.elevation().width();
@@ -1,17 +1,15 @@
 package dev.gegy.terrarium.map.feature;
 
-import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.earth.EarthLayers;
 import dev.gegy.terrarium.backend.earth.cover.Cover;
+import dev.gegy.terrarium.backend.layer.GeoLayer;
 import dev.gegy.terrarium.backend.raster.EnumRaster;
 
-import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 
 public record LandCoverFeature() implements RasterMapFeature<EnumRaster<Cover>> {
     @Override
-    public CompletableFuture<Optional<EnumRaster<Cover>>> sample(final EarthLayers layers, final GeoView view) {
-        return layers.landCover().getExact(view);
+    public GeoLayer<EnumRaster<Cover>> layer(final EarthLayers layers) {
+        return layers.landCover();
     }
 
     @Override
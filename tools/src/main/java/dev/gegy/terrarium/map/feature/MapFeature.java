@@ -10,4 +10,9 @@ public interface MapFeature {
     MapFeature EMPTY = (layers, tileX, tileY, zoomLevel, x0, y0, x1, y1) -> CompletableFuture.completedFuture(Optional.empty());
 
     CompletableFuture<Optional<BufferedImage>> render(EarthLayers layers, int tileX, int tileY, int zoomLevel, int x0, int y0, int x1, int y1);
+
+    // A rough render from data that's already resident, shown in place of the tile until render completes
+    default CompletableFuture<Optional<BufferedImage>> renderPreview(final EarthLayers layers, final int tileX, final int tileY, final int zoomLevel, final int x0, final int y0, final int x1, final int y1) {
+        return CompletableFuture.completedFuture(Optional.empty());
+    }
 }
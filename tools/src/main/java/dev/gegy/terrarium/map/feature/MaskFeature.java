@@ -1,12 +1,9 @@
 package dev.gegy.terrarium.map.feature;
 
-import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.earth.EarthLayers;
 import dev.gegy.terrarium.backend.layer.GeoLayer;
 import dev.gegy.terrarium.backend.raster.BitRaster;
 
-import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 public record MaskFeature(
@@ -15,8 +12,8 @@ public record MaskFeature(
         int falseColor
 ) implements RasterMapFeature<BitRaster> {
     @Override
-    public CompletableFuture<Optional<BitRaster>> sample(final EarthLayers layers, final GeoView view) {
-        return layerFunction.apply(layers).getExact(view);
+    public GeoLayer<BitRaster> layer(final EarthLayers layers) {
+        return layerFunction.apply(layers);
     }
 
     @Override
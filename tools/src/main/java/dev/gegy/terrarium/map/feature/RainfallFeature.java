@@ -1,17 +1,15 @@
 package dev.gegy.terrarium.map.feature;
 
 import dev.gegy.terrarium.ColorRamps;
-import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.earth.EarthLayers;
 import dev.gegy.terrarium.backend.earth.climate.RainfallRaster;
+import dev.gegy.terrarium.backend.layer.GeoLayer;
 
-import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 
 public record RainfallFeature() implements RasterMapFeature<RainfallRaster> {
     @Override
-    public CompletableFuture<Optional<RainfallRaster>> sample(final EarthLayers layers, final GeoView view) {
-        return layers.annualRainfall().getExact(view);
+    public GeoLayer<RainfallRaster> layer(final EarthLayers layers) {
+        return layers.annualRainfall();
     }
 
     @Override
@@ -1,13 +1,10 @@
 package dev.gegy.terrarium.map.feature;
 
 import dev.gegy.terrarium.ColorRamp;
-import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.earth.EarthLayers;
 import dev.gegy.terrarium.backend.layer.GeoLayer;
 import dev.gegy.terrarium.backend.raster.IntLikeRaster;
 
-import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 public record ScalarRasterFeature(
@@ -15,8 +12,8 @@ public record ScalarRasterFeature(
         ColorRamp colorRamp
 ) implements RasterMapFeature<IntLikeRaster> {
     @Override
-    public CompletableFuture<Optional<IntLikeRaster>> sample(final EarthLayers layers, final GeoView view) {
-        return layerFunction.apply(layers).getExact(view).thenApply(r -> r.map(Function.identity()));
+    public GeoLayer<? extends IntLikeRaster> layer(final EarthLayers layers) {
+        return layerFunction.apply(layers);
     }
 
     @Override
@@ -1,21 +1,18 @@
 package dev.gegy.terrarium.map.feature;
 
 import dev.gegy.terrarium.ColorRamps;
-import dev.gegy.terrarium.backend.GeoView;
 import dev.gegy.terrarium.backend.earth.EarthLayers;
 import dev.gegy.terrarium.backend.earth.climate.TemperatureRaster;
 import dev.gegy.terrarium.backend.layer.GeoLayer;
 
-import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 public record TemperatureFeature(
         Function<EarthLayers, GeoLayer<TemperatureRaster>> layerFunction
 ) implements RasterMapFeature<TemperatureRaster> {
     @Override
-    public CompletableFuture<Optional<TemperatureRaster>> sample(final EarthLayers layers, final GeoView view) {
-        return layerFunction.apply(layers).getExact(view);
+    public GeoLayer<TemperatureRaster> layer(final EarthLayers layers) {
+        return layerFunction.apply(layers);
     }
 
     @Override